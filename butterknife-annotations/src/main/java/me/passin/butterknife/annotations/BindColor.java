@@ -0,0 +1,22 @@
+package me.passin.butterknife.annotations;
+
+import androidx.annotation.ColorRes;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * 将颜色资源绑定到 int 字段，例如：
+ * <pre><code>
+ * {@literal @}BindColor(R.color.primary) int primaryColor;
+ * </code></pre>
+ * 同一个 Configuration 下只会读取一次，之后所有实例共享，因此不要用于引用了主题属性的颜色。
+ */
+@Retention(CLASS)
+@Target({FIELD})
+public @interface BindColor {
+    @ColorRes int value();
+}
@@ -0,0 +1,23 @@
+package me.passin.butterknife.annotations;
+
+import androidx.annotation.DimenRes;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * 将尺寸资源绑定到 int（像素大小）或者 float（精确值）字段，例如：
+ * <pre><code>
+ * {@literal @}BindDimen(R.dimen.padding) int padding;
+ * {@literal @}BindDimen(R.dimen.radius) float radius;
+ * </code></pre>
+ * 同一个 Configuration 下只会从 Resources 中读取一次，之后所有实例共享。
+ */
+@Retention(CLASS)
+@Target({FIELD})
+public @interface BindDimen {
+    @DimenRes int value();
+}
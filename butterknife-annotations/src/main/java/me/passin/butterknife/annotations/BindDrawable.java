@@ -0,0 +1,22 @@
+package me.passin.butterknife.annotations;
+
+import androidx.annotation.DrawableRes;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * 将 Drawable 资源绑定到 Drawable 字段，例如：
+ * <pre><code>
+ * {@literal @}BindDrawable(R.drawable.placeholder) Drawable placeholder;
+ * </code></pre>
+ * 同一个 Configuration 下只会加载一次资源，之后共享 ConstantState，每个实例得到的仍是新的 Drawable。
+ */
+@Retention(CLASS)
+@Target({FIELD})
+public @interface BindDrawable {
+    @DrawableRes int value();
+}
@@ -0,0 +1,22 @@
+package me.passin.butterknife.annotations;
+
+import androidx.annotation.StringRes;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * 将字符串资源绑定到 String 字段，例如：
+ * <pre><code>
+ * {@literal @}BindString(R.string.title) String title;
+ * </code></pre>
+ * 同一个 Configuration 下只会从 Resources 中读取一次，之后所有实例共享。
+ */
+@Retention(CLASS)
+@Target({FIELD})
+public @interface BindString {
+    @StringRes int value();
+}
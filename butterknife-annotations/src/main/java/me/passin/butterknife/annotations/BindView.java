@@ -12,4 +12,27 @@ import static java.lang.annotation.RetentionPolicy.CLASS;
 @Target({FIELD})
 public @interface BindView {
     @IdRes int value();
-}
\ No newline at end of file
+
+    /**
+     * 为 true 时延迟查找视图，字段类型必须为 {@code LazyView<T>}，
+     * 第一次调用 {@code LazyView.get()} 时才会 findViewById 并缓存结果。
+     * 适合错误页、高级面板等大多数情况下不会用到的视图。
+     */
+    boolean lazy() default false;
+
+    /**
+     * 视图所在 ViewStub 的 id，默认 -1（View.NO_ID）表示不在 ViewStub 中。
+     * 指定后 bind 时不会 inflate 该 ViewStub，而是在它 inflate 时才绑定视图；
+     * 如果 bind 时 ViewStub 已经 inflate，则直接绑定。
+     * <p>
+     * 生成的代码在 bind 时通过 {@code ViewStub.setOnInflateListener} 设置监听。ViewStub 只能持有一个监听，
+     * 也没有读取已有监听的方法，因此无法与其他监听串联：
+     * <ul>
+     * <li>bind 之前对该 ViewStub 设置的监听会被替换，inflate 时不再被调用；</li>
+     * <li>bind 之后设置的监听会替换生成的监听，inflate 后这些字段不会被绑定。</li>
+     * </ul>
+     * 需要自己监听 inflate 时不要使用该属性，改为在自己的监听中 findViewById，
+     * 或者改用 {@link #lazy()}：未找到的结果不会被缓存，ViewStub inflate 之后第一次 get() 就能找到视图。
+     */
+    @IdRes int stub() default -1;
+}
@@ -0,0 +1,23 @@
+package me.passin.butterknife.annotations;
+
+import androidx.annotation.IdRes;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * 将多个 id 的视图绑定到一个数组或者 {@code List} 字段中，例如：
+ * <pre><code>
+ * {@literal @}BindViews({R.id.star1, R.id.star2, R.id.star3}) ImageView[] stars;
+ * {@literal @}BindViews({R.id.key1, R.id.key2}) List&lt;Button&gt; keys;
+ * </code></pre>
+ * 元素顺序与 id 顺序一致，未找到的视图会被过滤掉；{@code List} 字段得到的是不可修改的列表。
+ */
+@Retention(CLASS)
+@Target({FIELD})
+public @interface BindViews {
+    @IdRes int[] value();
+}
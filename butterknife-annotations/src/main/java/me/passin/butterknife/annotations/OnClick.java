@@ -0,0 +1,28 @@
+package me.passin.butterknife.annotations;
+
+import androidx.annotation.IdRes;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * 将方法绑定为多个视图的点击事件，方法可以没有参数，或者只有一个 View（及其子类）参数，例如：
+ * <pre><code>
+ * {@literal @}OnClick({R.id.submit, R.id.retry})
+ * void onSubmit(View view) { ... }
+ * </code></pre>
+ * 每个绑定类只有一个监听器（绑定类本身），按视图 id 分发到对应的方法。
+ */
+@Retention(CLASS)
+@Target(METHOD)
+public @interface OnClick {
+    @IdRes int[] value();
+
+    /**
+     * 防抖间隔（毫秒），默认 0 表示不防抖。大于 0 时，距离同一个绑定类上一次响应点击不足该间隔的点击会被忽略。
+     */
+    long debounce() default 0;
+}
@@ -0,0 +1,19 @@
+package me.passin.butterknife.annotations;
+
+import androidx.annotation.IdRes;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * 将方法绑定为多个视图的长按事件，参数要求与 {@link OnClick} 相同。
+ * 方法返回 boolean 时作为是否消费了长按事件，返回 void 时视为已消费。
+ */
+@Retention(CLASS)
+@Target(METHOD)
+public @interface OnLongClick {
+    @IdRes int[] value();
+}
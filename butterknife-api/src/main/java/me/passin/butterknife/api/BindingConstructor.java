@@ -0,0 +1,15 @@
+package me.passin.butterknife.api;
+
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+
+/**
+ * 绑定类的创建方式。可以是生成索引中的直接 new，也可以是反射拿到的构造函数。
+ */
+public interface BindingConstructor {
+    @NonNull
+    @UiThread
+    Unbinder newInstance(@NonNull Object target, @NonNull View source);
+}
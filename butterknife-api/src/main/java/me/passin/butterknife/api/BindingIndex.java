@@ -0,0 +1,31 @@
+package me.passin.butterknife.api;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Set;
+
+/**
+ * 由 APT 生成的绑定索引，通过 {@link ButterKnife#addIndex(BindingIndex)} 注册。
+ * <p>
+ * 在 build.gradle 中配置 annotationProcessorOptions 的 "butterknife.index" 为索引的全类名即可生成。
+ */
+public interface BindingIndex {
+    /**
+     * 返回 targetClass 自身的绑定类的创建方式，不查找父类；不存在时返回 null。
+     */
+    @Nullable
+    BindingConstructor getBindingConstructor(@NonNull Class<?> targetClass);
+
+    /**
+     * 返回 targetClass 自身的静态绑定方法，不查找父类；不存在或者生成索引时没有开启 "butterknife.staticBind" 时返回 null。
+     */
+    @Nullable
+    ViewBinder<Object> getViewBinder(@NonNull Class<?> targetClass);
+
+    /**
+     * 索引中所有的目标类，用于 {@link ButterKnife#preloadAll(java.util.concurrent.Executor, PreloadListener)}。
+     */
+    @NonNull
+    Set<Class<?>> getTargetClasses();
+}
@@ -0,0 +1,137 @@
+package me.passin.butterknife.api;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按 target 类汇总计数的 {@link BindingMonitor}，可以定期通过 {@link #snapshot()} 导出到 APM。
+ */
+public final class BindingMetrics implements BindingMonitor {
+    private final ConcurrentHashMap<Class<?>, Counters> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public void onLookup(@NonNull Class<?> targetClass, boolean cacheHit, long lookupNanos) {
+        Counters counters = getCounters(targetClass);
+        (cacheHit ? counters.cacheHits : counters.cacheMisses).incrementAndGet();
+        counters.lookupNanos.addAndGet(lookupNanos);
+    }
+
+    @Override
+    public void onBind(@NonNull Class<?> targetClass, long bindNanos) {
+        Counters counters = getCounters(targetClass);
+        counters.binds.incrementAndGet();
+        counters.bindNanos.addAndGet(bindNanos);
+    }
+
+    @Override
+    public void onUnbind(@NonNull Class<?> targetClass) {
+        getCounters(targetClass).unbinds.incrementAndGet();
+    }
+
+    /**
+     * 返回当前各个 target 类的计数，返回的 Map 不会随着之后的绑定而改变。
+     */
+    @NonNull
+    public Map<Class<?>, Stats> snapshot() {
+        Map<Class<?>, Stats> result = new HashMap<>(counters.size());
+        for (Map.Entry<Class<?>, Counters> entry : counters.entrySet()) {
+            Counters counters = entry.getValue();
+            result.put(entry.getKey(), new Stats(counters.cacheHits.get(), counters.cacheMisses.get(),
+                    counters.lookupNanos.get(), counters.binds.get(), counters.bindNanos.get(),
+                    counters.unbinds.get()));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * 清空所有计数，例如每次导出之后调用。
+     */
+    public void reset() {
+        counters.clear();
+    }
+
+    private Counters getCounters(Class<?> targetClass) {
+        Counters result = counters.get(targetClass);
+        if (result == null) {
+            result = new Counters();
+            Counters existing = counters.putIfAbsent(targetClass, result);
+            if (existing != null) {
+                result = existing;
+            }
+        }
+        return result;
+    }
+
+    private static final class Counters {
+        final AtomicLong cacheHits = new AtomicLong();
+        final AtomicLong cacheMisses = new AtomicLong();
+        final AtomicLong lookupNanos = new AtomicLong();
+        final AtomicLong binds = new AtomicLong();
+        final AtomicLong bindNanos = new AtomicLong();
+        final AtomicLong unbinds = new AtomicLong();
+    }
+
+    /**
+     * 某个 target 类的计数快照。
+     */
+    public static final class Stats {
+        private final long cacheHits;
+        private final long cacheMisses;
+        private final long lookupNanos;
+        private final long binds;
+        private final long bindNanos;
+        private final long unbinds;
+
+        Stats(long cacheHits, long cacheMisses, long lookupNanos, long binds, long bindNanos,
+              long unbinds) {
+            this.cacheHits = cacheHits;
+            this.cacheMisses = cacheMisses;
+            this.lookupNanos = lookupNanos;
+            this.binds = binds;
+            this.bindNanos = bindNanos;
+            this.unbinds = unbinds;
+        }
+
+        public long getCacheHits() {
+            return cacheHits;
+        }
+
+        public long getCacheMisses() {
+            return cacheMisses;
+        }
+
+        /**
+         * 查找绑定类构造器的总耗时。
+         */
+        public long getLookupNanos() {
+            return lookupNanos;
+        }
+
+        public long getBinds() {
+            return binds;
+        }
+
+        /**
+         * 执行生成的绑定代码的总耗时。
+         */
+        public long getBindNanos() {
+            return bindNanos;
+        }
+
+        public long getUnbinds() {
+            return unbinds;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{cacheHits=" + cacheHits + ", cacheMisses=" + cacheMisses
+                    + ", lookupNanos=" + lookupNanos + ", binds=" + binds + ", bindNanos=" + bindNanos
+                    + ", unbinds=" + unbinds + '}';
+        }
+    }
+}
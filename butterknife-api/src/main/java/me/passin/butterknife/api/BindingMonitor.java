@@ -0,0 +1,31 @@
+package me.passin.butterknife.api;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 绑定过程的监控回调，通过 {@link ButterKnife#setMonitor(BindingMonitor)} 设置。
+ * <p>
+ * 回调在绑定所在的线程中同步执行，实现应当足够轻量并且线程安全。
+ * 需要汇总数据时可以直接使用 {@link BindingMetrics}。
+ */
+public interface BindingMonitor {
+    /**
+     * 查找 targetClass 的绑定类构造器之后回调。
+     *
+     * @param cacheHit    构造器是否已经缓存，未缓存时会加载类或者查询索引。
+     * @param lookupNanos 查找耗时，包括未命中缓存时的解析。
+     */
+    void onLookup(@NonNull Class<?> targetClass, boolean cacheHit, long lookupNanos);
+
+    /**
+     * 执行生成的绑定代码之后回调，包括 bind、rebind 和 bindStatic。
+     *
+     * @param bindNanos 执行绑定类构造函数（或者 rebind、静态 bind 方法）的耗时。
+     */
+    void onBind(@NonNull Class<?> targetClass, long bindNanos);
+
+    /**
+     * 设置监控之后通过 bind 返回的 Unbinder 解绑时回调。
+     */
+    void onUnbind(@NonNull Class<?> targetClass);
+}
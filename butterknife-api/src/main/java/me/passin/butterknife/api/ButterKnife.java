@@ -2,6 +2,9 @@ package me.passin.butterknife.api;
 
 import android.app.Activity;
 import android.app.Dialog;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.util.Log;
 import android.view.View;
 
@@ -12,8 +15,18 @@ import androidx.annotation.UiThread;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.util.LinkedHashMap;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * @author: zbb
@@ -27,13 +40,144 @@ public final class ButterKnife {
 
     private static final String TAG = "ButterKnife";
 
-    private static boolean debug = false;
+    private static volatile boolean debug = false;
 
     public static void setDebug(boolean debug) {
         ButterKnife.debug = debug;
     }
 
-    static final Map<Class<?>, Constructor<? extends Unbinder>> BINDINGS = new LinkedHashMap<>();
+    private static volatile @Nullable BindingMonitor monitor;
+
+    /**
+     * 设置绑定过程的监控，传 null 取消。没有设置时绑定只多一次 volatile 读取。
+     * <p>
+     * 设置之后 bind 返回的 Unbinder 会被包装一层，用于统计解绑次数。
+     */
+    public static void setMonitor(@Nullable BindingMonitor monitor) {
+        ButterKnife.monitor = monitor;
+    }
+
+    /**
+     * 绑定类构造器的缓存，读多写少：读取不加锁，首次解析时才对该类加锁。
+     * ConcurrentHashMap 不能存 null，因此没有绑定的类用 {@link #NO_BINDING} 占位。
+     */
+    static final Map<Class<?>, BindingConstructor> BINDINGS = new ConcurrentHashMap<>();
+
+    /**
+     * 正在解析的类的锁，解析完成后移除。每个类单独加锁，解析不同的类时互不阻塞。
+     */
+    private static final ConcurrentMap<Class<?>, Object> BINDING_LOCKS = new ConcurrentHashMap<>();
+
+    private static final BindingConstructor NO_BINDING = new BindingConstructor() {
+        @NonNull
+        @Override
+        public Unbinder newInstance(@NonNull Object target, @NonNull View source) {
+            return Unbinder.EMPTY;
+        }
+    };
+
+    /**
+     * 静态绑定方法的缓存，与 {@link #BINDINGS} 一样读取不加锁，没有绑定的类用 {@link #NO_VIEW_BINDER} 占位。
+     */
+    static final Map<Class<?>, ViewBinder<Object>> VIEW_BINDERS = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<Class<?>, Object> VIEW_BINDER_LOCKS = new ConcurrentHashMap<>();
+
+    private static final ViewBinder<Object> NO_VIEW_BINDER = new ViewBinder<Object>() {
+        @Override
+        public void bind(@NonNull Object target, @NonNull View source) {
+        }
+    };
+
+    /**
+     * target 类到它解析出的绑定类的映射，缓存 {@link #isBindingFor(Unbinder, Class)} 的结果。
+     */
+    private static final Map<Class<?>, Class<?>> REBIND_CLASSES = new ConcurrentHashMap<>();
+
+    private static final List<BindingIndex> INDEXES = new CopyOnWriteArrayList<>();
+
+    private static volatile boolean reflectionFallback = true;
+
+    /**
+     * 注册 APT 生成的绑定索引。命中索引时不再通过反射加载绑定类。
+     * <p>
+     * 应在第一次 bind 之前注册，已缓存的查找结果不会因为新注册的索引而改变。
+     */
+    public static void addIndex(@NonNull BindingIndex index) {
+        INDEXES.add(index);
+    }
+
+    /**
+     * 索引未命中时是否继续通过反射查找绑定类，默认为 true。
+     * <p>
+     * 关闭后未命中索引的类直接查找父类，不会再抛出 ClassNotFoundException，但也不会被绑定，字段保持为 null。
+     * 因此只有当所有包含绑定的模块（包括依赖库）都生成了索引并通过 {@link #addIndex(BindingIndex)} 注册后才能关闭。
+     * 索引包含模块内所有的 target，包括非 public 的类；但在索引生成之后的轮次中才出现的绑定不在索引中，
+     * 处理器会为它们输出警告，存在这样的警告时不能关闭。
+     */
+    public static void setReflectionFallback(boolean reflectionFallback) {
+        ButterKnife.reflectionFallback = reflectionFallback;
+    }
+
+    /**
+     * 提前解析并缓存 targets 的绑定类构造器，使之后的 bind 不再有类加载和反射的开销。
+     *
+     * @param executor 执行预加载的线程，可以是后台线程池，也可以是 {@link #mainIdleExecutor()}。
+     * @param listener 每个类预加载完成后回调，可为 null。
+     */
+    public static void preload(@NonNull Executor executor, @Nullable PreloadListener listener,
+                               @NonNull Class<?>... targets) {
+        preload(executor, listener, Arrays.asList(targets));
+    }
+
+    /**
+     * 预加载所有已注册索引中的目标类。没有注册索引时不做任何事。
+     */
+    public static void preloadAll(@NonNull Executor executor, @Nullable PreloadListener listener) {
+        preload(executor, listener, getBindingTargets());
+    }
+
+    /**
+     * 返回所有已注册索引中存在绑定的目标类，按注册顺序排列，不通过反射也不加载绑定类。
+     * 没有生成索引的模块（包括依赖库）中的目标类不在其中。
+     */
+    @NonNull
+    public static Set<Class<?>> getBindingTargets() {
+        Set<Class<?>> targets = new LinkedHashSet<>();
+        for (BindingIndex index : INDEXES) {
+            targets.addAll(index.getTargetClasses());
+        }
+        return Collections.unmodifiableSet(targets);
+    }
+
+    private static void preload(@NonNull Executor executor, @Nullable final PreloadListener listener,
+                                @NonNull Collection<Class<?>> targets) {
+        for (final Class<?> target : targets) {
+            // 每个类单独提交，在主线程空闲时执行也不会一次性阻塞太久。
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    long start = System.nanoTime();
+                    BindingConstructor constructor = findBindingConstructorForClass(target);
+                    long cost = System.nanoTime() - start;
+                    if (debug) {
+                        Log.d(TAG, "预加载" + target.getName() + "耗时 " + cost + "ns");
+                    }
+                    if (listener != null) {
+                        listener.onPreloaded(target, constructor != null, cost);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 在主线程 Looper 空闲时执行任务的 Executor，每次空闲只执行一个任务。
+     */
+    @NonNull
+    public static Executor mainIdleExecutor() {
+        return MainIdleExecutor.INSTANCE;
+    }
 
     @NonNull
     @UiThread
@@ -79,42 +223,177 @@ public final class ButterKnife {
         if (debug) {
             Log.d(TAG, "查找绑定" + targetClass.getName());
         }
-        Constructor<? extends Unbinder> constructor = findBindingConstructorForClass(targetClass);
+        BindingMonitor monitor = ButterKnife.monitor;
+        if (monitor != null) {
+            return bindMonitored(monitor, targetClass, target, source);
+        }
+        BindingConstructor constructor = findBindingConstructorForClass(targetClass);
 
         if (constructor == null) {
             return Unbinder.EMPTY;
         }
 
-        try {
-            return constructor.newInstance(target, source);
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException("Unable to invoke " + constructor, e);
-        } catch (InstantiationException e) {
-            throw new RuntimeException("Unable to invoke " + constructor, e);
-        } catch (InvocationTargetException e) {
-            Throwable cause = e.getCause();
-            if (cause instanceof RuntimeException) {
-                throw (RuntimeException) cause;
+        return constructor.newInstance(target, source);
+    }
+
+    /**
+     * 与 bind 相同，额外统计查找和执行绑定的耗时。缓存命中是在查找之前判断的，
+     * 并发首次绑定同一个类时可能都被记为未命中。
+     */
+    private static Unbinder bindMonitored(BindingMonitor monitor, Class<?> targetClass,
+                                          Object target, View source) {
+        long start = System.nanoTime();
+        boolean cacheHit = BINDINGS.containsKey(targetClass);
+        BindingConstructor constructor = findBindingConstructorForClass(targetClass);
+        long lookupEnd = System.nanoTime();
+        monitor.onLookup(targetClass, cacheHit, lookupEnd - start);
+
+        if (constructor == null) {
+            return Unbinder.EMPTY;
+        }
+
+        Unbinder unbinder = constructor.newInstance(target, source);
+        monitor.onBind(targetClass, System.nanoTime() - lookupEnd);
+        return new MonitoredUnbinder(unbinder, targetClass, monitor);
+    }
+
+    /**
+     * 返回 targetClass 的静态绑定方法，可以缓存在 Adapter 中重复使用，targetClass 没有绑定时返回空实现。
+     * <p>
+     * 命中开启了 "butterknife.staticBind" 的索引时直接调用生成的静态方法，没有反射也不分配对象；
+     * 未命中索引时通过反射调用静态方法；绑定类没有静态方法时退回到创建绑定对象。
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public static <T> ViewBinder<T> getViewBinder(@NonNull Class<T> targetClass) {
+        ViewBinder<?> viewBinder = findViewBinderForClass(targetClass);
+        return (ViewBinder<T>) viewBinder;
+    }
+
+    /**
+     * 绑定 source 中的视图到 target 中，不返回 Unbinder，target 中的字段只能由调用方自行清除。
+     */
+    @UiThread
+    public static void bindStatic(@NonNull Object target, @NonNull View source) {
+        BindingMonitor monitor = ButterKnife.monitor;
+        if (monitor == null) {
+            findViewBinderForClass(target.getClass()).bind(target, source);
+            return;
+        }
+        Class<?> targetClass = target.getClass();
+        long start = System.nanoTime();
+        boolean cacheHit = VIEW_BINDERS.containsKey(targetClass);
+        ViewBinder<Object> viewBinder = findViewBinderForClass(targetClass);
+        long lookupEnd = System.nanoTime();
+        monitor.onLookup(targetClass, cacheHit, lookupEnd - start);
+        if (viewBinder != NO_VIEW_BINDER) {
+            viewBinder.bind(target, source);
+            monitor.onBind(targetClass, System.nanoTime() - lookupEnd);
+        }
+    }
+
+    /**
+     * 复用 unbinder 把 source 中的视图重新绑定到 target，适合 RecyclerView、ViewPager 等回收视图的场景。
+     * <p>
+     * unbinder 是之前为同一个类的 target 调用 bind 或 rebind 返回的对象时直接复用，不会分配新的绑定对象，
+     * 包括父类的绑定；否则（例如第一次调用或者 target 的类不同）会调用 {@link #bind(Object, View)}
+     * 创建新的绑定对象并返回，此时传入的 unbinder 不会被解绑。
+     *
+     * @return 复用的 unbinder 或者新创建的绑定对象，下一次 rebind 时传入它。
+     */
+    @NonNull
+    @UiThread
+    public static Unbinder rebind(@NonNull Unbinder unbinder, @NonNull Object target,
+                                  @NonNull View source) {
+        Class<?> targetClass = target.getClass();
+        Unbinder binding = unbinder instanceof MonitoredUnbinder
+                ? ((MonitoredUnbinder) unbinder).delegate : unbinder;
+        if (binding instanceof Rebinder && isBindingFor(binding, targetClass)) {
+            BindingMonitor monitor = ButterKnife.monitor;
+            long start = monitor != null ? System.nanoTime() : 0;
+            ((Rebinder) binding).rebind(target, source);
+            if (monitor != null) {
+                monitor.onBind(targetClass, System.nanoTime() - start);
+            }
+            return unbinder;
+        }
+        Unbinder result = bind(target, source);
+        binding = result instanceof MonitoredUnbinder ? ((MonitoredUnbinder) result).delegate : result;
+        if (binding instanceof Rebinder) {
+            REBIND_CLASSES.put(targetClass, binding.getClass());
+        }
+        return result;
+    }
+
+    /**
+     * binding 的类是否就是 targetClass 解析出的绑定类，包括 targetClass 本身没有绑定、使用父类绑定的情况。
+     * 绑定类名为 target 的类名加上 "_ViewBinding"，因此从 targetClass 向上找到该类后，
+     * 只需确认 targetClass 与它解析出的是同一个绑定类构造器，不需要加载类。
+     */
+    private static boolean isBindingFor(Unbinder binding, Class<?> targetClass) {
+        Class<?> bindingClass = binding.getClass();
+        Class<?> resolved = REBIND_CLASSES.get(targetClass);
+        if (resolved != null) {
+            return resolved == bindingClass;
+        }
+        String bindingName = bindingClass.getName();
+        for (Class<?> cls = targetClass; cls != null; cls = cls.getSuperclass()) {
+            if (!bindingName.equals(cls.getName() + "_ViewBinding")) {
+                continue;
             }
-            if (cause instanceof Error) {
-                throw (Error) cause;
+            BindingConstructor constructor = findBindingConstructorForClass(targetClass);
+            if (constructor == null || constructor != findBindingConstructorForClass(cls)) {
+                return false;
             }
-            throw new RuntimeException("Unable to create binding instance.", cause);
+            REBIND_CLASSES.put(targetClass, bindingClass);
+            return true;
         }
+        return false;
     }
 
+    /**
+     * 可在任意线程调用。缓存命中时只有一次无锁读取；未命中时只对 cls 加锁解析，
+     * 保证并发首次解析同一个类时只会做一次类加载和反射，而解析其他类的线程（例如后台预加载）不会阻塞它。
+     * 解析父类时先持有子类的锁再获取父类的锁，加锁顺序固定，不会死锁。
+     */
     @Nullable
     @CheckResult
-    @UiThread
-    private static Constructor<? extends Unbinder> findBindingConstructorForClass(Class<?> cls) {
+    private static BindingConstructor findBindingConstructorForClass(Class<?> cls) {
         // 对绑定类的构造器进行缓存，因此绑定类只在整个生命周期
-        Constructor<? extends Unbinder> bindingCtor = BINDINGS.get(cls);
-        if (bindingCtor != null || BINDINGS.containsKey(cls)) {
-            if (debug) {
-                Log.d(TAG, cls.getName() + "缓存已存在绑定映射中");
+        BindingConstructor bindingCtor = BINDINGS.get(cls);
+        if (bindingCtor == null) {
+            Object lock = lockFor(BINDING_LOCKS, cls);
+            try {
+                synchronized (lock) {
+                    // 再次检查，其他线程可能已经在锁内完成了解析。
+                    bindingCtor = BINDINGS.get(cls);
+                    if (bindingCtor == null) {
+                        return resolveBindingConstructor(cls);
+                    }
+                }
+            } finally {
+                // 结果已经写入缓存，之后的查找不再需要锁。
+                BINDING_LOCKS.remove(cls, lock);
             }
-            return bindingCtor;
         }
+        if (debug) {
+            Log.d(TAG, cls.getName() + "缓存已存在绑定映射中");
+        }
+        return bindingCtor == NO_BINDING ? null : bindingCtor;
+    }
+
+    private static Object lockFor(ConcurrentMap<Class<?>, Object> locks, Class<?> cls) {
+        Object lock = new Object();
+        Object existing = locks.putIfAbsent(cls, lock);
+        return existing != null ? existing : lock;
+    }
+
+    /**
+     * 只在持有 cls 的锁时调用。
+     */
+    @Nullable
+    private static BindingConstructor resolveBindingConstructor(Class<?> cls) {
+        BindingConstructor bindingCtor;
         String clsName = cls.getName();
         // 不应该对 framework 层的类进行绑定。
         if (clsName.startsWith("android.") || clsName.startsWith("java.")
@@ -122,21 +401,221 @@ public final class ButterKnife {
             if (debug) Log.d(TAG, "到达 framework 类。放弃搜索");
             return null;
         }
-        try {
-            // 该类会在编译阶段自动生成。API 和 APT 需要协议好反射类的格式。
-            Class<?> bindingClass = cls.getClassLoader().loadClass(clsName + "_ViewBinding");
-            bindingCtor = (Constructor<? extends Unbinder>) bindingClass.getConstructor(cls, View.class);
+        bindingCtor = findIndexedBindingConstructor(cls);
+        if (bindingCtor != null) {
             if (debug) {
-                Log.d(TAG, "查找到" + cls.getName() + "的绑定类");
+                Log.d(TAG, "从索引中查找到" + clsName + "的绑定类");
             }
-        } catch (ClassNotFoundException e) {
-            if (debug) Log.d(TAG, "未发现，尝试从父类查找：" + cls.getSuperclass().getName());
+        } else if (!reflectionFallback && !INDEXES.isEmpty()) {
+            // 索引中没有该类，直接查找父类，不再尝试反射。
+            if (debug) Log.d(TAG, "索引中未发现，尝试从父类查找：" + cls.getSuperclass().getName());
             bindingCtor = findBindingConstructorForClass(cls.getSuperclass());
-        } catch (NoSuchMethodException e) {
-            throw new RuntimeException("Unable to find binding constructor for " + clsName, e);
+        } else {
+            try {
+                // 该类会在编译阶段自动生成。API 和 APT 需要协议好反射类的格式。
+                Class<?> bindingClass = cls.getClassLoader().loadClass(clsName + "_ViewBinding");
+                bindingCtor = new ReflectiveBindingConstructor(
+                        (Constructor<? extends Unbinder>) bindingClass.getConstructor(cls, View.class));
+                if (debug) {
+                    Log.d(TAG, "查找到" + clsName + "的绑定类");
+                }
+            } catch (ClassNotFoundException e) {
+                if (debug) Log.d(TAG, "未发现，尝试从父类查找：" + cls.getSuperclass().getName());
+                bindingCtor = findBindingConstructorForClass(cls.getSuperclass());
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException("Unable to find binding constructor for " + clsName, e);
+            }
         }
-        BINDINGS.put(cls, bindingCtor);
+        BINDINGS.put(cls, bindingCtor != null ? bindingCtor : NO_BINDING);
         return bindingCtor;
     }
-}
 
+    @NonNull
+    private static ViewBinder<Object> findViewBinderForClass(Class<?> cls) {
+        ViewBinder<Object> viewBinder = VIEW_BINDERS.get(cls);
+        if (viewBinder == null) {
+            Object lock = lockFor(VIEW_BINDER_LOCKS, cls);
+            try {
+                synchronized (lock) {
+                    viewBinder = VIEW_BINDERS.get(cls);
+                    if (viewBinder == null) {
+                        viewBinder = resolveViewBinder(cls);
+                        VIEW_BINDERS.put(cls, viewBinder);
+                    }
+                }
+            } finally {
+                VIEW_BINDER_LOCKS.remove(cls, lock);
+            }
+        }
+        return viewBinder;
+    }
+
+    /**
+     * 只在持有 cls 的锁时调用，查找顺序与 {@link #resolveBindingConstructor(Class)} 相同。
+     */
+    @NonNull
+    private static ViewBinder<Object> resolveViewBinder(Class<?> cls) {
+        String clsName = cls.getName();
+        if (clsName.startsWith("android.") || clsName.startsWith("java.")
+                || clsName.startsWith("androidx.")) {
+            return NO_VIEW_BINDER;
+        }
+        for (int i = 0, size = INDEXES.size(); i < size; i++) {
+            ViewBinder<Object> viewBinder = INDEXES.get(i).getViewBinder(cls);
+            if (viewBinder != null) {
+                return viewBinder;
+            }
+        }
+        BindingConstructor bindingCtor = findIndexedBindingConstructor(cls);
+        if (bindingCtor != null) {
+            // 索引生成时没有开启静态绑定。
+            return new ConstructorViewBinder(bindingCtor);
+        }
+        if (!reflectionFallback && !INDEXES.isEmpty()) {
+            return findViewBinderForClass(cls.getSuperclass());
+        }
+        try {
+            Class<?> bindingClass = cls.getClassLoader().loadClass(clsName + "_ViewBinding");
+            try {
+                return new ReflectiveViewBinder(bindingClass.getMethod("bind", cls, View.class));
+            } catch (NoSuchMethodException e) {
+                bindingCtor = findBindingConstructorForClass(cls);
+                return bindingCtor != null ? new ConstructorViewBinder(bindingCtor) : NO_VIEW_BINDER;
+            }
+        } catch (ClassNotFoundException e) {
+            return findViewBinderForClass(cls.getSuperclass());
+        }
+    }
+
+    @Nullable
+    private static BindingConstructor findIndexedBindingConstructor(Class<?> cls) {
+        for (int i = 0, size = INDEXES.size(); i < size; i++) {
+            BindingConstructor bindingCtor = INDEXES.get(i).getBindingConstructor(cls);
+            if (bindingCtor != null) {
+                return bindingCtor;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 未命中索引时，通过反射拿到的绑定类构造函数。
+     */
+    private static final class ReflectiveBindingConstructor implements BindingConstructor {
+        private final Constructor<? extends Unbinder> constructor;
+
+        ReflectiveBindingConstructor(Constructor<? extends Unbinder> constructor) {
+            this.constructor = constructor;
+        }
+
+        @NonNull
+        @Override
+        public Unbinder newInstance(@NonNull Object target, @NonNull View source) {
+            try {
+                return constructor.newInstance(target, source);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Unable to invoke " + constructor, e);
+            } catch (InstantiationException e) {
+                throw new RuntimeException("Unable to invoke " + constructor, e);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RuntimeException("Unable to create binding instance.", cause);
+            }
+        }
+    }
+
+    /**
+     * 设置监控时 bind 返回的 Unbinder，解绑时通知监控。
+     */
+    private static final class MonitoredUnbinder implements Unbinder {
+        final Unbinder delegate;
+        private final Class<?> targetClass;
+        private final BindingMonitor monitor;
+
+        MonitoredUnbinder(Unbinder delegate, Class<?> targetClass, BindingMonitor monitor) {
+            this.delegate = delegate;
+            this.targetClass = targetClass;
+            this.monitor = monitor;
+        }
+
+        @Override
+        public void unbind() {
+            delegate.unbind();
+            monitor.onUnbind(targetClass);
+        }
+    }
+
+    /**
+     * 绑定类没有生成静态方法时，每次绑定都创建绑定对象。
+     */
+    private static final class ConstructorViewBinder implements ViewBinder<Object> {
+        private final BindingConstructor constructor;
+
+        ConstructorViewBinder(BindingConstructor constructor) {
+            this.constructor = constructor;
+        }
+
+        @Override
+        public void bind(@NonNull Object target, @NonNull View source) {
+            constructor.newInstance(target, source);
+        }
+    }
+
+    /**
+     * 未命中索引时，通过反射拿到的静态绑定方法。
+     */
+    private static final class ReflectiveViewBinder implements ViewBinder<Object> {
+        private final Method method;
+
+        ReflectiveViewBinder(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public void bind(@NonNull Object target, @NonNull View source) {
+            try {
+                method.invoke(null, target, source);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Unable to invoke " + method, e);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RuntimeException("Unable to bind views.", cause);
+            }
+        }
+    }
+
+    private static final class MainIdleExecutor implements Executor {
+        static final MainIdleExecutor INSTANCE = new MainIdleExecutor();
+
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(@NonNull final Runnable command) {
+            // Looper.myQueue() 只能在主线程中获取，因此先切到主线程再添加 IdleHandler。
+            handler.post(new Runnable() {
+                @Override
+                public void run() {
+                    Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+                        @Override
+                        public boolean queueIdle() {
+                            command.run();
+                            return false;
+                        }
+                    });
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package me.passin.butterknife.api;
+
+import androidx.annotation.NonNull;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * {@code @BindViews} 的 {@code List} 字段使用的不可修改列表，直接包装查找得到的数组，不会复制。
+ */
+public final class ImmutableViewList<T> extends AbstractList<T> implements RandomAccess {
+    private final T[] views;
+
+    public ImmutableViewList(@NonNull T[] views) {
+        this.views = views;
+    }
+
+    @Override
+    public T get(int index) {
+        return views[index];
+    }
+
+    @Override
+    public int size() {
+        return views.length;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        for (T view : views) {
+            if (view == o) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,69 @@
+package me.passin.butterknife.api;
+
+import android.view.View;
+
+import androidx.annotation.IdRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+/**
+ * {@code @BindView(value = id, lazy = true)} 字段的类型，第一次 {@link #get()} 时才查找视图并缓存。
+ */
+public final class LazyView<T extends View> {
+    private @Nullable View source;
+    private final @IdRes int id;
+    private @Nullable T view;
+
+    public LazyView(@NonNull View source, @IdRes int id) {
+        this.source = source;
+        this.id = id;
+    }
+
+    /**
+     * 由生成的代码调用：current 是同一个 id 的 LazyView 时改为从 source 查找并返回它，
+     * 因此 rebind 到同一个 target 时不会分配新的对象；否则创建新的 LazyView。
+     */
+    @NonNull
+    @UiThread
+    public static <T extends View> LazyView<T> bind(@Nullable LazyView<T> current, @NonNull View source,
+                                                    @IdRes int id) {
+        if (current == null || current.id != id) {
+            return new LazyView<>(source, id);
+        }
+        current.source = source;
+        current.view = null;
+        return current;
+    }
+
+    /**
+     * 返回绑定的视图，未找到或者已经解绑时返回 null。未找到的结果不会被缓存，下次调用会重新查找。
+     */
+    @Nullable
+    @UiThread
+    @SuppressWarnings("unchecked")
+    public T get() {
+        T view = this.view;
+        if (view == null && source != null) {
+            view = (T) source.findViewById(id);
+            this.view = view;
+        }
+        return view;
+    }
+
+    /**
+     * 视图是否已经查找并缓存。
+     */
+    public boolean isResolved() {
+        return view != null;
+    }
+
+    /**
+     * 由生成的 unbind() 调用，同时释放 source 和已缓存的视图。
+     */
+    @UiThread
+    public void unbind() {
+        source = null;
+        view = null;
+    }
+}
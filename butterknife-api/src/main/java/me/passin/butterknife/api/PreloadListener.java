@@ -0,0 +1,15 @@
+package me.passin.butterknife.api;
+
+import androidx.annotation.NonNull;
+
+/**
+ * 预加载结果的回调，在执行预加载的线程中调用。
+ */
+public interface PreloadListener {
+    /**
+     * @param targetClass 预加载的目标类。
+     * @param hasBinding  目标类或其父类是否存在绑定类。
+     * @param costNanos   解析绑定类构造器的耗时，已缓存的类耗时接近 0。
+     */
+    void onPreloaded(@NonNull Class<?> targetClass, boolean hasBinding, long costNanos);
+}
@@ -0,0 +1,25 @@
+package me.passin.butterknife.api;
+
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+
+/**
+ * 生成的绑定类都实现了该接口，可以复用同一个绑定对象把新的 source 绑定到 target，而不用重新创建。
+ * 一般通过 {@link ButterKnife#rebind(Unbinder, Object, View)} 调用。
+ */
+public interface Rebinder extends Unbinder {
+    /**
+     * 重新绑定 target 及其父类中的所有视图，解绑之后也可以调用。
+     * 不会清空上一次绑定的 target 中的字段。
+     * <p>
+     * 不会创建新的绑定对象，rebind 到同一个 target 时也复用其中的 {@link LazyView}；
+     * 但单次遍历和紧凑形式查找视图用的临时数组、{@code @BindViews} 的数组和列表以及 ViewStub 的监听仍然每次创建。
+     * 旧视图树中的 ViewStub 在 rebind 到其他 target 之后 inflate 时不会再绑定。
+     *
+     * @param target 必须和创建该绑定对象时的 target 是同一个类。
+     */
+    @UiThread
+    void rebind(@NonNull Object target, @NonNull View source);
+}
@@ -0,0 +1,124 @@
+package me.passin.butterknife.api;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+
+import androidx.annotation.ColorRes;
+import androidx.annotation.DimenRes;
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.StringRes;
+import androidx.annotation.UiThread;
+import androidx.core.content.ContextCompat;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+/**
+ * 供生成代码使用：每个绑定类一个的静态资源缓存，同一个 Configuration 下每个资源只读取一次。
+ * <p>
+ * 颜色和 Drawable 可能引用主题中的属性（?attr 或者引用了属性的 selector），
+ * 它们单独缓存在 {@link #themedValues} 中，只在同一个 Theme 下复用；字符串和尺寸与主题无关。
+ * <p>
+ * 生成的代码在绑定前调用一次 {@link #refresh(Context)}，之后按 slot 读取，slot 由处理器分配。
+ * 只在主线程中访问。
+ */
+public final class ResourceCache {
+    private final Object[] values;
+    private final Object[] themedValues;
+    private @Nullable Configuration configuration;
+    /**
+     * 缓存 themedValues 时的主题，弱引用避免在静态缓存中持有已经销毁的页面的主题。
+     */
+    private @Nullable WeakReference<Resources.Theme> theme;
+
+    public ResourceCache(int size) {
+        values = new Object[size];
+        themedValues = new Object[size];
+    }
+
+    /**
+     * context 的 Configuration 与缓存时不同（例如切换语言、横竖屏）时清空缓存；
+     * 主题不同（例如不同主题的 Activity）时只清空与主题相关的缓存。
+     */
+    @UiThread
+    public void refresh(@NonNull Context context) {
+        Configuration current = context.getResources().getConfiguration();
+        if (configuration == null || !configuration.equals(current)) {
+            configuration = new Configuration(current);
+            Arrays.fill(values, null);
+            Arrays.fill(themedValues, null);
+        }
+        Resources.Theme currentTheme = context.getTheme();
+        if (theme == null || theme.get() != currentTheme) {
+            theme = new WeakReference<>(currentTheme);
+            Arrays.fill(themedValues, null);
+        }
+    }
+
+    @NonNull
+    @UiThread
+    public String getString(@NonNull Context context, int slot, @StringRes int id) {
+        Object value = values[slot];
+        if (value == null) {
+            value = context.getResources().getString(id);
+            values[slot] = value;
+        }
+        return (String) value;
+    }
+
+    @UiThread
+    public int getColor(@NonNull Context context, int slot, @ColorRes int id) {
+        Object value = themedValues[slot];
+        if (value == null) {
+            value = ContextCompat.getColor(context, id);
+            themedValues[slot] = value;
+        }
+        return (Integer) value;
+    }
+
+    @UiThread
+    public float getDimension(@NonNull Context context, int slot, @DimenRes int id) {
+        Object value = values[slot];
+        if (value == null) {
+            value = context.getResources().getDimension(id);
+            values[slot] = value;
+        }
+        return (Float) value;
+    }
+
+    @UiThread
+    public int getDimensionPixelSize(@NonNull Context context, int slot, @DimenRes int id) {
+        Object value = values[slot];
+        if (value == null) {
+            value = context.getResources().getDimensionPixelSize(id);
+            values[slot] = value;
+        }
+        return (Integer) value;
+    }
+
+    /**
+     * Drawable 有自己的状态和回调，不能在实例间共享，因此缓存的是 ConstantState，每次返回新的 Drawable。
+     * API 21 开始 Drawable 可以引用主题属性，需要用当前主题创建。
+     */
+    @Nullable
+    @UiThread
+    public Drawable getDrawable(@NonNull Context context, int slot, @DrawableRes int id) {
+        Drawable.ConstantState state = (Drawable.ConstantState) themedValues[slot];
+        if (state != null) {
+            if (Build.VERSION.SDK_INT >= 21) {
+                return state.newDrawable(context.getResources(), context.getTheme());
+            }
+            return state.newDrawable(context.getResources());
+        }
+        Drawable drawable = ContextCompat.getDrawable(context, id);
+        if (drawable != null) {
+            themedValues[slot] = drawable.getConstantState();
+        }
+        return drawable;
+    }
+}
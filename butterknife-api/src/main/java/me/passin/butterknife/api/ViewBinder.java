@@ -0,0 +1,17 @@
+package me.passin.butterknife.api;
+
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.UiThread;
+
+/**
+ * 不创建绑定对象的绑定方式，通过 {@link ButterKnife#getViewBinder(Class)} 获取。
+ * <p>
+ * 开启 "butterknife.staticBind" 时，生成的绑定类会带有静态方法 {@code bind(Target, View)}，
+ * 此时绑定不会分配 Unbinder，也不会保存 target，适合创建大量、从不解绑的 ViewHolder。
+ */
+public interface ViewBinder<T> {
+    @UiThread
+    void bind(@NonNull T target, @NonNull View source);
+}
@@ -0,0 +1,98 @@
+package me.passin.butterknife.api;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.IdRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+import java.util.Arrays;
+
+/**
+ * 供生成代码使用：只遍历一次视图树就找到所有需要绑定的视图。
+ */
+public final class ViewFinder {
+    private ViewFinder() {
+        throw new AssertionError("No instances.");
+    }
+
+    /**
+     * 按先序深度优先遍历 source，和 findViewById 一样取第一个匹配的视图。
+     *
+     * @param sortedIds 升序排列的 id 表。
+     * @param views     与 sortedIds 一一对应的结果，未找到的位置为 null。
+     * @return 找到的视图个数，全部找到时提前结束遍历。
+     */
+    @UiThread
+    public static int findViewsByIds(@NonNull View source, @NonNull int[] sortedIds,
+                                     @NonNull View[] views) {
+        return traverse(source, sortedIds, views, 0);
+    }
+
+    /**
+     * 从布局根视图 root 开始按编译期解析布局得到的子视图下标逐级查找，
+     * 路径与运行时的视图树不一致或者找到的视图 id 不匹配时，退回到 source.findViewById(id)。
+     */
+    @Nullable
+    @UiThread
+    public static View findViewByPath(@NonNull View source, @Nullable View root, @NonNull int[] path,
+                                      @IdRes int id) {
+        View view = root;
+        for (int i = 0; view != null && i < path.length; i++) {
+            if (!(view instanceof ViewGroup)) {
+                view = null;
+                break;
+            }
+            ViewGroup group = (ViewGroup) view;
+            view = path[i] < group.getChildCount() ? group.getChildAt(path[i]) : null;
+        }
+        if (view != null && view.getId() == id) {
+            return view;
+        }
+        return source.findViewById(id);
+    }
+
+    /**
+     * 按 ids 的顺序依次 findViewById 并填入 views，未找到的视图会被过滤掉。
+     *
+     * @param views 长度与 ids 相同的数组，全部找到时直接返回它，否则返回去掉 null 后的新数组。
+     */
+    @NonNull
+    @UiThread
+    @SuppressWarnings("unchecked")
+    public static <T> T[] findViewsById(@NonNull View source, @NonNull int[] ids, @NonNull T[] views) {
+        int count = 0;
+        for (int id : ids) {
+            T view = (T) source.findViewById(id);
+            if (view != null) {
+                views[count++] = view;
+            }
+        }
+        return count == views.length ? views : Arrays.copyOf(views, count);
+    }
+
+    private static int traverse(View view, int[] sortedIds, View[] views, int found) {
+        int id = view.getId();
+        if (id != View.NO_ID) {
+            int index = Arrays.binarySearch(sortedIds, id);
+            if (index >= 0 && views[index] == null) {
+                views[index] = view;
+                if (++found == sortedIds.length) {
+                    return found;
+                }
+            }
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0, count = group.getChildCount(); i < count; i++) {
+                found = traverse(group.getChildAt(i), sortedIds, views, found);
+                if (found == sortedIds.length) {
+                    return found;
+                }
+            }
+        }
+        return found;
+    }
+}
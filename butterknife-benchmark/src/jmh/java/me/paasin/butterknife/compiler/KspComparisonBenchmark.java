@@ -0,0 +1,183 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.devtools.ksp.processing.SymbolProcessorProvider;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.KspKt;
+import com.tschuchort.compiletesting.SourceFile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.processing.Processor;
+
+/**
+ * 在同一个合成的 Kotlin 模块上比较 kapt 和 KSP 的构建耗时。
+ * <p>
+ * kapt 需要先为所有 Kotlin 源码生成 Java 存根，再运行 {@link ButterKnifeProcessor}；
+ * KSP 直接读取 Kotlin 的符号运行 {@link ButterKnifeSymbolProcessor}。每次测量的都是完整的编译，包括生成的绑定类。
+ * 开始测量之前先用两种方式各编译一次，生成的 _ViewBinding 类不完全一致时直接失败。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class KspComparisonBenchmark {
+    private static final String KAPT = "kapt";
+    private static final String KSP = "ksp";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Param({KAPT, KSP})
+    public String processor;
+
+    @Param({"100", "1000"})
+    public int targets;
+
+    @Param({"5"})
+    public int fieldsPerClass;
+
+    @Param({"1", "4"})
+    public int inheritanceDepth;
+
+    private File sourceDir;
+    private File workingDir;
+    private List<SourceFile> sources;
+
+    @Setup(Level.Trial)
+    public void writeSources() throws IOException {
+        sourceDir = Files.createTempDirectory("butterknife-kt-src").toFile();
+        sources = new ArrayList<>();
+        for (File file : SyntheticSources.writeKotlin(sourceDir, targets, fieldsPerClass, inheritanceDepth)) {
+            sources.add(SourceFile.Companion.fromPath(file));
+        }
+        verifyIdenticalBindings();
+    }
+
+    @Setup(Level.Iteration)
+    public void createWorkingDir() throws IOException {
+        workingDir = Files.createTempDirectory("butterknife-kt-out").toFile();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteWorkingDir() {
+        SyntheticSources.delete(workingDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSources() {
+        SyntheticSources.delete(sourceDir);
+    }
+
+    @Benchmark
+    public File compile() {
+        return compile(processor, workingDir);
+    }
+
+    /**
+     * 分别用 kapt 和 KSP 编译，逐个比较生成的 _ViewBinding 源码。
+     */
+    private void verifyIdenticalBindings() throws IOException {
+        File kaptDir = Files.createTempDirectory("butterknife-kapt").toFile();
+        File kspDir = Files.createTempDirectory("butterknife-ksp").toFile();
+        try {
+            Map<String, String> kaptBindings = readBindings(compile(KAPT, kaptDir));
+            Map<String, String> kspBindings = readBindings(compile(KSP, kspDir));
+            if (kaptBindings.size() != targets) {
+                throw new IllegalStateException("kapt generated " + kaptBindings.size()
+                        + " bindings for " + targets + " targets.");
+            }
+            if (!kaptBindings.keySet().equals(kspBindings.keySet())) {
+                throw new IllegalStateException("kapt and KSP generated different bindings: "
+                        + kaptBindings.keySet() + " vs " + kspBindings.keySet());
+            }
+            for (Map.Entry<String, String> entry : kaptBindings.entrySet()) {
+                if (!entry.getValue().equals(kspBindings.get(entry.getKey()))) {
+                    throw new IllegalStateException("kapt and KSP generated different " + entry.getKey() + ":\n"
+                            + entry.getValue() + "\n----\n" + kspBindings.get(entry.getKey()));
+                }
+            }
+        } finally {
+            SyntheticSources.delete(kaptDir);
+            SyntheticSources.delete(kspDir);
+        }
+    }
+
+    /**
+     * @return 生成的源码所在的目录。
+     */
+    private File compile(String processor, File workingDir) {
+        KotlinCompilation compilation = new KotlinCompilation();
+        compilation.setWorkingDir(workingDir);
+        compilation.setSources(sources);
+        compilation.setInheritClassPath(true);
+        compilation.setMessageOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        });
+        File generatedDir;
+        if (processor.equals(KAPT)) {
+            compilation.setAnnotationProcessors(Collections.<Processor>singletonList(new ButterKnifeProcessor()));
+            generatedDir = compilation.getKaptSourceDir();
+        } else {
+            KspKt.setSymbolProcessorProviders(compilation,
+                    Collections.<SymbolProcessorProvider>singletonList(new ButterKnifeSymbolProcessorProvider()));
+            generatedDir = KspKt.getKspSourcesDir(compilation);
+        }
+        KotlinCompilation.Result result = compilation.compile();
+        if (result.getExitCode() != KotlinCompilation.ExitCode.OK) {
+            throw new IllegalStateException(processor + " compilation failed: " + result.getMessages());
+        }
+        return generatedDir;
+    }
+
+    /**
+     * key 为相对于 dir 的路径，value 为源码。
+     */
+    private static Map<String, String> readBindings(File dir) throws IOException {
+        Map<String, String> bindings = new TreeMap<>();
+        readBindings(dir, "", bindings);
+        return bindings;
+    }
+
+    private static void readBindings(File dir, String path, Map<String, String> bindings) throws IOException {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            if (child.isDirectory()) {
+                // KSP 按语言把生成的源码放在 java、kotlin 等子目录中，只比较包名之后的路径。
+                String childPath = path.isEmpty() && (child.getName().equals("java")
+                        || child.getName().equals("kotlin")) ? "" : path + child.getName() + "/";
+                readBindings(child, childPath, bindings);
+            } else if (child.getName().endsWith("_ViewBinding.java")) {
+                bindings.put(path + child.getName(), new String(Files.readAllBytes(child.toPath()), UTF_8));
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package me.paasin.butterknife.compiler;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+/**
+ * 在进程内的 javac 中运行 {@link ButterKnifeProcessor}，测量处理合成源码树的耗时。
+ * <p>
+ * 除了 JMH 给出的总耗时，{@link PhaseCounters} 还会给出每个阶段的耗时，
+ * 内存分配速率由 build.gradle 中配置的 gc profiler 给出。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProcessorBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int targets;
+
+    @Param({"5"})
+    public int fieldsPerClass;
+
+    @Param({"1", "4"})
+    public int inheritanceDepth;
+
+    private File sourceDir;
+    private File outputDir;
+    private List<File> sources;
+
+    /**
+     * 本轮迭代中平均每次处理各阶段的耗时（纳秒），对应 {@link PhaseTimer.Phase}。
+     * AuxCounters 只支持 Throughput 和 AverageTime 模式，因此没有使用 SingleShotTime。
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PhaseCounters {
+        public long parseNanos;
+        public long supertypesNanos;
+        public long brewJavaNanos;
+        public long writeToNanos;
+
+        private final long[] totals = new long[PhaseTimer.Phase.values().length];
+        private int operations;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            Arrays.fill(totals, 0);
+            operations = 0;
+        }
+
+        void record(PhaseTimer timer) {
+            for (PhaseTimer.Phase phase : PhaseTimer.Phase.values()) {
+                totals[phase.ordinal()] += timer.get(phase);
+            }
+            operations++;
+            parseNanos = totals[PhaseTimer.Phase.PARSE.ordinal()] / operations;
+            supertypesNanos = totals[PhaseTimer.Phase.SUPERTYPES.ordinal()] / operations;
+            brewJavaNanos = totals[PhaseTimer.Phase.BREW.ordinal()] / operations;
+            writeToNanos = totals[PhaseTimer.Phase.WRITE.ordinal()] / operations;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void writeSources() throws IOException {
+        sourceDir = Files.createTempDirectory("butterknife-src").toFile();
+        sources = SyntheticSources.write(sourceDir, targets, fieldsPerClass, inheritanceDepth);
+    }
+
+    @Setup(Level.Iteration)
+    public void createOutputDir() throws IOException {
+        outputDir = Files.createTempDirectory("butterknife-out").toFile();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteOutputDir() {
+        SyntheticSources.delete(outputDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSources() {
+        SyntheticSources.delete(sourceDir);
+    }
+
+    @Benchmark
+    public void process(PhaseCounters counters) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager fileManager =
+                compiler.getStandardFileManager(diagnostics, null, Charset.forName("UTF-8"));
+        fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singletonList(outputDir));
+        fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(outputDir));
+
+        ButterKnifeProcessor processor = new ButterKnifeProcessor();
+        // 只做注解处理，不编译生成的代码，耗时集中在处理器本身。
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                Arrays.asList("-proc:only", "-classpath", System.getProperty("java.class.path")),
+                null, fileManager.getJavaFileObjectsFromFiles(sources));
+        task.setProcessors(Collections.singletonList(processor));
+        boolean success = task.call();
+        fileManager.close();
+        if (!success) {
+            throw new IllegalStateException("Annotation processing failed: " + diagnostics.getDiagnostics());
+        }
+
+        counters.record(processor.getPhaseTimer());
+    }
+}
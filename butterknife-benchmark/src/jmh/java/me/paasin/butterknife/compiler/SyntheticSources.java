@@ -0,0 +1,149 @@
+package me.paasin.butterknife.compiler;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 生成基准测试用的源码树：Android framework 的桩类，以及大量使用 @BindView 的目标类（Java 或 Kotlin）。
+ */
+final class SyntheticSources {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    /**
+     * 每个包中的目标类数量，避免单个目录过大。
+     */
+    private static final int CLASSES_PER_PACKAGE = 100;
+
+    private static final String[][] STUBS = {
+            {"android.content", "Context", "public class Context {}"},
+            {"android.view", "View",
+                    "public class View {"
+                            + " public View findViewById(int id) { return null; }"
+                            + " public android.content.Context getContext() { return null; } }"},
+            {"android.view", "Window", "public class Window { public View getDecorView() { return null; } }"},
+            {"android.widget", "TextView", "public class TextView extends android.view.View {}"},
+            {"android.app", "Activity",
+                    "public class Activity extends android.content.Context {"
+                            + " public android.view.Window getWindow() { return null; } }"},
+            {"android.app", "Dialog",
+                    "public class Dialog {"
+                            + " public android.view.Window getWindow() { return null; }"
+                            + " public android.content.Context getContext() { return null; } }"},
+            {"me.passin.butterknife.api", "Unbinder", "public interface Unbinder { void unbind(); }"},
+            {"me.passin.butterknife.api", "Rebinder",
+                    "public interface Rebinder extends Unbinder {"
+                            + " void rebind(Object target, android.view.View source); }"},
+    };
+
+    private SyntheticSources() {
+        throw new AssertionError("No instances.");
+    }
+
+    /**
+     * 每 inheritanceDepth 个目标类组成一条继承链，链的根类继承 Activity，
+     * 因此除了根类，每个目标类都有一个存在绑定的父类。
+     *
+     * @return 生成的所有源文件。
+     */
+    static List<File> write(File root, int targets, int fieldsPerClass, int inheritanceDepth)
+            throws IOException {
+        List<File> files = writeStubs(root, targets);
+        for (int i = 0; i < targets; i++) {
+            String superclass = getSuperclass(i, inheritanceDepth);
+            StringBuilder body = new StringBuilder()
+                    .append("public class ").append(className(i))
+                    .append(" extends ").append(superclass).append(" {\n");
+            for (int f = 0; f < fieldsPerClass; f++) {
+                // 同一条继承链上的 id 不能重复。
+                int id = i * fieldsPerClass + f + 1;
+                body.append("    @me.passin.butterknife.annotations.BindView(").append(id)
+                        .append(") android.widget.TextView view").append(f).append(";\n");
+            }
+            body.append("}\n");
+            files.add(writeClass(root, packageName(i), className(i), body.toString()));
+        }
+        return files;
+    }
+
+    /**
+     * 与 {@link #write} 相同的目标类，用 Kotlin 的 lateinit 属性声明，桩类仍然是 Java。
+     * 同一份源码可以分别交给 kapt 和 KSP 处理。
+     */
+    static List<File> writeKotlin(File root, int targets, int fieldsPerClass, int inheritanceDepth)
+            throws IOException {
+        List<File> files = writeStubs(root, targets);
+        for (int i = 0; i < targets; i++) {
+            StringBuilder body = new StringBuilder()
+                    .append("open class ").append(className(i))
+                    .append(" : ").append(getSuperclass(i, inheritanceDepth)).append("() {\n");
+            for (int f = 0; f < fieldsPerClass; f++) {
+                int id = i * fieldsPerClass + f + 1;
+                body.append("    @me.passin.butterknife.annotations.BindView(").append(id)
+                        .append(") lateinit var view").append(f).append(": android.widget.TextView\n");
+            }
+            body.append("}\n");
+            files.add(writeFile(root, packageName(i), className(i) + ".kt",
+                    "package " + packageName(i) + "\n\n" + body + "\n"));
+        }
+        return files;
+    }
+
+    private static List<File> writeStubs(File root, int targets) throws IOException {
+        List<File> files = new ArrayList<>(targets + STUBS.length);
+        for (String[] stub : STUBS) {
+            files.add(writeClass(root, stub[0], stub[1], stub[2]));
+        }
+        return files;
+    }
+
+    /**
+     * 链的根类继承 Activity，其余的类继承链上的前一个类。
+     */
+    private static String getSuperclass(int index, int inheritanceDepth) {
+        return index % inheritanceDepth == 0
+                ? "android.app.Activity"
+                : packageName(index - 1) + "." + className(index - 1);
+    }
+
+    private static String packageName(int index) {
+        return "com.example.p" + index / CLASSES_PER_PACKAGE;
+    }
+
+    private static String className(int index) {
+        return "Target" + index;
+    }
+
+    private static File writeClass(File root, String packageName, String className, String body)
+            throws IOException {
+        return writeFile(root, packageName, className + ".java",
+                "package " + packageName + ";\n\n" + body + "\n");
+    }
+
+    private static File writeFile(File root, String packageName, String fileName, String content)
+            throws IOException {
+        File dir = new File(root, packageName.replace('.', File.separatorChar));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Unable to create " + dir);
+        }
+        File file = new File(dir, fileName);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), UTF_8)) {
+            writer.write(content);
+        }
+        return file;
+    }
+
+    static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
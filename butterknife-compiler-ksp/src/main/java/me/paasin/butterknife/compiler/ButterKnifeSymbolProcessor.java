@@ -0,0 +1,891 @@
+package me.paasin.butterknife.compiler;
+
+import androidx.annotation.Nullable;
+
+import com.google.devtools.ksp.processing.CodeGenerator;
+import com.google.devtools.ksp.processing.Dependencies;
+import com.google.devtools.ksp.processing.KSPLogger;
+import com.google.devtools.ksp.processing.Resolver;
+import com.google.devtools.ksp.processing.SymbolProcessor;
+import com.google.devtools.ksp.processing.SymbolProcessorEnvironment;
+import com.google.devtools.ksp.symbol.ClassKind;
+import com.google.devtools.ksp.symbol.FunctionKind;
+import com.google.devtools.ksp.symbol.KSAnnotated;
+import com.google.devtools.ksp.symbol.KSAnnotation;
+import com.google.devtools.ksp.symbol.KSClassDeclaration;
+import com.google.devtools.ksp.symbol.KSDeclaration;
+import com.google.devtools.ksp.symbol.KSFile;
+import com.google.devtools.ksp.symbol.KSFunctionDeclaration;
+import com.google.devtools.ksp.symbol.KSName;
+import com.google.devtools.ksp.symbol.KSNode;
+import com.google.devtools.ksp.symbol.KSPropertyDeclaration;
+import com.google.devtools.ksp.symbol.KSType;
+import com.google.devtools.ksp.symbol.KSTypeArgument;
+import com.google.devtools.ksp.symbol.KSTypeParameter;
+import com.google.devtools.ksp.symbol.KSTypeReference;
+import com.google.devtools.ksp.symbol.KSValueArgument;
+import com.google.devtools.ksp.symbol.KSValueParameter;
+import com.google.devtools.ksp.symbol.Modifier;
+import com.google.devtools.ksp.symbol.Origin;
+import com.google.devtools.ksp.symbol.Variance;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import me.passin.butterknife.annotations.BindColor;
+import me.passin.butterknife.annotations.BindDimen;
+import me.passin.butterknife.annotations.BindDrawable;
+import me.passin.butterknife.annotations.BindString;
+import me.passin.butterknife.annotations.BindView;
+import me.passin.butterknife.annotations.BindViews;
+import me.passin.butterknife.annotations.OnClick;
+import me.passin.butterknife.annotations.OnLongClick;
+
+import static me.paasin.butterknife.compiler.ButterKnifeProcessor.DRAWABLE_TYPE;
+import static me.paasin.butterknife.compiler.ButterKnifeProcessor.LAZY_VIEW_TYPE;
+import static me.paasin.butterknife.compiler.ButterKnifeProcessor.OPTION_INDEX;
+import static me.paasin.butterknife.compiler.ButterKnifeProcessor.OPTION_KEEP_RULES;
+import static me.paasin.butterknife.compiler.ButterKnifeProcessor.OPTION_LAYOUT_DIRS;
+import static me.paasin.butterknife.compiler.ButterKnifeProcessor.OPTION_MAX_METHOD_SIZE;
+import static me.paasin.butterknife.compiler.ButterKnifeProcessor.OPTION_METADATA;
+import static me.paasin.butterknife.compiler.ButterKnifeProcessor.OPTION_REPORT;
+import static me.paasin.butterknife.compiler.ButterKnifeProcessor.OPTION_SINGLE_PASS;
+import static me.paasin.butterknife.compiler.ButterKnifeProcessor.OPTION_STATIC_BIND;
+import static me.paasin.butterknife.compiler.ButterKnifeProcessor.VIEW_TYPE;
+
+/**
+ * {@link ButterKnifeProcessor} 的 KSP 版本，Kotlin 的目标类不再需要 kapt 生成 Java 存根。
+ * <p>
+ * 解析注解后构建的是同一套 {@link BindingSet}，父类绑定同样由 {@link BindingHierarchy} 解析，
+ * 因此生成的 _ViewBinding 类与 javac 处理器生成的完全一致。
+ * 只支持 butterknife.singlePass、butterknife.staticBind 和 butterknife.maxMethodSize 选项，
+ * 索引、元数据、构建报告、混淆规则和布局分析依赖 javac 的 Filer 和 Elements，仍需要通过 kapt 使用。
+ */
+final class ButterKnifeSymbolProcessor implements SymbolProcessor {
+    private static final String CONTEXT_TYPE = "android.content.Context";
+    private static final String JAVA_LIST_TYPE = "java.util.List";
+    private static final String[] UNSUPPORTED_OPTIONS = {
+            OPTION_INDEX, OPTION_METADATA, OPTION_REPORT, OPTION_LAYOUT_DIRS, OPTION_KEEP_RULES
+    };
+
+    private final CodeGenerator mCodeGenerator;
+    private final KSPLogger mLogger;
+    private final boolean mSinglePass;
+    private final boolean mStaticBind;
+    private int mMaxMethodSize;
+    /**
+     * 本轮的 Resolver，每轮重新设置。
+     */
+    private Resolver mResolver;
+    /**
+     * 同一个类可能对应多个 KSClassDeclaration 实例，以全类名为 key 统一为第一次遇到的实例，
+     * 保证 {@link BindingHierarchy} 中的 Map 和 Set 能正确比较。每轮重新创建。
+     */
+    private Map<String, KSClassDeclaration> mDeclarations;
+
+    ButterKnifeSymbolProcessor(SymbolProcessorEnvironment environment) {
+        mCodeGenerator = environment.getCodeGenerator();
+        mLogger = environment.getLogger();
+        Map<String, String> options = environment.getOptions();
+        mSinglePass = Boolean.parseBoolean(options.get(OPTION_SINGLE_PASS));
+        mStaticBind = Boolean.parseBoolean(options.get(OPTION_STATIC_BIND));
+        String maxMethodSize = options.get(OPTION_MAX_METHOD_SIZE);
+        if (maxMethodSize != null && !maxMethodSize.isEmpty()) {
+            try {
+                mMaxMethodSize = Integer.parseInt(maxMethodSize);
+            } catch (NumberFormatException e) {
+                error(null, "Option %s must be an integer: %s", OPTION_MAX_METHOD_SIZE, maxMethodSize);
+            }
+        }
+        for (String option : UNSUPPORTED_OPTIONS) {
+            if (options.containsKey(option)) {
+                warning(null, "Option %s is not supported by the KSP processor and is ignored, use kapt instead.",
+                        option);
+            }
+        }
+    }
+
+    @Override
+    public List<KSAnnotated> process(Resolver resolver) {
+        mResolver = resolver;
+        mDeclarations = new HashMap<>();
+        Map<KSClassDeclaration, BindingSet> bindingMap = findAndParseTargets(resolver);
+
+        for (Map.Entry<KSClassDeclaration, BindingSet> entry : bindingMap.entrySet()) {
+            KSClassDeclaration declaration = entry.getKey();
+            JavaFile javaFile = entry.getValue().brewJava(mSinglePass, mMaxMethodSize);
+            try {
+                writeBinding(declaration, javaFile);
+            } catch (IOException e) {
+                error(declaration, "Unable to write binding for type %s: %s",
+                        KspTypes.getQualifiedName(declaration), e.getMessage());
+            }
+        }
+        // 生成的绑定类中没有注解，不需要推迟到下一轮处理的符号。
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void finish() {
+    }
+
+    @Override
+    public void onError() {
+    }
+
+    /**
+     * 绑定类的构造函数取决于父类的绑定，因此除了 target 所在的文件，父类所在的文件也是它的来源。
+     */
+    private void writeBinding(KSClassDeclaration declaration, JavaFile javaFile) throws IOException {
+        List<KSFile> sources = new ArrayList<>();
+        for (KSClassDeclaration type = declaration; type != null; type = KspTypes.getSuperclass(type)) {
+            KSFile file = type.getContainingFile();
+            if (file != null) {
+                sources.add(file);
+            }
+        }
+        Dependencies dependencies = new Dependencies(false, sources.toArray(new KSFile[0]));
+        try (Writer writer = new OutputStreamWriter(mCodeGenerator.createNewFile(dependencies,
+                javaFile.packageName, javaFile.typeSpec.name, "java"), StandardCharsets.UTF_8)) {
+            // 与 JavaFile.writeTo(Filer) 写入的内容相同。
+            javaFile.writeTo(writer);
+        }
+    }
+
+    private Map<KSClassDeclaration, BindingSet> findAndParseTargets(Resolver resolver) {
+        // key 为被注解元素所在的类，与 javac 处理器相同。
+        Map<KSClassDeclaration, BindingSet.Builder> builderMap = new LinkedHashMap<>();
+        // 所有被注解元素所在的类。
+        Set<KSClassDeclaration> bindingTargets = new LinkedHashSet<>();
+
+        for (KSAnnotated symbol : getSymbolsWithAnnotation(resolver, BindView.class)) {
+            try {
+                parseBindView(symbol, builderMap, bindingTargets);
+            } catch (Exception e) {
+                logParsingError(symbol, BindView.class, e);
+            }
+        }
+        for (KSAnnotated symbol : getSymbolsWithAnnotation(resolver, BindViews.class)) {
+            try {
+                parseBindViews(symbol, builderMap, bindingTargets);
+            } catch (Exception e) {
+                logParsingError(symbol, BindViews.class, e);
+            }
+        }
+
+        // 资源绑定只需要 Context。
+        for (Class<? extends Annotation> annotationClass : Arrays.asList(
+                BindString.class, BindColor.class, BindDimen.class, BindDrawable.class)) {
+            for (KSAnnotated symbol : getSymbolsWithAnnotation(resolver, annotationClass)) {
+                try {
+                    parseResource(symbol, annotationClass, builderMap, bindingTargets);
+                } catch (Exception e) {
+                    logParsingError(symbol, annotationClass, e);
+                }
+            }
+        }
+
+        // 监听方法，同一个类的所有方法共用一个监听器。
+        for (KSAnnotated symbol : getSymbolsWithAnnotation(resolver, OnClick.class)) {
+            try {
+                parseMethod(symbol, OnClick.class, MethodViewBinding.Listener.CLICK, builderMap, bindingTargets);
+            } catch (Exception e) {
+                logParsingError(symbol, OnClick.class, e);
+            }
+        }
+        for (KSAnnotated symbol : getSymbolsWithAnnotation(resolver, OnLongClick.class)) {
+            try {
+                parseMethod(symbol, OnLongClick.class, MethodViewBinding.Listener.LONG_CLICK, builderMap,
+                        bindingTargets);
+            } catch (Exception e) {
+                logParsingError(symbol, OnLongClick.class, e);
+            }
+        }
+
+        // KSP 处理器不支持构建报告，不需要计算父类的层数。
+        BindingHierarchy<KSClassDeclaration> hierarchy = new BindingHierarchy<>(new SupertypeResolver(), false);
+        Map<KSClassDeclaration, ClasspathBindingSet> classpathBindings =
+                hierarchy.findAllSupertypeBindings(builderMap.keySet(), bindingTargets);
+        return hierarchy.build(builderMap, bindingTargets, classpathBindings);
+    }
+
+    private static List<KSAnnotated> getSymbolsWithAnnotation(Resolver resolver,
+                                                             Class<? extends Annotation> annotationClass) {
+        List<KSAnnotated> symbols = new ArrayList<>();
+        Iterator<KSAnnotated> iterator =
+                resolver.getSymbolsWithAnnotation(annotationClass.getCanonicalName(), false).iterator();
+        while (iterator.hasNext()) {
+            symbols.add(iterator.next());
+        }
+        return symbols;
+    }
+
+    private void parseBindView(KSAnnotated symbol, Map<KSClassDeclaration, BindingSet.Builder> builderMap,
+                               Set<KSClassDeclaration> bindingTargets) {
+        KSPropertyDeclaration property = asProperty(symbol, BindView.class);
+        KSClassDeclaration enclosing = getEnclosingClass(BindView.class, "fields", property);
+        if (enclosing == null) {
+            return;
+        }
+
+        boolean hasError = isInaccessibleViaGeneratedCode(BindView.class, "fields", property, enclosing)
+                || isBindingInWrongPackage(BindView.class, property, enclosing);
+
+        KSAnnotation annotation = findAnnotation(property, BindView.class);
+        boolean lazy = (Boolean) getArgument(annotation, "lazy", false);
+        int stub = ((Number) getArgument(annotation, "stub", ViewBinding.NO_STUB)).intValue();
+        String qualifiedName = KspTypes.getQualifiedName(enclosing);
+        String simpleName = property.getSimpleName().asString();
+        KSType propertyType = property.getType().resolve();
+        KSType elementType = propertyType;
+        if (lazy && stub != ViewBinding.NO_STUB) {
+            error(property, "@%s fields may not be both lazy and in a stub. (%s.%s)",
+                    BindView.class.getSimpleName(), qualifiedName, simpleName);
+            return;
+        }
+        if (lazy) {
+            // 延迟绑定的字段类型为 LazyView<T>，之后验证的是 T。
+            if (!KspTypes.getQualifiedName(propertyType.getDeclaration()).equals(LAZY_VIEW_TYPE)) {
+                error(property, "@%s(lazy = true) fields must be of type LazyView. (%s.%s)",
+                        BindView.class.getSimpleName(), qualifiedName, simpleName);
+                return;
+            }
+            List<KSTypeArgument> typeArguments = propertyType.getArguments();
+            elementType = typeArguments.isEmpty() ? null : getTypeArgument(typeArguments.get(0));
+            if (elementType == null) {
+                elementType = getViewType();
+            }
+        }
+        // 验证 element 是否是 View 的子类。
+        if (!KspTypes.isSubtypeOfType(elementType, VIEW_TYPE) && !KspTypes.isInterface(elementType)) {
+            if (elementType.isError()) {
+                note(property, "@%s field with unresolved type (%s) "
+                                + "must elsewhere be generated as a View or interface. (%s.%s)",
+                        BindView.class.getSimpleName(), elementType, qualifiedName, simpleName);
+            } else {
+                error(property, "@%s fields must extend from View or be an interface. (%s.%s)",
+                        BindView.class.getSimpleName(), qualifiedName, simpleName);
+                hasError = true;
+            }
+        }
+
+        if (hasError) {
+            return;
+        }
+
+        int id = ((Number) getArgument(annotation, "value", 0)).intValue();
+        BindingSet.Builder builder = builderMap.get(enclosing);
+        if (builder != null) {
+            String existingBindingName = builder.findExistingBindingName(id);
+            // 出现同一个 id 绑定了多次视图，则打印错误且不会尝试多次绑定。
+            if (existingBindingName != null) {
+                error(property, "Attempt to use @%s for an already bound ID %d on '%s'. (%s.%s)",
+                        BindView.class.getSimpleName(), id, existingBindingName, qualifiedName, simpleName);
+                return;
+            }
+        } else {
+            builder = getOrCreateBindingBuilder(builderMap, enclosing);
+        }
+
+        TypeName typeName = KspTypes.get(elementType);
+        // kapt 为可空的属性生成 @Nullable，与 Utils.isFieldRequired 一致。
+        boolean required = !propertyType.isMarkedNullable() && !hasAnnotationWithName(property, "Nullable");
+        builder.addField(id, new ViewBinding(id, simpleName, typeName, required, lazy, stub));
+
+        bindingTargets.add(enclosing);
+    }
+
+    private void parseBindViews(KSAnnotated symbol, Map<KSClassDeclaration, BindingSet.Builder> builderMap,
+                                Set<KSClassDeclaration> bindingTargets) {
+        KSPropertyDeclaration property = asProperty(symbol, BindViews.class);
+        KSClassDeclaration enclosing = getEnclosingClass(BindViews.class, "fields", property);
+        if (enclosing == null) {
+            return;
+        }
+
+        boolean hasError = isInaccessibleViaGeneratedCode(BindViews.class, "fields", property, enclosing)
+                || isBindingInWrongPackage(BindViews.class, property, enclosing);
+
+        String qualifiedName = KspTypes.getQualifiedName(enclosing);
+        String simpleName = property.getSimpleName().asString();
+        // 属性类型只能是 Array 或者 List，之后验证的是元素类型。
+        KSType propertyType = property.getType().resolve();
+        String typeName = KspTypes.getQualifiedName(propertyType.getDeclaration());
+        FieldCollectionViewBinding.Kind kind;
+        if (typeName.equals(KspTypes.ARRAY_TYPE)) {
+            kind = FieldCollectionViewBinding.Kind.ARRAY;
+        } else if (typeName.equals(KspTypes.LIST_TYPE) || typeName.equals(KspTypes.MUTABLE_LIST_TYPE)
+                || typeName.equals(JAVA_LIST_TYPE)) {
+            kind = FieldCollectionViewBinding.Kind.LIST;
+        } else {
+            error(property, "@%s must be a List or array. (%s.%s)",
+                    BindViews.class.getSimpleName(), qualifiedName, simpleName);
+            return;
+        }
+        List<KSTypeArgument> typeArguments = propertyType.getArguments();
+        if (typeArguments.size() != 1) {
+            error(property, "@%s List must have a generic component. (%s.%s)",
+                    BindViews.class.getSimpleName(), qualifiedName, simpleName);
+            return;
+        }
+        KSType elementType = getTypeArgument(typeArguments.get(0));
+        if (elementType == null) {
+            elementType = getViewType();
+        }
+        // 生成代码需要创建元素类型的数组，因此不支持类型变量。
+        if (elementType.getDeclaration() instanceof KSTypeParameter) {
+            error(property, "@%s type must be a View or interface, not a type variable. (%s.%s)",
+                    BindViews.class.getSimpleName(), qualifiedName, simpleName);
+            return;
+        }
+        if (!KspTypes.isSubtypeOfType(elementType, VIEW_TYPE) && !KspTypes.isInterface(elementType)) {
+            if (elementType.isError()) {
+                note(property, "@%s List or array with unresolved type (%s) "
+                                + "must elsewhere be generated as a View or interface. (%s.%s)",
+                        BindViews.class.getSimpleName(), elementType, qualifiedName, simpleName);
+            } else {
+                error(property, "@%s List or array type must extend from View or be an interface. (%s.%s)",
+                        BindViews.class.getSimpleName(), qualifiedName, simpleName);
+                hasError = true;
+            }
+        }
+
+        int[] ids = getIds(findAnnotation(property, BindViews.class));
+        hasError |= hasInvalidIds(BindViews.class, property, ids, qualifiedName, simpleName);
+
+        if (hasError) {
+            return;
+        }
+
+        TypeName elementTypeName = KspTypes.get(elementType);
+        if (elementTypeName instanceof ParameterizedTypeName) {
+            // 不能创建泛型数组。
+            elementTypeName = ((ParameterizedTypeName) elementTypeName).rawType;
+        }
+        getOrCreateBindingBuilder(builderMap, enclosing).addFieldCollection(
+                new FieldCollectionViewBinding(simpleName, elementTypeName, kind, ids));
+
+        bindingTargets.add(enclosing);
+    }
+
+    private void parseResource(KSAnnotated symbol, Class<? extends Annotation> annotationClass,
+                               Map<KSClassDeclaration, BindingSet.Builder> builderMap,
+                               Set<KSClassDeclaration> bindingTargets) {
+        KSPropertyDeclaration property = asProperty(symbol, annotationClass);
+        KSClassDeclaration enclosing = getEnclosingClass(annotationClass, "fields", property);
+        if (enclosing == null) {
+            return;
+        }
+
+        boolean hasError = isInaccessibleViaGeneratedCode(annotationClass, "fields", property, enclosing)
+                || isBindingInWrongPackage(annotationClass, property, enclosing);
+
+        // 根据注解和属性类型确定读取资源的方式，可空的 Int 和 Float 在 class 文件中是包装类，不能使用。
+        KSType propertyType = property.getType().resolve();
+        String typeName = KspTypes.getQualifiedName(propertyType.getDeclaration());
+        boolean primitive = !propertyType.isMarkedNullable();
+        FieldResourceBinding.Type type = null;
+        String expectedType;
+        if (annotationClass == BindString.class) {
+            expectedType = "String";
+            if (typeName.equals(KspTypes.STRING_TYPE)) {
+                type = FieldResourceBinding.Type.STRING;
+            }
+        } else if (annotationClass == BindColor.class) {
+            expectedType = "int";
+            if (primitive && typeName.equals(KspTypes.INT_TYPE)) {
+                type = FieldResourceBinding.Type.COLOR;
+            }
+        } else if (annotationClass == BindDimen.class) {
+            expectedType = "int (for pixel size) or float (for exact value)";
+            if (primitive && typeName.equals(KspTypes.INT_TYPE)) {
+                type = FieldResourceBinding.Type.DIMEN_AS_INT;
+            } else if (primitive && typeName.equals(KspTypes.FLOAT_TYPE)) {
+                type = FieldResourceBinding.Type.DIMEN_AS_FLOAT;
+            }
+        } else {
+            expectedType = "Drawable";
+            if (typeName.equals(DRAWABLE_TYPE)) {
+                type = FieldResourceBinding.Type.DRAWABLE;
+            }
+        }
+        if (type == null) {
+            error(property, "@%s field type must be '%s'. (%s.%s)",
+                    annotationClass.getSimpleName(), expectedType, KspTypes.getQualifiedName(enclosing),
+                    property.getSimpleName().asString());
+            hasError = true;
+        }
+
+        if (hasError) {
+            return;
+        }
+
+        int id = ((Number) getArgument(findAnnotation(property, annotationClass), "value", 0)).intValue();
+        getOrCreateBindingBuilder(builderMap, enclosing).addResource(
+                new FieldResourceBinding(id, property.getSimpleName().asString(), type));
+
+        bindingTargets.add(enclosing);
+    }
+
+    private void parseMethod(KSAnnotated symbol, Class<? extends Annotation> annotationClass,
+                             MethodViewBinding.Listener listener,
+                             Map<KSClassDeclaration, BindingSet.Builder> builderMap,
+                             Set<KSClassDeclaration> bindingTargets) {
+        if (!(symbol instanceof KSFunctionDeclaration)
+                || ((KSFunctionDeclaration) symbol).getFunctionKind() != FunctionKind.MEMBER) {
+            throw new IllegalStateException(
+                    String.format("@%s annotation must be on a method.", annotationClass.getSimpleName()));
+        }
+        KSFunctionDeclaration function = (KSFunctionDeclaration) symbol;
+        KSClassDeclaration enclosing = getEnclosingClass(annotationClass, "methods", function);
+        if (enclosing == null) {
+            return;
+        }
+        String qualifiedName = KspTypes.getQualifiedName(enclosing);
+        String simpleName = function.getSimpleName().asString();
+
+        boolean hasError = isInaccessibleViaGeneratedCode(annotationClass, "methods", function, enclosing)
+                || isBindingInWrongPackage(annotationClass, function, enclosing);
+
+        KSAnnotation annotation = findAnnotation(function, annotationClass);
+        int[] ids = getIds(annotation);
+        long debounceMillis = annotationClass == OnClick.class
+                ? ((Number) getArgument(annotation, "debounce", 0L)).longValue() : 0;
+        hasError |= hasInvalidIds(annotationClass, function, ids, qualifiedName, simpleName);
+        if (debounceMillis < 0) {
+            error(function, "@%s debounce must not be negative. (%s.%s)",
+                    annotationClass.getSimpleName(), qualifiedName, simpleName);
+            hasError = true;
+        }
+
+        // 参数只能没有，或者是一个 View（及其子类、接口），生成代码会把回调的 View 转换为该类型。
+        List<KSValueParameter> parameters = function.getParameters();
+        TypeName parameterType = null;
+        if (parameters.size() > 1) {
+            error(function, "@%s methods can have at most 1 parameter. (%s.%s)",
+                    annotationClass.getSimpleName(), qualifiedName, simpleName);
+            hasError = true;
+        } else if (parameters.size() == 1) {
+            KSType type = parameters.get(0).getType().resolve();
+            if (!KspTypes.isSubtypeOfType(type, VIEW_TYPE) && !KspTypes.isInterface(type)) {
+                error(function, "@%s method parameter must extend from View or be an interface. (%s.%s)",
+                        annotationClass.getSimpleName(), qualifiedName, simpleName);
+                hasError = true;
+            } else {
+                parameterType = KspTypes.get(type);
+            }
+        }
+
+        // 点击方法只能返回 Unit，长按方法可以返回 Boolean 表示是否消费了事件。
+        KSTypeReference returnTypeReference = function.getReturnType();
+        KSType returnType = returnTypeReference != null ? returnTypeReference.resolve() : null;
+        String returnTypeName = returnType != null
+                ? KspTypes.getQualifiedName(returnType.getDeclaration()) : KspTypes.UNIT_TYPE;
+        boolean returnsBoolean = returnTypeName.equals(KspTypes.BOOLEAN_TYPE) && !returnType.isMarkedNullable();
+        if (!returnTypeName.equals(KspTypes.UNIT_TYPE)
+                && !(returnsBoolean && listener == MethodViewBinding.Listener.LONG_CLICK)) {
+            error(function, "@%s methods must have a '%s' return type. (%s.%s)",
+                    annotationClass.getSimpleName(),
+                    listener == MethodViewBinding.Listener.LONG_CLICK ? "boolean' or 'void" : "void",
+                    qualifiedName, simpleName);
+            hasError = true;
+        }
+
+        if (hasError) {
+            return;
+        }
+
+        String existing = getOrCreateBindingBuilder(builderMap, enclosing).addMethod(
+                new MethodViewBinding(simpleName, listener, ids, parameterType, returnsBoolean, debounceMillis));
+        if (existing != null) {
+            error(function, "Multiple @%s methods bound to the same ID in %s: %s and %s.",
+                    annotationClass.getSimpleName(), qualifiedName, existing, simpleName);
+            return;
+        }
+
+        bindingTargets.add(enclosing);
+    }
+
+    private boolean hasInvalidIds(Class<? extends Annotation> annotationClass, KSNode node, int[] ids,
+                                  String qualifiedName, String simpleName) {
+        boolean hasError = false;
+        if (ids.length == 0) {
+            error(node, "@%s must specify at least one ID. (%s.%s)",
+                    annotationClass.getSimpleName(), qualifiedName, simpleName);
+            hasError = true;
+        }
+        Set<Integer> seenIds = new HashSet<>();
+        for (int id : ids) {
+            if (!seenIds.add(id)) {
+                error(node, "@%s annotation contains duplicate ID %d. (%s.%s)",
+                        annotationClass.getSimpleName(), id, qualifiedName, simpleName);
+                hasError = true;
+            }
+        }
+        return hasError;
+    }
+
+    private static KSPropertyDeclaration asProperty(KSAnnotated symbol, Class<? extends Annotation> annotationClass) {
+        if (!(symbol instanceof KSPropertyDeclaration)) {
+            throw new IllegalStateException(
+                    String.format("@%s annotation must be on a field.", annotationClass.getSimpleName()));
+        }
+        return (KSPropertyDeclaration) symbol;
+    }
+
+    /**
+     * 返回被注解的属性或方法所在的类，它不在类中时报错并返回 null。
+     */
+    @Nullable
+    private KSClassDeclaration getEnclosingClass(Class<? extends Annotation> annotationClass, String targetThing,
+                                                 KSDeclaration declaration) {
+        KSDeclaration parent = declaration.getParentDeclaration();
+        if (!(parent instanceof KSClassDeclaration) || ((KSClassDeclaration) parent).getClassKind() != ClassKind.CLASS) {
+            // 顶层属性、object 以及 companion object 中的属性在 class 文件中都不是实例字段。
+            error(declaration, "@%s %s may only be contained in classes. (%s)",
+                    annotationClass.getSimpleName(), targetThing, declaration.getSimpleName().asString());
+            return null;
+        }
+        return canonical((KSClassDeclaration) parent);
+    }
+
+    private boolean isInaccessibleViaGeneratedCode(Class<? extends Annotation> annotationClass, String targetThing,
+                                                   KSDeclaration declaration, KSClassDeclaration enclosing) {
+        boolean hasError = false;
+        String qualifiedName = KspTypes.getQualifiedName(enclosing);
+        String simpleName = declaration.getSimpleName().asString();
+
+        // 不应该被 private 和 static 关键字修饰。
+        Set<Modifier> modifiers = declaration.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.JAVA_STATIC)) {
+            error(declaration, "@%s %s must not be private or static. (%s.%s)",
+                    annotationClass.getSimpleName(), targetThing, qualifiedName, simpleName);
+            hasError = true;
+        }
+
+        // 不应该是私有的。
+        if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+            error(enclosing, "@%s %s may not be contained in private classes. (%s.%s)",
+                    annotationClass.getSimpleName(), targetThing, qualifiedName, simpleName);
+            hasError = true;
+        }
+
+        if (declaration.getOrigin() != Origin.KOTLIN) {
+            return hasError;
+        }
+        if (declaration instanceof KSPropertyDeclaration) {
+            // 生成代码直接给字段赋值，Kotlin 属性只有 lateinit 和 @JvmField 才会暴露可写的字段。
+            KSPropertyDeclaration property = (KSPropertyDeclaration) declaration;
+            if (!modifiers.contains(Modifier.LATEINIT) && !hasAnnotationWithName(property, "JvmField")) {
+                error(declaration, "@%s properties must be 'lateinit' or annotated with @JvmField. (%s.%s)",
+                        annotationClass.getSimpleName(), qualifiedName, simpleName);
+                hasError = true;
+            } else if (!property.isMutable()) {
+                error(declaration, "@%s properties must be 'var'. (%s.%s)",
+                        annotationClass.getSimpleName(), qualifiedName, simpleName);
+                hasError = true;
+            }
+        } else if (modifiers.contains(Modifier.INTERNAL)) {
+            // internal 方法在 class 文件中的名字会加上模块名后缀，生成代码无法调用。
+            error(declaration, "@%s %s must not be internal. (%s.%s)",
+                    annotationClass.getSimpleName(), targetThing, qualifiedName, simpleName);
+            hasError = true;
+        }
+        return hasError;
+    }
+
+    private boolean isBindingInWrongPackage(Class<? extends Annotation> annotationClass,
+                                            KSDeclaration declaration, KSClassDeclaration enclosing) {
+        String qualifiedName = KspTypes.getQualifiedName(enclosing);
+
+        if (qualifiedName.startsWith("android.")) {
+            error(declaration, "@%s-annotated class incorrectly in Android framework package. (%s)",
+                    annotationClass.getSimpleName(), qualifiedName);
+            return true;
+        }
+        if (qualifiedName.startsWith("java.")) {
+            error(declaration, "@%s-annotated class incorrectly in Java framework package. (%s)",
+                    annotationClass.getSimpleName(), qualifiedName);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * 星投影以及没有类型的参数返回 null，调用方使用 View 代替。
+     */
+    @Nullable
+    private static KSType getTypeArgument(KSTypeArgument argument) {
+        KSTypeReference type = argument.getType();
+        return argument.getVariance() == Variance.STAR || type == null ? null : type.resolve();
+    }
+
+    private KSType getViewType() {
+        return mResolver.getClassDeclarationByName(mResolver.getKSNameFromString(VIEW_TYPE)).asStarProjectedType();
+    }
+
+    @Nullable
+    private static KSAnnotation findAnnotation(KSAnnotated symbol, Class<? extends Annotation> annotationClass) {
+        for (Iterator<KSAnnotation> annotations = symbol.getAnnotations().iterator(); annotations.hasNext(); ) {
+            KSAnnotation annotation = annotations.next();
+            if (annotation.getShortName().asString().equals(annotationClass.getSimpleName())
+                    && KspTypes.getQualifiedName(annotation.getAnnotationType().resolve().getDeclaration())
+                    .equals(annotationClass.getCanonicalName())) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasAnnotationWithName(KSAnnotated symbol, String simpleName) {
+        for (Iterator<KSAnnotation> annotations = symbol.getAnnotations().iterator(); annotations.hasNext(); ) {
+            if (annotations.next().getShortName().asString().equals(simpleName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 返回注解参数的值，没有指定时返回 defaultValue。
+     */
+    private static Object getArgument(@Nullable KSAnnotation annotation, String name, Object defaultValue) {
+        if (annotation == null) {
+            return defaultValue;
+        }
+        for (KSValueArgument argument : annotation.getArguments()) {
+            KSName argumentName = argument.getName();
+            if (argumentName != null && argumentName.asString().equals(name) && argument.getValue() != null) {
+                return argument.getValue();
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * 数组参数的值为 List。
+     */
+    private static int[] getIds(@Nullable KSAnnotation annotation) {
+        Object value = getArgument(annotation, "value", Collections.emptyList());
+        if (value instanceof int[]) {
+            return (int[]) value;
+        }
+        List<?> values = (List<?>) value;
+        int[] ids = new int[values.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ((Number) values.get(i)).intValue();
+        }
+        return ids;
+    }
+
+    private KSClassDeclaration canonical(KSClassDeclaration declaration) {
+        String qualifiedName = KspTypes.getQualifiedName(declaration);
+        KSClassDeclaration existing = mDeclarations.get(qualifiedName);
+        if (existing != null) {
+            return existing;
+        }
+        mDeclarations.put(qualifiedName, declaration);
+        return declaration;
+    }
+
+    private BindingSet.Builder getOrCreateBindingBuilder(
+            Map<KSClassDeclaration, BindingSet.Builder> builderMap, KSClassDeclaration declaration) {
+        BindingSet.Builder builder = builderMap.get(declaration);
+        if (builder == null) {
+            builder = BindingSet.newBuilder(new KspTargetType(declaration));
+            builder.setStaticBind(mStaticBind);
+            builderMap.put(declaration, builder);
+        }
+        return builder;
+    }
+
+    /**
+     * 通过 KSP 的 API 为 {@link BindingHierarchy} 提供父类以及 classpath 中的绑定信息。
+     * <p>
+     * 依赖库中的父类优先以它已经生成的绑定类为准；本模块中未改动的父类（增量编译时不在本轮中）
+     * 与 javac 处理器一样扫描它的注解。
+     */
+    private final class SupertypeResolver implements BindingHierarchy.Types<KSClassDeclaration> {
+
+        @Nullable
+        @Override
+        public KSClassDeclaration getSuperclass(KSClassDeclaration type) {
+            KSClassDeclaration superclass = KspTypes.getSuperclass(type);
+            return superclass != null ? canonical(superclass) : null;
+        }
+
+        @Nullable
+        @Override
+        public ClasspathBindingSet findClasspathBinding(KSClassDeclaration type, boolean parentNeedsView) {
+            ClassName targetClassName = KspTypes.getClassName(type);
+            KSClassDeclaration bindingClass = mResolver.getClassDeclarationByName(mResolver.getKSNameFromString(
+                    BindingSet.getBindingClassName(targetClassName).toString()));
+            ClasspathBindingCache.Bindings bindings;
+            if (bindingClass != null) {
+                bindings = hasContextConstructor(bindingClass, type)
+                        ? ClasspathBindingCache.Bindings.CONTEXT_ONLY
+                        : ClasspathBindingCache.Bindings.REQUIRE_VIEW;
+            } else {
+                bindings = scanBindingsForType(type);
+            }
+            switch (bindings) {
+                case REQUIRE_VIEW:
+                    return new ClasspathBindingSet(true, hasStaticBind(bindingClass),
+                            hasListener(bindingClass, type, "onClick", OnClick.class),
+                            hasListener(bindingClass, type, "onLongClick", OnLongClick.class), targetClassName);
+                case CONTEXT_ONLY:
+                    return new ClasspathBindingSet(parentNeedsView, hasStaticBind(bindingClass),
+                            hasListener(bindingClass, type, "onClick", OnClick.class),
+                            hasListener(bindingClass, type, "onLongClick", OnLongClick.class), targetClassName);
+                default:
+                    return null;
+            }
+        }
+
+        @Override
+        public void unresolvedParent(KSClassDeclaration child, KSClassDeclaration parent) {
+            error(child, "Unable to resolve parent binding %s for %s.",
+                    KspTypes.getQualifiedName(parent), KspTypes.getQualifiedName(child));
+        }
+
+        private ClasspathBindingCache.Bindings scanBindingsForType(KSClassDeclaration type) {
+            boolean foundSupportedAnnotation = false;
+            for (Iterator<KSDeclaration> declarations = type.getDeclarations().iterator(); declarations.hasNext(); ) {
+                KSDeclaration declaration = declarations.next();
+                if (findAnnotation(declaration, BindView.class) != null
+                        || findAnnotation(declaration, BindViews.class) != null
+                        || findAnnotation(declaration, OnClick.class) != null
+                        || findAnnotation(declaration, OnLongClick.class) != null) {
+                    return ClasspathBindingCache.Bindings.REQUIRE_VIEW;
+                }
+                if (findAnnotation(declaration, BindString.class) != null
+                        || findAnnotation(declaration, BindColor.class) != null
+                        || findAnnotation(declaration, BindDimen.class) != null
+                        || findAnnotation(declaration, BindDrawable.class) != null) {
+                    foundSupportedAnnotation = true;
+                }
+            }
+            return foundSupportedAnnotation
+                    ? ClasspathBindingCache.Bindings.CONTEXT_ONLY
+                    : ClasspathBindingCache.Bindings.NONE;
+        }
+
+        /**
+         * 只绑定资源的类，绑定类的构造函数为 (Target, Context)。
+         */
+        private boolean hasContextConstructor(KSClassDeclaration bindingClass, KSClassDeclaration type) {
+            String targetName = KspTypes.getQualifiedName(type);
+            for (Iterator<KSDeclaration> declarations = bindingClass.getDeclarations().iterator();
+                 declarations.hasNext(); ) {
+                KSDeclaration declaration = declarations.next();
+                if (!(declaration instanceof KSFunctionDeclaration)
+                        || !declaration.getSimpleName().asString().equals("<init>")) {
+                    continue;
+                }
+                List<KSValueParameter> parameters = ((KSFunctionDeclaration) declaration).getParameters();
+                if (parameters.size() == 2
+                        && getParameterTypeName(parameters.get(0)).equals(targetName)
+                        && getParameterTypeName(parameters.get(1)).equals(CONTEXT_TYPE)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private String getParameterTypeName(KSValueParameter parameter) {
+            return KspTypes.getQualifiedName(parameter.getType().resolve().getDeclaration());
+        }
+
+        /**
+         * 与 javac 处理器一样，只有开启静态绑定时才需要检查；绑定类不可见时它在本模块中，使用相同的选项生成。
+         */
+        private boolean hasStaticBind(@Nullable KSClassDeclaration bindingClass) {
+            if (!mStaticBind) {
+                return false;
+            }
+            if (bindingClass == null) {
+                return true;
+            }
+            for (Iterator<KSDeclaration> declarations = bindingClass.getDeclarations().iterator();
+                 declarations.hasNext(); ) {
+                KSDeclaration declaration = declarations.next();
+                if (declaration instanceof KSFunctionDeclaration
+                        && declaration.getModifiers().contains(Modifier.JAVA_STATIC)
+                        && declaration.getSimpleName().asString().equals("bind")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 绑定类（或者它的父类）是否已经实现了对应的监听方法；绑定类不可见时检查 type 以及它的父类中的注解。
+         */
+        private boolean hasListener(@Nullable KSClassDeclaration bindingClass, KSClassDeclaration type,
+                                    String methodName, Class<? extends Annotation> annotationClass) {
+            if (bindingClass != null) {
+                for (Iterator<KSFunctionDeclaration> functions = bindingClass.getAllFunctions().iterator();
+                     functions.hasNext(); ) {
+                    KSFunctionDeclaration function = functions.next();
+                    if (function.getSimpleName().asString().equals(methodName)
+                            && function.getParameters().size() == 1) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            for (KSClassDeclaration current = type; current != null; current = KspTypes.getSuperclass(current)) {
+                for (Iterator<KSDeclaration> declarations = current.getDeclarations().iterator();
+                     declarations.hasNext(); ) {
+                    if (findAnnotation(declarations.next(), annotationClass) != null) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    private void logParsingError(KSNode node, Class<? extends Annotation> annotation, Exception e) {
+        StringWriter stackTrace = new StringWriter();
+        e.printStackTrace(new PrintWriter(stackTrace));
+        error(node, "Unable to parse @%s binding.\n\n%s", annotation.getSimpleName(), stackTrace);
+    }
+
+    private void note(@Nullable KSNode node, String message, Object... args) {
+        mLogger.info(format(message, args), node);
+    }
+
+    private void warning(@Nullable KSNode node, String message, Object... args) {
+        mLogger.warn(format(message, args), node);
+    }
+
+    private void error(@Nullable KSNode node, String message, Object... args) {
+        mLogger.error(format(message, args), node);
+    }
+
+    private static String format(String message, Object... args) {
+        return args.length > 0 ? String.format(message, args) : message;
+    }
+}
@@ -0,0 +1,28 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.devtools.ksp.processing.SymbolProcessor;
+import com.google.devtools.ksp.processing.SymbolProcessorEnvironment;
+import com.google.devtools.ksp.processing.SymbolProcessorProvider;
+
+/**
+ * 通过 META-INF/services 注册，在 Kotlin 模块中使用 ksp 代替 kapt：
+ * <pre>
+ * plugins {
+ *     id 'com.google.devtools.ksp' version '1.5.31-1.0.0'
+ * }
+ *
+ * dependencies {
+ *     ksp project(':butterknife-compiler-ksp')
+ * }
+ *
+ * ksp {
+ *     arg("butterknife.singlePass", "true")
+ * }
+ * </pre>
+ */
+public final class ButterKnifeSymbolProcessorProvider implements SymbolProcessorProvider {
+    @Override
+    public SymbolProcessor create(SymbolProcessorEnvironment environment) {
+        return new ButterKnifeSymbolProcessor(environment);
+    }
+}
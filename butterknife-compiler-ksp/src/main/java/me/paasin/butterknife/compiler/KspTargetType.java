@@ -0,0 +1,103 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.devtools.ksp.symbol.KSClassDeclaration;
+import com.google.devtools.ksp.symbol.KSDeclaration;
+import com.google.devtools.ksp.symbol.Modifier;
+import com.google.devtools.ksp.symbol.Origin;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.TypeSpec;
+
+import java.util.Set;
+
+import static me.paasin.butterknife.compiler.ButterKnifeProcessor.ACTIVITY_TYPE;
+import static me.paasin.butterknife.compiler.ButterKnifeProcessor.DIALOG_TYPE;
+import static me.paasin.butterknife.compiler.ButterKnifeProcessor.VIEW_TYPE;
+
+/**
+ * 基于 KSClassDeclaration 的目标类，修饰符按编译后的 class 文件解释，与 kapt 的 Java 存根一致。
+ */
+final class KspTargetType implements TargetType {
+    private final ClassName className;
+    private final boolean isFinal;
+    private final boolean isPublic;
+    private final boolean isView;
+    private final boolean isActivity;
+    private final boolean isDialog;
+
+    KspTargetType(KSClassDeclaration declaration) {
+        className = KspTypes.getClassName(declaration);
+        isFinal = !isOpen(declaration);
+        isPublic = isPublicInAllEnclosingTypes(declaration);
+        isView = KspTypes.isSubtypeOfType(declaration, VIEW_TYPE);
+        isActivity = KspTypes.isSubtypeOfType(declaration, ACTIVITY_TYPE);
+        isDialog = KspTypes.isSubtypeOfType(declaration, DIALOG_TYPE);
+    }
+
+    static boolean isJava(KSDeclaration declaration) {
+        return declaration.getOrigin() == Origin.JAVA || declaration.getOrigin() == Origin.JAVA_LIB;
+    }
+
+    /**
+     * Kotlin 的类默认是 final 的，Java 的类默认不是。
+     */
+    private static boolean isOpen(KSClassDeclaration declaration) {
+        Set<Modifier> modifiers = declaration.getModifiers();
+        if (isJava(declaration)) {
+            return !modifiers.contains(Modifier.FINAL);
+        }
+        return modifiers.contains(Modifier.OPEN) || modifiers.contains(Modifier.ABSTRACT)
+                || modifiers.contains(Modifier.SEALED);
+    }
+
+    /**
+     * Kotlin 的类默认是 public 的，internal 的类在 class 文件中也是 public 的。
+     */
+    private static boolean isPublicInAllEnclosingTypes(KSDeclaration declaration) {
+        while (declaration instanceof KSClassDeclaration) {
+            Set<Modifier> modifiers = declaration.getModifiers();
+            boolean isPublic = isJava(declaration)
+                    ? modifiers.contains(Modifier.PUBLIC)
+                    : !modifiers.contains(Modifier.PRIVATE) && !modifiers.contains(Modifier.PROTECTED);
+            if (!isPublic) {
+                return false;
+            }
+            declaration = declaration.getParentDeclaration();
+        }
+        return true;
+    }
+
+    @Override
+    public ClassName getClassName() {
+        return className;
+    }
+
+    @Override
+    public boolean isFinal() {
+        return isFinal;
+    }
+
+    @Override
+    public boolean isPublic() {
+        return isPublic;
+    }
+
+    @Override
+    public boolean isView() {
+        return isView;
+    }
+
+    @Override
+    public boolean isActivity() {
+        return isActivity;
+    }
+
+    @Override
+    public boolean isDialog() {
+        return isDialog;
+    }
+
+    @Override
+    public void addOriginatingElements(TypeSpec.Builder type) {
+        // KSP 在创建文件时通过 Dependencies 声明来源文件。
+    }
+}
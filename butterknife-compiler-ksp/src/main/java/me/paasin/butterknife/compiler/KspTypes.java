@@ -0,0 +1,238 @@
+package me.paasin.butterknife.compiler;
+
+import androidx.annotation.Nullable;
+
+import com.google.devtools.ksp.symbol.ClassKind;
+import com.google.devtools.ksp.symbol.KSClassDeclaration;
+import com.google.devtools.ksp.symbol.KSDeclaration;
+import com.google.devtools.ksp.symbol.KSName;
+import com.google.devtools.ksp.symbol.KSType;
+import com.google.devtools.ksp.symbol.KSTypeAlias;
+import com.google.devtools.ksp.symbol.KSTypeArgument;
+import com.google.devtools.ksp.symbol.KSTypeParameter;
+import com.google.devtools.ksp.symbol.KSTypeReference;
+import com.google.devtools.ksp.symbol.Variance;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * KSP 的类型到 JavaPoet 类型的转换，以及继承关系的查询。
+ * <p>
+ * 转换结果与 kapt 生成的 Java 存根中的类型一致：Kotlin 的内置类型映射为对应的 Java 类型，
+ * 不可空的基本类型映射为 int、float 等，可空的以及作为泛型参数时映射为包装类。
+ */
+final class KspTypes {
+    static final String LIST_TYPE = "kotlin.collections.List";
+    static final String MUTABLE_LIST_TYPE = "kotlin.collections.MutableList";
+    static final String ARRAY_TYPE = "kotlin.Array";
+    static final String STRING_TYPE = "kotlin.String";
+    static final String INT_TYPE = "kotlin.Int";
+    static final String FLOAT_TYPE = "kotlin.Float";
+    static final String BOOLEAN_TYPE = "kotlin.Boolean";
+    static final String UNIT_TYPE = "kotlin.Unit";
+
+    private static final Map<String, TypeName> PRIMITIVES = new HashMap<>();
+    private static final Map<String, TypeName> PRIMITIVE_ARRAYS = new HashMap<>();
+    private static final Map<String, ClassName> MAPPED_TYPES = new HashMap<>();
+
+    static {
+        PRIMITIVES.put(BOOLEAN_TYPE, TypeName.BOOLEAN);
+        PRIMITIVES.put("kotlin.Byte", TypeName.BYTE);
+        PRIMITIVES.put("kotlin.Short", TypeName.SHORT);
+        PRIMITIVES.put(INT_TYPE, TypeName.INT);
+        PRIMITIVES.put("kotlin.Long", TypeName.LONG);
+        PRIMITIVES.put("kotlin.Char", TypeName.CHAR);
+        PRIMITIVES.put(FLOAT_TYPE, TypeName.FLOAT);
+        PRIMITIVES.put("kotlin.Double", TypeName.DOUBLE);
+        for (Map.Entry<String, TypeName> entry : PRIMITIVES.entrySet()) {
+            PRIMITIVE_ARRAYS.put(entry.getKey() + "Array", ArrayTypeName.of(entry.getValue()));
+        }
+
+        MAPPED_TYPES.put("kotlin.Any", ClassName.OBJECT);
+        MAPPED_TYPES.put(STRING_TYPE, ClassName.get(String.class));
+        MAPPED_TYPES.put("kotlin.CharSequence", ClassName.get(CharSequence.class));
+        MAPPED_TYPES.put("kotlin.Number", ClassName.get(Number.class));
+        MAPPED_TYPES.put("kotlin.Comparable", ClassName.get(Comparable.class));
+        MAPPED_TYPES.put("kotlin.Throwable", ClassName.get(Throwable.class));
+        MAPPED_TYPES.put("kotlin.collections.Iterable", ClassName.get(Iterable.class));
+        MAPPED_TYPES.put("kotlin.collections.MutableIterable", ClassName.get(Iterable.class));
+        MAPPED_TYPES.put("kotlin.collections.Collection", ClassName.get(java.util.Collection.class));
+        MAPPED_TYPES.put("kotlin.collections.MutableCollection", ClassName.get(java.util.Collection.class));
+        MAPPED_TYPES.put(LIST_TYPE, ClassName.get(List.class));
+        MAPPED_TYPES.put(MUTABLE_LIST_TYPE, ClassName.get(List.class));
+        MAPPED_TYPES.put("kotlin.collections.Set", ClassName.get(java.util.Set.class));
+        MAPPED_TYPES.put("kotlin.collections.MutableSet", ClassName.get(java.util.Set.class));
+        MAPPED_TYPES.put("kotlin.collections.Map", ClassName.get(Map.class));
+        MAPPED_TYPES.put("kotlin.collections.MutableMap", ClassName.get(Map.class));
+    }
+
+    private KspTypes() {
+        throw new AssertionError("No instances.");
+    }
+
+    /**
+     * 类型变量使用它的上界，与 javac 处理器中的处理一致。
+     */
+    static TypeName get(KSType type) {
+        return get(type, false);
+    }
+
+    /**
+     * @param boxed 为 true 时基本类型使用包装类。
+     */
+    private static TypeName get(KSType type, boolean boxed) {
+        boxed |= type.isMarkedNullable();
+        KSDeclaration declaration = type.getDeclaration();
+        if (declaration instanceof KSTypeAlias) {
+            return get(((KSTypeAlias) declaration).getType().resolve(), boxed);
+        }
+        if (declaration instanceof KSTypeParameter) {
+            return get(getUpperBound((KSTypeParameter) declaration), boxed);
+        }
+        String name = getQualifiedName(declaration);
+        TypeName primitive = PRIMITIVES.get(name);
+        if (primitive != null) {
+            return boxed ? primitive.box() : primitive;
+        }
+        TypeName primitiveArray = PRIMITIVE_ARRAYS.get(name);
+        if (primitiveArray != null) {
+            return primitiveArray;
+        }
+        List<KSTypeArgument> arguments = type.getArguments();
+        if (name.equals(ARRAY_TYPE)) {
+            // Array<out T> 与 Array<T> 都是 T[]。
+            KSTypeReference component = arguments.get(0).getType();
+            return ArrayTypeName.of(component == null ? ClassName.OBJECT : get(component.resolve(), true));
+        }
+        ClassName className = MAPPED_TYPES.get(name);
+        if (className == null) {
+            className = getClassName(declaration);
+        }
+        if (arguments.isEmpty()) {
+            return className;
+        }
+        TypeName[] typeArguments = new TypeName[arguments.size()];
+        for (int i = 0; i < typeArguments.length; i++) {
+            typeArguments[i] = getTypeArgument(arguments.get(i));
+        }
+        return ParameterizedTypeName.get(className, typeArguments);
+    }
+
+    private static TypeName getTypeArgument(KSTypeArgument argument) {
+        KSTypeReference reference = argument.getType();
+        if (argument.getVariance() == Variance.STAR || reference == null) {
+            return WildcardTypeName.subtypeOf(Object.class);
+        }
+        KSType type = reference.resolve();
+        // 泛型参数中的类型变量保留为类型变量。
+        TypeName typeName = type.getDeclaration() instanceof KSTypeParameter
+                ? TypeVariableName.get(type.getDeclaration().getSimpleName().asString())
+                : get(type, true);
+        switch (argument.getVariance()) {
+            case COVARIANT:
+                return WildcardTypeName.subtypeOf(typeName);
+            case CONTRAVARIANT:
+                return WildcardTypeName.supertypeOf(typeName);
+            default:
+                return typeName;
+        }
+    }
+
+    /**
+     * 类型变量的第一个上界，没有声明上界时为 Any?。
+     */
+    static KSType getUpperBound(KSTypeParameter parameter) {
+        Iterator<KSTypeReference> bounds = parameter.getBounds().iterator();
+        return bounds.next().resolve();
+    }
+
+    /**
+     * 嵌套类的类名包含所有外部类，与 ClassName.get(TypeElement) 相同。
+     */
+    static ClassName getClassName(KSDeclaration declaration) {
+        String packageName = declaration.getPackageName().asString();
+        String qualifiedName = getQualifiedName(declaration);
+        if (!packageName.isEmpty() && qualifiedName.startsWith(packageName + ".")) {
+            qualifiedName = qualifiedName.substring(packageName.length() + 1);
+        }
+        String[] simpleNames = qualifiedName.split("\\.");
+        return ClassName.get(packageName, simpleNames[0], Arrays.copyOfRange(simpleNames, 1, simpleNames.length));
+    }
+
+    /**
+     * 局部类以及无法解析的类型没有全类名，使用简单类名。
+     */
+    static String getQualifiedName(KSDeclaration declaration) {
+        KSName name = declaration.getQualifiedName();
+        return name != null ? name.asString() : declaration.getSimpleName().asString();
+    }
+
+    /**
+     * 展开类型别名以及类型变量，返回类型对应的类声明，不是类时返回 null。
+     */
+    @Nullable
+    static KSClassDeclaration getClassDeclaration(KSType type) {
+        KSDeclaration declaration = type.getDeclaration();
+        while (true) {
+            if (declaration instanceof KSTypeAlias) {
+                declaration = ((KSTypeAlias) declaration).getType().resolve().getDeclaration();
+            } else if (declaration instanceof KSTypeParameter) {
+                declaration = getUpperBound((KSTypeParameter) declaration).getDeclaration();
+            } else {
+                return declaration instanceof KSClassDeclaration ? (KSClassDeclaration) declaration : null;
+            }
+        }
+    }
+
+    /**
+     * 返回父类的声明，父类为 Any（即 Object）时返回 null。
+     */
+    @Nullable
+    static KSClassDeclaration getSuperclass(KSClassDeclaration type) {
+        for (Iterator<KSTypeReference> superTypes = type.getSuperTypes().iterator(); superTypes.hasNext(); ) {
+            KSClassDeclaration superType = getClassDeclaration(superTypes.next().resolve());
+            if (superType == null || superType.getClassKind() != ClassKind.CLASS) {
+                continue;
+            }
+            String name = getQualifiedName(superType);
+            return name.equals("kotlin.Any") || name.equals("java.lang.Object") ? null : superType;
+        }
+        return null;
+    }
+
+    static boolean isSubtypeOfType(KSType type, String qualifiedName) {
+        KSClassDeclaration declaration = getClassDeclaration(type);
+        return declaration != null && isSubtypeOfType(declaration, qualifiedName);
+    }
+
+    /**
+     * type 本身、父类或者实现的接口中有 qualifiedName 时返回 true。
+     */
+    static boolean isSubtypeOfType(KSClassDeclaration type, String qualifiedName) {
+        if (getQualifiedName(type).equals(qualifiedName)) {
+            return true;
+        }
+        for (Iterator<KSTypeReference> superTypes = type.getSuperTypes().iterator(); superTypes.hasNext(); ) {
+            KSClassDeclaration superType = getClassDeclaration(superTypes.next().resolve());
+            if (superType != null && isSubtypeOfType(superType, qualifiedName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isInterface(KSType type) {
+        KSClassDeclaration declaration = getClassDeclaration(type);
+        return declaration != null && declaration.getClassKind() == ClassKind.INTERFACE;
+    }
+}
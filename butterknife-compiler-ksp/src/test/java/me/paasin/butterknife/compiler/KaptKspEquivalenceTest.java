@@ -0,0 +1,190 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.devtools.ksp.processing.SymbolProcessorProvider;
+import com.tschuchort.compiletesting.KotlinCompilation;
+import com.tschuchort.compiletesting.KspKt;
+import com.tschuchort.compiletesting.SourceFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.processing.Processor;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 同一份 Kotlin 源码分别交给 kapt（{@link ButterKnifeProcessor}）和 KSP（{@link ButterKnifeSymbolProcessor}）处理，
+ * 生成的 _ViewBinding 源码必须完全相同。
+ */
+public final class KaptKspEquivalenceTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String[][] STUBS = {
+            {"android/content/Context.java", "package android.content;\n"
+                    + "public class Context {}\n"},
+            {"android/view/View.java", "package android.view;\n"
+                    + "public class View {\n"
+                    + "    public View findViewById(int id) { return null; }\n"
+                    + "    public android.content.Context getContext() { return null; }\n"
+                    + "}\n"},
+            {"android/view/Window.java", "package android.view;\n"
+                    + "public class Window { public View getDecorView() { return null; } }\n"},
+            {"android/widget/TextView.java", "package android.widget;\n"
+                    + "public class TextView extends android.view.View {}\n"},
+            {"android/app/Activity.java", "package android.app;\n"
+                    + "public class Activity extends android.content.Context {\n"
+                    + "    public android.view.Window getWindow() { return null; }\n"
+                    + "}\n"},
+            {"android/app/Dialog.java", "package android.app;\n"
+                    + "public class Dialog {\n"
+                    + "    public android.view.Window getWindow() { return null; }\n"
+                    + "    public android.content.Context getContext() { return null; }\n"
+                    + "}\n"},
+            {"me/passin/butterknife/api/Unbinder.java", "package me.passin.butterknife.api;\n"
+                    + "public interface Unbinder { void unbind(); }\n"},
+            {"me/passin/butterknife/api/Rebinder.java", "package me.passin.butterknife.api;\n"
+                    + "public interface Rebinder extends Unbinder {\n"
+                    + "    void rebind(Object target, android.view.View source);\n"
+                    + "}\n"},
+    };
+
+    /**
+     * Activity、Dialog 和 View 三种 target，以及一个继承了有绑定的父类的 target。
+     */
+    private static final String TARGETS = "package com.example\n"
+            + "\n"
+            + "import android.widget.TextView\n"
+            + "import me.passin.butterknife.annotations.BindView\n"
+            + "\n"
+            + "open class BaseActivity : android.app.Activity() {\n"
+            + "    @BindView(1) lateinit var title: TextView\n"
+            + "}\n"
+            + "\n"
+            + "class MainActivity : BaseActivity() {\n"
+            + "    @BindView(2) lateinit var subtitle: TextView\n"
+            + "    @BindView(3) lateinit var root: android.view.View\n"
+            + "}\n"
+            + "\n"
+            + "class DetailDialog : android.app.Dialog() {\n"
+            + "    @BindView(4) lateinit var body: TextView\n"
+            + "}\n"
+            + "\n"
+            + "class HeaderView : android.view.View() {\n"
+            + "    @BindView(5) lateinit var label: TextView\n"
+            + "}\n";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void identicalBindings() throws IOException {
+        assertIdenticalBindings(Collections.<String, String>emptyMap());
+    }
+
+    @Test
+    public void identicalBindingsWithStaticBind() throws IOException {
+        assertIdenticalBindings(Collections.singletonMap(ButterKnifeProcessor.OPTION_STATIC_BIND, "true"));
+    }
+
+    private void assertIdenticalBindings(Map<String, String> options) throws IOException {
+        List<SourceFile> sources = writeSources(temporaryFolder.newFolder("src"));
+        Map<String, String> kaptBindings = readBindings(compile(sources, options, true));
+        Map<String, String> kspBindings = readBindings(compile(sources, options, false));
+        assertEquals(4, kaptBindings.size());
+        assertEquals(kaptBindings.keySet(), kspBindings.keySet());
+        for (Map.Entry<String, String> entry : kaptBindings.entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue(), kspBindings.get(entry.getKey()));
+        }
+    }
+
+    /**
+     * @return 生成的源码所在的目录。
+     */
+    private File compile(List<SourceFile> sources, Map<String, String> options, boolean kapt)
+            throws IOException {
+        KotlinCompilation compilation = new KotlinCompilation();
+        compilation.setWorkingDir(temporaryFolder.newFolder(kapt ? "kapt" : "ksp"));
+        compilation.setSources(sources);
+        compilation.setInheritClassPath(true);
+        compilation.setMessageOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        });
+        File generatedDir;
+        if (kapt) {
+            compilation.setAnnotationProcessors(Collections.<Processor>singletonList(new ButterKnifeProcessor()));
+            compilation.getKaptArgs().putAll(options);
+            generatedDir = compilation.getKaptSourceDir();
+        } else {
+            KspKt.setSymbolProcessorProviders(compilation,
+                    Collections.<SymbolProcessorProvider>singletonList(new ButterKnifeSymbolProcessorProvider()));
+            KspKt.getKspArgs(compilation).putAll(options);
+            generatedDir = KspKt.getKspSourcesDir(compilation);
+        }
+        KotlinCompilation.Result result = compilation.compile();
+        assertEquals(result.getMessages(), KotlinCompilation.ExitCode.OK, result.getExitCode());
+        return generatedDir;
+    }
+
+    private static List<SourceFile> writeSources(File root) throws IOException {
+        List<SourceFile> sources = new ArrayList<>();
+        for (String[] stub : STUBS) {
+            sources.add(SourceFile.Companion.fromPath(writeFile(root, stub[0], stub[1])));
+        }
+        sources.add(SourceFile.Companion.fromPath(writeFile(root, "com/example/Targets.kt", TARGETS)));
+        return sources;
+    }
+
+    private static File writeFile(File root, String path, String content) throws IOException {
+        File file = new File(root, path);
+        if (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Unable to create " + file.getParentFile());
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), UTF_8)) {
+            writer.write(content);
+        }
+        return file;
+    }
+
+    /**
+     * key 为相对于 dir 的路径，value 为源码。
+     */
+    private static Map<String, String> readBindings(File dir) throws IOException {
+        Map<String, String> bindings = new TreeMap<>();
+        readBindings(dir, "", bindings);
+        return bindings;
+    }
+
+    private static void readBindings(File dir, String path, Map<String, String> bindings) throws IOException {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            if (child.isDirectory()) {
+                // KSP 按语言把生成的源码放在 java、kotlin 等子目录中，只比较包名之后的路径。
+                String childPath = path.isEmpty() && (child.getName().equals("java")
+                        || child.getName().equals("kotlin")) ? "" : path + child.getName() + "/";
+                readBindings(child, childPath, bindings);
+            } else if (child.getName().endsWith("_ViewBinding.java")) {
+                bindings.put(path + child.getName(), new String(Files.readAllBytes(child.toPath()), UTF_8));
+            }
+        }
+    }
+}
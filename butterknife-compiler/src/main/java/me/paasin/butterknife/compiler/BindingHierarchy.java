@@ -0,0 +1,162 @@
+package me.paasin.butterknife.compiler;
+
+import androidx.annotation.Nullable;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 解析绑定类之间的继承关系，与具体的注解处理 API 无关，javac 和 KSP 的处理器共用。
+ *
+ * @param <T> 类声明的类型，javac 中为 TypeElement。
+ */
+final class BindingHierarchy<T> {
+
+    interface Types<T> {
+        /**
+         * 返回 type 的父类，没有父类时返回 null。
+         */
+        @Nullable
+        T getSuperclass(T type);
+
+        /**
+         * 查找 classpath 中的 type 的绑定信息，type 没有绑定时返回 null。
+         *
+         * @param parentNeedsView type 的父类的绑定类构造函数是否需要 View。
+         */
+        @Nullable
+        ClasspathBindingSet findClasspathBinding(T type, boolean parentNeedsView);
+
+        /**
+         * 父类有绑定但无法构建时报错。
+         */
+        void unresolvedParent(T child, T parent);
+    }
+
+    private final Types<T> types;
+    private final boolean countDepth;
+
+    /**
+     * @param countDepth 是否计算存在绑定的父类的层数，只有构建报告需要。
+     */
+    BindingHierarchy(Types<T> types, boolean countDepth) {
+        this.types = types;
+        this.countDepth = countDepth;
+    }
+
+    /**
+     * 查找 targets 的父类链中来自 classpath 的绑定。
+     *
+     * @param processedInThisRound 本轮中有绑定的类，它们的父类链由它们自己查找。
+     */
+    Map<T, ClasspathBindingSet> findAllSupertypeBindings(Set<T> targets, Set<T> processedInThisRound) {
+        Map<T, ClasspathBindingSet> classpathBindings = new HashMap<>();
+        for (T type : targets) {
+            // 确保在子类之前处理超类，因为父类的构造函数参数需要子类提供。
+            // superClasses 存储着需要继承父类的类元素。
+            Deque<T> superClasses = new ArrayDeque<>();
+            T superClass = types.getSuperclass(type);
+            while (superClass != null && !processedInThisRound.contains(superClass)
+                    && !classpathBindings.containsKey(superClass)) {
+                // 逐级添加存在绑定的父类到队列的头部，直至最终的父类。
+                // 这样能保证在有多重继承关系的类之间，父类一定在子类的前面。
+                superClasses.addFirst(superClass);
+                superClass = types.getSuperclass(superClass);
+            }
+
+            // 标记着父类的构造函数是否需要参数 View。
+            boolean parentHasConstructorWithView = false;
+            while (!superClasses.isEmpty()) {
+                T superclass = superClasses.removeFirst();
+                // 查找 superclass 的父类的要求以及类名。
+                ClasspathBindingSet classpathBinding =
+                        types.findClasspathBinding(superclass, parentHasConstructorWithView);
+                if (classpathBinding != null) {
+                    // superclass 父类的要求，它的所有子类也必须要提供。
+                    parentHasConstructorWithView |= classpathBinding.constructorNeedsView();
+                    classpathBindings.put(superclass, classpathBinding);
+                }
+            }
+        }
+        return ImmutableMap.copyOf(classpathBindings);
+    }
+
+    /**
+     * 按继承关系拓扑排序后构建，保证父类总是先于子类构建，整个过程是线性的。
+     *
+     * @param bindingTargets 本轮中有绑定的类，可能多于 builderMap 的 key。
+     */
+    Map<T, BindingSet> build(Map<T, BindingSet.Builder> builderMap, Set<T> bindingTargets,
+                             Map<T, ClasspathBindingSet> classpathBindings) {
+        Map<T, BindingSet> bindingMap = new LinkedHashMap<>();
+        // 已知的存在绑定的父类的层数，父类先于子类构建，子类的层数为父类的层数加一。
+        Map<T, Integer> depths = new HashMap<>();
+        Set<T> visited = new HashSet<>();
+        Deque<T> chain = new ArrayDeque<>();
+        for (T type : builderMap.keySet()) {
+            // 沿着父类向上收集尚未处理的类，直到遇到已处理的类或者父类不在本轮中。
+            T current = type;
+            while (current != null && visited.add(current)) {
+                chain.push(current);
+                T parentType = findParentType(current, bindingTargets, classpathBindings.keySet());
+                current = parentType != null && builderMap.containsKey(parentType) ? parentType : null;
+            }
+            // 从最顶层的父类开始构建。
+            while (!chain.isEmpty()) {
+                T child = chain.pop();
+                BindingSet.Builder builder = builderMap.get(child);
+                T parentType = findParentType(child, bindingTargets, classpathBindings.keySet());
+                if (parentType != null) {
+                    BindingInformationProvider parentBinding = bindingMap.get(parentType);
+                    if (parentBinding == null) {
+                        parentBinding = classpathBindings.get(parentType);
+                    }
+                    if (parentBinding == null) {
+                        // 父类有绑定但无法构建，报错而不是无限等待。
+                        types.unresolvedParent(child, parentType);
+                        continue;
+                    }
+                    int parentDepth = countDepth
+                            ? getDepth(parentType, depths, bindingTargets, classpathBindings.keySet()) + 1 : 0;
+                    if (countDepth) {
+                        depths.put(child, parentDepth);
+                    }
+                    builder.setParent(parentBinding, parentDepth);
+                }
+                bindingMap.put(child, builder.build());
+            }
+        }
+        return bindingMap;
+    }
+
+    /**
+     * 返回 type 的存在绑定的父类的层数。本轮中的父类在构建时已经记录，
+     * 只有 classpath 中的父类需要沿父类链计算一次，之后同样记录在 depths 中。
+     */
+    private int getDepth(T type, Map<T, Integer> depths, Set<T> parents, Set<T> classpathParents) {
+        Integer depth = depths.get(type);
+        if (depth == null) {
+            T parentType = findParentType(type, parents, classpathParents);
+            depth = parentType != null ? getDepth(parentType, depths, parents, classpathParents) + 1 : 0;
+            depths.put(type, depth);
+        }
+        return depth;
+    }
+
+    @Nullable
+    private T findParentType(T type, Set<T> parents, Set<T> classpathParents) {
+        while (true) {
+            type = types.getSuperclass(type);
+            if (type == null || parents.contains(type) || classpathParents.contains(type)) {
+                return type;
+            }
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.common.collect.ImmutableList;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * 模块内所有绑定类的索引，运行时通过它直接 new 出绑定类，不再需要反射。
+ */
+final class BindingIndexSet {
+    private static final ClassName VIEW = ClassName.get("android.view", "View");
+    private static final ClassName UNBINDER = ClassName.get("me.passin.butterknife.api", "Unbinder");
+    private static final ClassName BINDING_INDEX =
+            ClassName.get("me.passin.butterknife.api", "BindingIndex");
+    private static final ClassName BINDING_CONSTRUCTOR =
+            ClassName.get("me.passin.butterknife.api", "BindingConstructor");
+    private static final ClassName VIEW_BINDER =
+            ClassName.get("me.passin.butterknife.api", "ViewBinder");
+    private static final String INDEXED_CONSTRUCTOR = "IndexedBindingConstructor";
+    /**
+     * 包内辅助类的类名后缀，辅助类的类名为索引的类名加上该后缀。
+     */
+    private static final String PACKAGE_HELPER_SUFFIX = "_Package";
+
+    private final ClassName indexClassName;
+    private final ImmutableList<BindingSet> bindings;
+
+    BindingIndexSet(ClassName indexClassName, ImmutableList<BindingSet> bindings) {
+        this.indexClassName = indexClassName;
+        this.bindings = bindings;
+    }
+
+    /**
+     * public final class AppBindingIndex implements BindingIndex {
+     *   private final Map<Class<?>, IndexedBindingConstructor> bindings = new HashMap<>(2);
+     *
+     *   public AppBindingIndex() {
+     *     Class<?>[] targets0 = com.example.ui.AppBindingIndex_Package.getTargetClasses();
+     *     bindings.put(DemoActivity.class, new IndexedBindingConstructor(0));
+     *     bindings.put(targets0[0], new IndexedBindingConstructor(1));
+     *   }
+     *
+     *   @Override
+     *   public BindingConstructor getBindingConstructor(Class<?> targetClass) {
+     *     return bindings.get(targetClass);
+     *   }
+     *
+     *   @Override
+     *   public ViewBinder<Object> getViewBinder(Class<?> targetClass) {
+     *     return bindings.get(targetClass);
+     *   }
+     *
+     *   @Override
+     *   public Set<Class<?>> getTargetClasses() {
+     *     return Collections.unmodifiableSet(bindings.keySet());
+     *   }
+     *
+     *   private static final class IndexedBindingConstructor implements BindingConstructor, ViewBinder<Object> {
+     *     ...
+     *     @Override
+     *     public Unbinder newInstance(Object target, View source) {
+     *       switch (index) {
+     *         case 0: return new DemoActivity_ViewBinding((DemoActivity) target, source);
+     *         case 1: return com.example.ui.AppBindingIndex_Package.newInstance(0, target, source);
+     *         default: throw new AssertionError();
+     *       }
+     *     }
+     *
+     *     @Override
+     *     public void bind(Object target, View source) {
+     *       switch (index) {
+     *         case 0: DemoActivity_ViewBinding.bind((DemoActivity) target, source); return;
+     *         default: throw new AssertionError();
+     *       }
+     *     }
+     *   }
+     * }
+     * 所有绑定类共用一个 IndexedBindingConstructor 类，避免每个绑定类都生成一个匿名类。
+     * 没有绑定类生成静态方法 bind（没有开启静态绑定，或者都有监听方法）时 getViewBinder 返回 null，
+     * IndexedBindingConstructor 也不实现 ViewBinder；只有部分绑定类生成时，其余的通过 hasStaticBind() 返回 null。
+     * <p>
+     * 索引所在的包之外的非 public 的 target 不能在索引中直接引用，改为通过所在包的辅助类创建，见 {@link #brewPackageHelper}。
+     *
+     * @return 索引类以及各个包的辅助类，索引类在第一个。
+     */
+    List<JavaFile> brewJava() {
+        TypeName classType = ParameterizedTypeName.get(ClassName.get(Class.class),
+                WildcardTypeName.subtypeOf(Object.class));
+        ClassName indexedConstructor = indexClassName.nestedClass(INDEXED_CONSTRUCTOR);
+        TypeName mapType = ParameterizedTypeName.get(ClassName.get(Map.class), classType,
+                indexedConstructor);
+        TypeName viewBinderType = ParameterizedTypeName.get(VIEW_BINDER, TypeName.OBJECT);
+
+        TypeSpec.Builder result = TypeSpec.classBuilder(indexClassName.simpleName())
+                .addModifiers(PUBLIC, FINAL)
+                .addSuperinterface(BINDING_INDEX)
+                .addField(FieldSpec.builder(mapType, "bindings", PRIVATE, FINAL)
+                        .initializer("new $T<>($L)", HashMap.class, bindings.size())
+                        .build());
+
+        MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+                .addModifiers(PUBLIC);
+        CodeBlock.Builder cases = CodeBlock.builder()
+                .beginControlFlow("switch (index)");
+        CodeBlock.Builder staticCases = CodeBlock.builder()
+                .beginControlFlow("switch (index)");
+        // key 为包名，value 为该包中需要通过辅助类访问的绑定。
+        Map<String, List<BindingSet>> packageBindings = new LinkedHashMap<>();
+        // 每个绑定在所属辅助类中的下标，直接引用的绑定为 -1。
+        int[] helperIndexes = new int[bindings.size()];
+        for (int i = 0; i < bindings.size(); i++) {
+            BindingSet binding = bindings.get(i);
+            binding.getTarget().addOriginatingElements(result);
+            String packageName = binding.getBindingClassName().packageName();
+            if (binding.isTargetPublic() || packageName.equals(indexClassName.packageName())) {
+                helperIndexes[i] = -1;
+                continue;
+            }
+            List<BindingSet> helperBindings = packageBindings.get(packageName);
+            if (helperBindings == null) {
+                helperBindings = new ArrayList<>();
+                packageBindings.put(packageName, helperBindings);
+            }
+            helperIndexes[i] = helperBindings.size();
+            helperBindings.add(binding);
+        }
+        Map<String, String> helperTargets = new HashMap<>();
+        for (String packageName : packageBindings.keySet()) {
+            String targets = "targets" + helperTargets.size();
+            helperTargets.put(packageName, targets);
+            constructor.addStatement("$T[] $N = $T.getTargetClasses()", classType, targets,
+                    getPackageHelperName(packageName));
+        }
+        for (int i = 0; i < bindings.size(); i++) {
+            BindingSet binding = bindings.get(i);
+            if (helperIndexes[i] >= 0) {
+                String packageName = binding.getBindingClassName().packageName();
+                ClassName helper = getPackageHelperName(packageName);
+                constructor.addStatement("bindings.put($N[$L], new $T($L))", helperTargets.get(packageName),
+                        helperIndexes[i], indexedConstructor, i);
+                cases.addStatement("case $L: return $T.newInstance($L, target, source)", i, helper,
+                        helperIndexes[i]);
+                if (binding.hasStaticBind()) {
+                    staticCases.addStatement("case $L: $T.bind($L, target, source); return", i, helper,
+                            helperIndexes[i]);
+                }
+                continue;
+            }
+            constructor.addStatement("bindings.put($T.class, new $T($L))",
+                    binding.getTargetTypeName(), indexedConstructor, i);
+            cases.addStatement("case $L: return $L", i, newBinding(binding));
+            if (binding.hasStaticBind()) {
+                staticCases.addStatement("case $L: $L; return", i, staticBind(binding));
+            }
+        }
+        cases.addStatement("default: throw new $T()", AssertionError.class)
+                .endControlFlow();
+        staticCases.addStatement("default: throw new $T()", AssertionError.class)
+                .endControlFlow();
+        result.addMethod(constructor.build());
+
+        result.addMethod(MethodSpec.methodBuilder("getBindingConstructor")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(BINDING_CONSTRUCTOR)
+                .addParameter(classType, "targetClass")
+                .addStatement("return bindings.get(targetClass)")
+                .build());
+
+        MethodSpec.Builder getViewBinder = MethodSpec.methodBuilder("getViewBinder")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(viewBinderType)
+                .addParameter(classType, "targetClass");
+        boolean viewBinders = hasStaticBind(bindings);
+        boolean allViewBinders = viewBinders && countStaticBind(bindings) == bindings.size();
+        if (allViewBinders) {
+            getViewBinder.addStatement("return bindings.get(targetClass)");
+        } else if (viewBinders) {
+            getViewBinder.addStatement("$T binding = bindings.get(targetClass)", indexedConstructor)
+                    .addStatement("return binding != null && binding.hasStaticBind() ? binding : null");
+        } else {
+            getViewBinder.addStatement("return null");
+        }
+        result.addMethod(getViewBinder.build());
+
+        result.addMethod(MethodSpec.methodBuilder("getTargetClasses")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(ParameterizedTypeName.get(ClassName.get(Set.class), classType))
+                .addStatement("return $T.unmodifiableSet(bindings.keySet())", Collections.class)
+                .build());
+
+        TypeSpec.Builder indexedConstructorType = TypeSpec.classBuilder(INDEXED_CONSTRUCTOR)
+                .addModifiers(PRIVATE, STATIC, FINAL)
+                .addSuperinterface(BINDING_CONSTRUCTOR)
+                .addField(int.class, "index", PRIVATE, FINAL)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addParameter(int.class, "index")
+                        .addStatement("this.index = index")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("newInstance")
+                        .addAnnotation(Override.class)
+                        .addModifiers(PUBLIC)
+                        .returns(UNBINDER)
+                        .addParameter(Object.class, "target")
+                        .addParameter(VIEW, "source")
+                        .addCode(cases.build())
+                        .build());
+        if (viewBinders && !allViewBinders) {
+            // 有监听方法的绑定类没有静态方法 bind，getViewBinder 对它们返回 null。
+            List<Integer> staticIndexes = new ArrayList<>();
+            for (int i = 0; i < bindings.size(); i++) {
+                if (bindings.get(i).hasStaticBind()) {
+                    staticIndexes.add(i);
+                }
+            }
+            CodeBlock.Builder staticIndexCases = CodeBlock.builder()
+                    .beginControlFlow("switch (index)");
+            for (int i = 0; i < staticIndexes.size() - 1; i++) {
+                staticIndexCases.add("case $L:\n", staticIndexes.get(i));
+            }
+            staticIndexCases.addStatement("case $L: return true", staticIndexes.get(staticIndexes.size() - 1))
+                    .addStatement("default: return false")
+                    .endControlFlow();
+            indexedConstructorType.addMethod(MethodSpec.methodBuilder("hasStaticBind")
+                    .returns(boolean.class)
+                    .addCode(staticIndexCases.build())
+                    .build());
+        }
+        if (viewBinders) {
+            indexedConstructorType.addSuperinterface(viewBinderType)
+                    .addMethod(MethodSpec.methodBuilder("bind")
+                            .addAnnotation(Override.class)
+                            .addModifiers(PUBLIC)
+                            .addParameter(Object.class, "target")
+                            .addParameter(VIEW, "source")
+                            .addCode(staticCases.build())
+                            .build());
+        }
+        result.addType(indexedConstructorType.build());
+
+        List<JavaFile> files = new ArrayList<>(packageBindings.size() + 1);
+        files.add(JavaFile.builder(indexClassName.packageName(), result.build())
+                .addFileComment("Generated code from Butter Knife. Do not modify!")
+                .build());
+        for (Map.Entry<String, List<BindingSet>> entry : packageBindings.entrySet()) {
+            files.add(brewPackageHelper(entry.getKey(), entry.getValue()));
+        }
+        return files;
+    }
+
+    private static boolean hasStaticBind(List<BindingSet> bindings) {
+        return countStaticBind(bindings) > 0;
+    }
+
+    private static int countStaticBind(List<BindingSet> bindings) {
+        int count = 0;
+        for (BindingSet binding : bindings) {
+            if (binding.hasStaticBind()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private ClassName getPackageHelperName(String packageName) {
+        return ClassName.get(packageName, indexClassName.simpleName() + PACKAGE_HELPER_SUFFIX);
+    }
+
+    /**
+     * 父类只绑定了资源时，绑定类的构造函数第二个参数为 Context。
+     */
+    private static CodeBlock newBinding(BindingSet binding) {
+        String source = binding.constructorNeedsView() ? "source" : "source.getContext()";
+        return CodeBlock.of("new $T(($T) target, $L)", binding.getBindingClassName(),
+                binding.getTargetTypeName(), source);
+    }
+
+    private static CodeBlock staticBind(BindingSet binding) {
+        return CodeBlock.of("$T.bind(($T) target, source)", binding.getBindingClassName(),
+                binding.getTargetTypeName());
+    }
+
+    /**
+     * package com.example.ui;
+     *
+     * public final class AppBindingIndex_Package {
+     *   private AppBindingIndex_Package() {
+     *     throw new AssertionError("No instances.");
+     *   }
+     *
+     *   public static Class<?>[] getTargetClasses() {
+     *     return new Class<?>[] {HiddenActivity.class};
+     *   }
+     *
+     *   public static Unbinder newInstance(int index, Object target, View source) {
+     *     switch (index) {
+     *       case 0: return new HiddenActivity_ViewBinding((HiddenActivity) target, source);
+     *       default: throw new AssertionError();
+     *     }
+     *   }
+     * }
+     * 与 target 在同一个包中，因此可以引用包内可见的 target 及其绑定类，索引再通过它间接创建绑定类。
+     * 其中有绑定类生成了静态方法 bind 时额外生成 bind(int, Object, View)。
+     */
+    private JavaFile brewPackageHelper(String packageName, List<BindingSet> helperBindings) {
+        ClassName helper = getPackageHelperName(packageName);
+        TypeName classType = ParameterizedTypeName.get(ClassName.get(Class.class),
+                WildcardTypeName.subtypeOf(Object.class));
+        TypeSpec.Builder result = TypeSpec.classBuilder(helper.simpleName())
+                .addModifiers(PUBLIC, FINAL)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(PRIVATE)
+                        .addStatement("throw new $T($S)", AssertionError.class, "No instances.")
+                        .build());
+
+        CodeBlock.Builder targets = CodeBlock.builder();
+        CodeBlock.Builder cases = CodeBlock.builder()
+                .beginControlFlow("switch (index)");
+        CodeBlock.Builder staticCases = CodeBlock.builder()
+                .beginControlFlow("switch (index)");
+        for (int i = 0; i < helperBindings.size(); i++) {
+            BindingSet binding = helperBindings.get(i);
+            binding.getTarget().addOriginatingElements(result);
+            targets.add(i == 0 ? "$T.class" : ", $T.class", binding.getTargetTypeName());
+            cases.addStatement("case $L: return $L", i, newBinding(binding));
+            if (binding.hasStaticBind()) {
+                staticCases.addStatement("case $L: $L; return", i, staticBind(binding));
+            }
+        }
+        cases.addStatement("default: throw new $T()", AssertionError.class)
+                .endControlFlow();
+        staticCases.addStatement("default: throw new $T()", AssertionError.class)
+                .endControlFlow();
+
+        result.addMethod(MethodSpec.methodBuilder("getTargetClasses")
+                .addModifiers(PUBLIC, STATIC)
+                .returns(ArrayTypeName.of(classType))
+                .addStatement("return new $T[] {$L}", classType, targets.build())
+                .build());
+        result.addMethod(MethodSpec.methodBuilder("newInstance")
+                .addModifiers(PUBLIC, STATIC)
+                .returns(UNBINDER)
+                .addParameter(int.class, "index")
+                .addParameter(Object.class, "target")
+                .addParameter(VIEW, "source")
+                .addCode(cases.build())
+                .build());
+        if (hasStaticBind(helperBindings)) {
+            result.addMethod(MethodSpec.methodBuilder("bind")
+                    .addModifiers(PUBLIC, STATIC)
+                    .addParameter(int.class, "index")
+                    .addParameter(Object.class, "target")
+                    .addParameter(VIEW, "source")
+                    .addCode(staticCases.build())
+                    .build());
+        }
+
+        return JavaFile.builder(packageName, result.build())
+                .addFileComment("Generated code from Butter Knife. Do not modify!")
+                .build();
+    }
+}
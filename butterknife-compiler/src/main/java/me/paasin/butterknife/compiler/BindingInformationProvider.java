@@ -0,0 +1,27 @@
+package me.paasin.butterknife.compiler;
+
+import com.squareup.javapoet.ClassName;
+
+/**
+ * 子类的绑定类需要的父类的绑定信息，父类在本轮中时为 {@link BindingSet}，来自 classpath 时为 {@link ClasspathBindingSet}。
+ */
+interface BindingInformationProvider {
+    boolean constructorNeedsView();
+
+    ClassName getBindingClassName();
+
+    /**
+     * 绑定类是否有静态方法 {@code bind(Target, View)}。
+     */
+    boolean hasStaticBind();
+
+    /**
+     * 绑定类（包括父类的绑定类）是否实现了 View.OnClickListener。
+     */
+    boolean hasClickListener();
+
+    /**
+     * 绑定类（包括父类的绑定类）是否实现了 View.OnLongClickListener。
+     */
+    boolean hasLongClickListener();
+}
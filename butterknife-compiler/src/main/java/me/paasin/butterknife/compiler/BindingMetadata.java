@@ -0,0 +1,126 @@
+package me.paasin.butterknife.compiler;
+
+import androidx.annotation.Nullable;
+
+import com.squareup.javapoet.ClassName;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.TypeElement;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import static com.google.auto.common.MoreElements.getPackage;
+
+/**
+ * 每个包一个的绑定元数据文件，随模块的 class 一起输出，下游模块的处理器直接读取，
+ * 不必再遍历依赖库中父类的成员来判断它是否存在绑定。下游模块同样需要开启 "butterknife.metadata" 才会读取。
+ * <p>
+ * 运行时不读取该文件：读取 APK 中的 Java 资源需要在每次启动时打开并查找 APK；运行时通过生成的索引枚举所有绑定，
+ * 见 ButterKnife.getBindingTargets()。
+ * <p>
+ * 文件位于包目录下的 {@value #FILE_NAME}，每行描述一个 target：
+ * <pre>
+ * # target binding needsView
+ * BaseActivity BaseActivity_ViewBinding 1
+ * Outer$Inner Outer$Inner_ViewBinding 0
+ * </pre>
+ */
+final class BindingMetadata {
+    static final String FILE_NAME = "butterknife.bindings";
+    private static final String HEADER = "# target binding needsView";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Filer filer;
+    /**
+     * key 为包名，value 为该包中 target 的类名（不含包名）与构造函数是否需要 View。
+     */
+    private final Map<String, Map<String, Boolean>> packages = new HashMap<>();
+
+    BindingMetadata(Filer filer) {
+        this.filer = filer;
+    }
+
+    /**
+     * 从依赖的元数据中查找 typeElement 的绑定信息，元数据中没有该类时返回 null。
+     */
+    @Nullable
+    ClasspathBindingCache.Bindings find(TypeElement typeElement) {
+        String packageName = getPackage(typeElement).getQualifiedName().toString();
+        Map<String, Boolean> targets = packages.get(packageName);
+        if (targets == null) {
+            targets = read(packageName);
+            packages.put(packageName, targets);
+        }
+        Boolean needsView = targets.get(ClassName.get(typeElement).reflectionName()
+                .substring(packageName.isEmpty() ? 0 : packageName.length() + 1));
+        if (needsView == null) {
+            return null;
+        }
+        return needsView
+                ? ClasspathBindingCache.Bindings.REQUIRE_VIEW
+                : ClasspathBindingCache.Bindings.CONTEXT_ONLY;
+    }
+
+    private Map<String, Boolean> read(String packageName) {
+        Map<String, Boolean> targets = new HashMap<>();
+        try {
+            FileObject file = filer.getResource(StandardLocation.CLASS_PATH, packageName, FILE_NAME);
+            try (Reader reader = new InputStreamReader(file.openInputStream(), UTF_8);
+                 BufferedReader lines = new BufferedReader(reader)) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    if (line.isEmpty() || line.startsWith("#")) {
+                        continue;
+                    }
+                    String[] columns = line.split(" ");
+                    if (columns.length == 3) {
+                        targets.put(columns[0], "1".equals(columns[2]));
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 依赖中没有该包的元数据，之后退回到遍历成员的方式。
+        }
+        return targets;
+    }
+
+    /**
+     * 按包输出所有 bindings 的元数据。
+     */
+    static void write(Filer filer, Collection<BindingSet> bindings) throws IOException {
+        Map<String, StringBuilder> contents = new LinkedHashMap<>();
+        for (BindingSet binding : bindings) {
+            ClassName bindingClassName = binding.getBindingClassName();
+            String packageName = bindingClassName.packageName();
+            StringBuilder content = contents.get(packageName);
+            if (content == null) {
+                content = new StringBuilder(HEADER).append('\n');
+                contents.put(packageName, content);
+            }
+            String targetName = binding.getTarget().getClassName().reflectionName();
+            content.append(targetName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1))
+                    .append(' ').append(bindingClassName.simpleName())
+                    .append(' ').append(binding.constructorNeedsView() ? '1' : '0')
+                    .append('\n');
+        }
+        for (Map.Entry<String, StringBuilder> entry : contents.entrySet()) {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, entry.getKey(),
+                    FILE_NAME);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), UTF_8)) {
+                writer.write(entry.getValue().toString());
+            }
+        }
+    }
+}
@@ -5,27 +5,25 @@ import androidx.annotation.Nullable;
 import com.google.common.collect.ImmutableList;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
-import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
-import javax.lang.model.element.Modifier;
-import javax.lang.model.element.TypeElement;
-import javax.lang.model.type.TypeMirror;
 
-import static com.google.auto.common.MoreElements.getPackage;
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
-import static me.paasin.butterknife.compiler.ButterKnifeProcessor.ACTIVITY_TYPE;
-import static me.paasin.butterknife.compiler.ButterKnifeProcessor.DIALOG_TYPE;
+import static javax.lang.model.element.Modifier.STATIC;
 import static me.paasin.butterknife.compiler.ButterKnifeProcessor.VIEW_TYPE;
-import static me.paasin.butterknife.compiler.ButterKnifeProcessor.isSubtypeOfType;
 
 /**
  * @author: zbb
@@ -39,32 +37,79 @@ final class BindingSet implements BindingInformationProvider {
             ClassName.get("androidx.annotation", "UiThread");
     private static final ClassName CALL_SUPER =
             ClassName.get("androidx.annotation", "CallSuper");
-    private static final ClassName UNBINDER = ClassName.get("me.passin.butterknife.api", "Unbinder");
+    private static final ClassName REBINDER = ClassName.get("me.passin.butterknife.api", "Rebinder");
+    private static final ClassName VIEW_FINDER =
+            ClassName.get("me.passin.butterknife.api", "ViewFinder");
+    private static final ClassName LAZY_VIEW = ClassName.get("me.passin.butterknife.api", "LazyView");
+    private static final ClassName IMMUTABLE_VIEW_LIST =
+            ClassName.get("me.passin.butterknife.api", "ImmutableViewList");
+    private static final ClassName RESOURCE_CACHE =
+            ClassName.get("me.passin.butterknife.api", "ResourceCache");
+    private static final ClassName ON_CLICK_LISTENER = VIEW.nestedClass("OnClickListener");
+    private static final ClassName ON_LONG_CLICK_LISTENER = VIEW.nestedClass("OnLongClickListener");
+    private static final ClassName SYSTEM_CLOCK = ClassName.get("android.os", "SystemClock");
+    private static final ClassName VIEW_STUB = ClassName.get("android.view", "ViewStub");
+    private static final ClassName ON_INFLATE_LISTENER = VIEW_STUB.nestedClass("OnInflateListener");
+    private static final String VIEW_IDS = "VIEW_IDS";
+    private static final String VIEW_PATHS = "VIEW_PATHS";
+    private static final String COLLECTION_IDS = "VIEWS_IDS_";
+    private static final String RESOURCES = "RESOURCES";
+    private static final String SET_VIEW = "setView";
+    /**
+     * 估算的字节码大小：直接绑定一个视图（加载 target、source、id，findViewById、checkcast、putfield）。
+     */
+    private static final int VIEW_BINDING_BYTES = 14;
+    /**
+     * 估算的字节码大小：setView 中的一个 case（switch 表项、checkcast、putfield、return）。
+     */
+    private static final int SET_VIEW_CASE_BYTES = 14;
+    /**
+     * 估算的字节码大小：其余的一条语句（加载两三个变量或常量，一次方法调用或字段访问）。
+     */
+    private static final int STATEMENT_BYTES = 8;
 
     private final TypeName targetTypeName;
     private final ClassName bindingClassName;
-    private final TypeElement enclosingElement;
+    private final TargetType target;
     private final boolean isFinal;
+    private final boolean isPublic;
     private final boolean isView;
     private final boolean isActivity;
     private final boolean isDialog;
     private final ImmutableList<ViewBinding> viewBindings;
+    private final ImmutableList<FieldCollectionViewBinding> collectionBindings;
+    private final ImmutableList<FieldResourceBinding> resourceBindings;
+    private final ImmutableList<MethodViewBinding> methodBindings;
     private final @Nullable BindingInformationProvider parentBinding;
+    private final @Nullable LayoutAnalyzer.LayoutPaths layoutPaths;
+    private final boolean staticBind;
+    private final int parentDepth;
 
     private BindingSet(
-            TypeName targetTypeName, ClassName bindingClassName, TypeElement enclosingElement,
-            boolean isFinal, boolean isView, boolean isActivity, boolean isDialog,
+            TypeName targetTypeName, ClassName bindingClassName, TargetType target,
+            boolean isFinal, boolean isPublic, boolean isView, boolean isActivity, boolean isDialog,
             ImmutableList<ViewBinding> viewBindings,
-            @Nullable BindingInformationProvider parentBinding) {
+            ImmutableList<FieldCollectionViewBinding> collectionBindings,
+            ImmutableList<FieldResourceBinding> resourceBindings,
+            ImmutableList<MethodViewBinding> methodBindings,
+            @Nullable BindingInformationProvider parentBinding,
+            @Nullable LayoutAnalyzer.LayoutPaths layoutPaths, boolean staticBind, int parentDepth) {
         this.isFinal = isFinal;
+        this.isPublic = isPublic;
         this.targetTypeName = targetTypeName;
         this.bindingClassName = bindingClassName;
-        this.enclosingElement = enclosingElement;
+        this.target = target;
         this.isView = isView;
         this.isActivity = isActivity;
         this.isDialog = isDialog;
         this.viewBindings = viewBindings;
+        this.collectionBindings = collectionBindings;
+        this.resourceBindings = resourceBindings;
+        this.methodBindings = methodBindings;
         this.parentBinding = parentBinding;
+        this.layoutPaths = layoutPaths;
+        this.staticBind = staticBind;
+        this.parentDepth = parentDepth;
     }
 
     @Override
@@ -72,9 +117,65 @@ final class BindingSet implements BindingInformationProvider {
         return bindingClassName;
     }
 
-    JavaFile brewJava() {
+    TypeName getTargetTypeName() {
+        return targetTypeName;
+    }
+
+    TargetType getTarget() {
+        return target;
+    }
+
+    /**
+     * 绑定的字段数，一个 @BindViews 字段算一个。
+     */
+    int getFieldCount() {
+        return viewBindings.size() + collectionBindings.size() + resourceBindings.size();
+    }
+
+    /**
+     * 存在绑定的父类的层数，包括依赖库中的父类，没有父类绑定时为 0。
+     */
+    int getParentDepth() {
+        return parentDepth;
+    }
+
+    /**
+     * target 及其外部类都是 public 时返回 true，此时其他包中生成的代码才能直接引用它。
+     */
+    boolean isTargetPublic() {
+        return isPublic;
+    }
+
+    /**
+     * 按生成的语句估算方法编译后的字节码大小，与判断是否使用紧凑形式的估算一致：
+     * 查找视图的语句按 {@link #VIEW_BINDING_BYTES}，setView 中的 case 按 {@link #SET_VIEW_CASE_BYTES}，
+     * 其余语句按 {@link #STATEMENT_BYTES}。ViewStub 监听等匿名类中的语句也计入外层方法。
+     */
+    static int estimateBytecodeSize(MethodSpec method) {
+        int bytes = 0;
+        for (String line : method.code.toString().split("\n")) {
+            String statement = line.trim();
+            if (statement.isEmpty() || statement.equals("}")) {
+                continue;
+            }
+            if (statement.contains("findViewById(")) {
+                bytes += VIEW_BINDING_BYTES;
+            } else if (statement.startsWith("case ") && statement.contains(" = ")) {
+                bytes += SET_VIEW_CASE_BYTES;
+            } else {
+                bytes += STATEMENT_BYTES;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * @param singlePass    为 true 时，绑定多个视图只遍历一次视图树，而不是每个视图调用一次 findViewById。
+     * @param maxMethodSize 大于 0 时，估算的绑定方法字节码超过该大小的类改用紧凑形式生成，见 {@link #createSetViewMethods}。
+     */
+    JavaFile brewJava(boolean singlePass, int maxMethodSize) {
         // 创建类
-        TypeSpec bindingConfiguration = createClass();
+        TypeSpec bindingConfiguration = createClass(singlePass, maxMethodSize);
         // 创建文件
         return JavaFile.builder(bindingClassName.packageName(), bindingConfiguration)
                 // 添加文件顶部注释
@@ -84,7 +185,7 @@ final class BindingSet implements BindingInformationProvider {
 
 
     /**
-     * public class DemoActivity_ViewBinding implements Unbinder {
+     * public class DemoActivity_ViewBinding implements Rebinder {
      *   private DemoActivity target;
      *
      *   @UiThread
@@ -96,11 +197,23 @@ final class BindingSet implements BindingInformationProvider {
      *   public DemoActivity_ViewBinding(DemoActivity target, View source) {
      *     this.target = target;
      *
+     *     bindViews(target, source);
+     *   }
+     *
+     *   private void bindViews(DemoActivity target, View source) {
      *     target.mFlRoot = (FrameLayout) source.findViewById(2131165267);
      *     target.mTv = (TextView) source.findViewById(2131165344);
      *   }
      *
      *   @Override
+     *   @UiThread
+     *   @CallSuper
+     *   public void rebind(Object target, View source) {
+     *     this.target = (DemoActivity) target;
+     *     bindViews(this.target, source);
+     *   }
+     *
+     *   @Override
      *   @CallSuper
      *   public void unbind() {
      *     DemoActivity target = this.target;
@@ -113,25 +226,59 @@ final class BindingSet implements BindingInformationProvider {
      * }
      * 先手写一个生成类的具体，然后从上往下一步一步写生成代码。
      */
-    private TypeSpec createClass() {
+    private TypeSpec createClass(boolean singlePass, int maxMethodSize) {
         TypeSpec.Builder result = TypeSpec.classBuilder(bindingClassName.simpleName())
-                .addModifiers(PUBLIC)
-                // 申明与此文件创建有关的来源元素，在创建文件时使用。
-                .addOriginatingElement(enclosingElement);
+                .addModifiers(PUBLIC);
+        // 申明与此文件创建有关的来源元素，在创建文件时使用。
+        target.addOriginatingElements(result);
         if (isFinal) {
             result.addModifiers(FINAL);
         }
 
-        // target 的父类有使用 ButterKnife 绑定，则直接继承父类，父类会实现 Unbinder 接口。
+        // target 的父类有使用 ButterKnife 绑定，则直接继承父类，父类会实现 Rebinder 接口。
         if (parentBinding != null) {
             result.superclass(parentBinding.getBindingClassName());
         } else {
-            // 否则实现 Unbinder 接口，用于解绑视图。
-            result.addSuperinterface(UNBINDER);
+            // 否则实现 Rebinder 接口，用于解绑和重新绑定视图。
+            result.addSuperinterface(REBINDER);
+        }
+
+        // 绑定类本身就是监听器，所有视图共用一个实例，按 id 分发。父类的绑定类已经实现时不再重复声明。
+        boolean parentHasClick = parentBinding != null && parentBinding.hasClickListener();
+        boolean parentHasLongClick = parentBinding != null && parentBinding.hasLongClickListener();
+        if (hasMethodBindings(MethodViewBinding.Listener.CLICK) && !parentHasClick) {
+            result.addSuperinterface(ON_CLICK_LISTENER);
+        }
+        if (hasMethodBindings(MethodViewBinding.Listener.LONG_CLICK) && !parentHasLongClick) {
+            result.addSuperinterface(ON_LONG_CLICK_LISTENER);
         }
 
         // 接着是添加 target 变量。
         result.addField(targetTypeName, "target", PRIVATE);
+        if (hasDebounce()) {
+            result.addField(long.class, "lastClickMillis", PRIVATE);
+        }
+
+        // 只有一个视图时 findViewById 本身就只遍历一次。已经从布局中解析出路径时不再需要遍历。
+        boolean useSinglePass = singlePass && layoutPaths == null && getSortedViewIds().length > 1;
+        // 视图很多时按 id 表循环绑定，字段赋值放在按大小分块的 setView 方法中。
+        boolean compact = maxMethodSize > 0 && layoutPaths == null && getSortedViewIds().length > 1
+                && getSortedViewIds().length * VIEW_BINDING_BYTES > maxMethodSize;
+        if (useSinglePass || compact) {
+            result.addField(createViewIdsField());
+        }
+        if (layoutPaths != null) {
+            result.addField(createViewPathsField());
+        }
+        for (int i = 0; i < collectionBindings.size(); i++) {
+            result.addField(createCollectionIdsField(i, collectionBindings.get(i)));
+        }
+        if (hasResourceBindings()) {
+            // 所有实例共享的资源缓存。
+            result.addField(FieldSpec.builder(RESOURCE_CACHE, RESOURCES, PRIVATE, STATIC, FINAL)
+                    .initializer("new $T($L)", RESOURCE_CACHE, resourceBindings.size())
+                    .build());
+        }
 
         // 添加针对 target 对象的构造方法。
         if (isView) {
@@ -141,11 +288,37 @@ final class BindingSet implements BindingInformationProvider {
         } else if (isDialog) {
             result.addMethod(createBindingConstructorForDialog());
         }
+        if (!constructorNeedsView()) {
+            // 只绑定了资源时，为运行时通过反射查找的 (target, View) 构造函数提供一个委托。
+            result.addMethod(createBindingViewDelegateConstructor());
+        }
         // 最后都会调用该构造函数，并在构造函数中对视图进行绑定。
         result.addMethod(createBindingConstructor());
+        if (hasTargetBindings()) {
+            result.addMethod(createBindViewsMethod(useSinglePass, compact));
+        }
+        if (compact) {
+            for (MethodSpec method : createSetViewMethods(maxMethodSize)) {
+                result.addMethod(method);
+            }
+        }
+        // 重新绑定时复用当前对象，父类的绑定通过 super.rebind() 完成。
+        result.addMethod(createRebindMethod());
+        if (hasStaticBind()) {
+            result.addMethod(createStaticBindMethod());
+        }
+        if (hasMethodBindings()) {
+            result.addMethod(createBindListenersMethod());
+        }
+        if (hasMethodBindings(MethodViewBinding.Listener.CLICK)) {
+            result.addMethod(createOnClickMethod(parentHasClick));
+        }
+        if (hasMethodBindings(MethodViewBinding.Listener.LONG_CLICK)) {
+            result.addMethod(createOnLongClickMethod(parentHasLongClick));
+        }
 
-        // 添加解绑方法，就是对 Unbinder 接口的实现。
-        result.addMethod(createBindingUnbindMethod(result));
+        // 添加解绑方法，就是对 Unbinder 接口的实现（Rebinder 继承了 Unbinder）。
+        result.addMethod(createBindingUnbindMethod(compact));
 
         return result.build();
     }
@@ -210,8 +383,7 @@ final class BindingSet implements BindingInformationProvider {
 
         constructor.addParameter(targetTypeName, "target");
 
-        // 由于没有添加绑定资源的功能，因此该方法的返回值都会走 true。
-        // 保留判断主要是为了说明编写的思路。
+        // 当前类及其父类都只绑定了资源时，构造函数只需要 Context。
         if (constructorNeedsView()) {
             constructor.addParameter(VIEW, "source");
         } else {
@@ -232,19 +404,134 @@ final class BindingSet implements BindingInformationProvider {
         }
         // 对 target 赋值。
         constructor.addStatement("this.target = target");
-        constructor.addCode("\n");
 
-        if (hasViewBindings()) {
+        if (hasTargetBindings()) {
+            constructor.addCode("\n");
+            addBindViewsStatement(constructor, "target", constructorNeedsView() ? "source" : "context", "this");
+        }
+        if (hasMethodBindings()) {
+            constructor.addStatement("bindListeners(source)");
+        }
+
+        return constructor.build();
+    }
+
+    /**
+     * 构造函数和 rebind() 共用的绑定代码，包括视图和资源。private 方法不会被子类覆盖，每个绑定类只绑定自己的字段。
+     */
+    private MethodSpec createBindViewsMethod(boolean singlePass, boolean compact) {
+        MethodSpec.Builder result = MethodSpec.methodBuilder("bindViews")
+                .addModifiers(PRIVATE);
+        if (hasStaticBind()) {
+            result.addModifiers(STATIC);
+        }
+        if (hasStubViewBindings()) {
+            // ViewStub 的监听引用安装时的 target，解绑或者重新绑定到其他 target 后不再绑定。
+            result.addParameter(targetTypeName, "target", FINAL);
+        } else {
+            result.addParameter(targetTypeName, "target");
+        }
+        if (constructorNeedsView()) {
+            result.addParameter(VIEW, "source");
+        } else {
+            result.addParameter(CONTEXT, "context");
+        }
+        if (hasStaticBind() && hasStubViewBindings()) {
+            result.addParameter(bindingClassName, "binding", FINAL);
+        }
+
+        if (compact) {
+            addCompactViewBindings(result, singlePass);
+        } else if (singlePass) {
+            addSinglePassViewBindings(result);
+        } else if (layoutPaths != null) {
+            addPathViewBindings(result);
+        } else {
             for (ViewBinding binding : viewBindings) {
-                // 添加视图绑定代码。
-                addViewBinding(constructor, binding);
+                if (!binding.isInStub()) {
+                    // 添加视图绑定代码。
+                    addViewBinding(result, binding, "source");
+                }
             }
         }
+        for (int i = 0; i < collectionBindings.size(); i++) {
+            addFieldCollection(result, i, collectionBindings.get(i));
+        }
+        addStubViewBindings(result);
+        addResourceBindings(result);
+        return result.build();
+    }
 
-        return constructor.build();
+    /**
+     * @UiThread
+     * public static void bind(DemoActivity target, View source) {
+     *   BaseActivity_ViewBinding.bind(target, source);
+     *   bindViews(target, source);
+     * }
+     * 不创建绑定对象，父类的绑定也通过静态方法完成；
+     * 父类的绑定类来自没有开启静态绑定的依赖库时，退回到创建父类的绑定对象。
+     * 有监听方法时不生成该方法，见 {@link #hasStaticBind()}。
+     */
+    private MethodSpec createStaticBindMethod() {
+        MethodSpec.Builder result = MethodSpec.methodBuilder("bind")
+                .addAnnotation(UI_THREAD)
+                .addModifiers(PUBLIC, STATIC)
+                .addParameter(targetTypeName, "target")
+                .addParameter(VIEW, "source");
+        if (parentBinding != null) {
+            if (parentBinding.hasStaticBind()) {
+                result.addStatement("$T.bind(target, source)", parentBinding.getBindingClassName());
+            } else {
+                result.addStatement("new $T(target, $L)", parentBinding.getBindingClassName(),
+                        parentBinding.constructorNeedsView() ? "source" : "source.getContext()");
+            }
+        }
+        if (hasTargetBindings()) {
+            // 静态绑定没有 Unbinder，不需要判断是否已经解绑。
+            addBindViewsStatement(result, "target", constructorNeedsView() ? "source" : "source.getContext()",
+                    "null");
+        }
+        return result.build();
+    }
+
+    /**
+     * 开启静态绑定并且存在 ViewStub 中的视图时，bindViews 额外接收绑定对象，
+     * 供 ViewStub 的监听判断是否已经解绑，静态的 bind 方法传入 null。
+     */
+    private void addBindViewsStatement(MethodSpec.Builder method, String target, String source,
+                                       String binding) {
+        if (hasStaticBind() && hasStubViewBindings()) {
+            method.addStatement("bindViews($L, $L, $L)", target, source, binding);
+        } else {
+            method.addStatement("bindViews($L, $L)", target, source);
+        }
+    }
+
+    private MethodSpec createRebindMethod() {
+        MethodSpec.Builder result = MethodSpec.methodBuilder("rebind")
+                .addAnnotation(Override.class)
+                .addAnnotation(UI_THREAD)
+                .addModifiers(PUBLIC)
+                .addParameter(Object.class, "target")
+                .addParameter(VIEW, "source");
+        if (!isFinal && parentBinding == null) {
+            result.addAnnotation(CALL_SUPER);
+        }
+        if (parentBinding != null) {
+            result.addStatement("super.rebind(target, source)");
+        }
+        result.addStatement("this.target = ($T) target", targetTypeName);
+        if (hasTargetBindings()) {
+            addBindViewsStatement(result, "this.target",
+                    constructorNeedsView() ? "source" : "source.getContext()", "this");
+        }
+        if (hasMethodBindings()) {
+            result.addStatement("bindListeners(source)");
+        }
+        return result.build();
     }
 
-    private MethodSpec createBindingUnbindMethod(TypeSpec.Builder bindingClass) {
+    private MethodSpec createBindingUnbindMethod(boolean compact) {
         MethodSpec.Builder result = MethodSpec.methodBuilder("unbind")
                 .addAnnotation(Override.class)
                 .addModifiers(PUBLIC);
@@ -256,8 +543,25 @@ final class BindingSet implements BindingInformationProvider {
         result.addStatement("if (target == null) throw new $T($S)", IllegalStateException.class,
                 "Bindings already cleared.");
         result.addStatement("this.target = null");
-        result.addCode("\n");
+        if (hasFieldViewBindings()) {
+            // 资源字段不需要清除。
+            result.addCode("\n");
+        }
+        if (compact) {
+            // 与绑定时共用 setView，解绑方法的大小不随视图数量增长。
+            result.addStatement("for (int i = 0; i < $L.length; i++) $L(target, i, null)", VIEW_IDS, SET_VIEW);
+        }
         for (ViewBinding binding : viewBindings) {
+            if (compact && !binding.isLazy() && !binding.isInStub()) {
+                continue;
+            }
+            if (binding.isLazy()) {
+                // 同时释放已经查找到的视图以及尚未查找时持有的 source。
+                result.addStatement("target.$L.unbind()", binding.getSampleName());
+            }
+            result.addStatement("target.$L = null", binding.getSampleName());
+        }
+        for (FieldCollectionViewBinding binding : collectionBindings) {
             result.addStatement("target.$L = null", binding.getSampleName());
         }
 
@@ -268,7 +572,16 @@ final class BindingSet implements BindingInformationProvider {
         return result.build();
     }
 
-    private void addViewBinding(MethodSpec.Builder result, ViewBinding binding) {
+    /**
+     * @param source 查找视图的根视图的变量名。
+     */
+    private void addViewBinding(MethodSpec.Builder result, ViewBinding binding, String source) {
+        if (binding.isLazy()) {
+            // 延迟绑定只保存 source 和 id，第一次 get() 时才查找；rebind 到同一个 target 时复用原来的对象。
+            result.addStatement("target.$L = $T.bind(target.$L, $L, $L)", binding.getSampleName(), LAZY_VIEW,
+                    binding.getSampleName(), source, binding.getId());
+            return;
+        }
         // 添加代码块
         CodeBlock.Builder builder = CodeBlock.builder()
                 .add("target.$L = ", binding.getSampleName());
@@ -277,15 +590,527 @@ final class BindingSet implements BindingInformationProvider {
         if (requiresCast) {
             builder.add("($T) ", binding.getTypeName());
         }
-        builder.add("source.findViewById($L)", binding.getId());
+        builder.add("$L.findViewById($L)", source, binding.getId());
         result.addStatement("$L", builder.build());
     }
 
     /**
-     * 当前类需要绑定视图时返回 true。
+     * private static final int[] VIEWS_IDS_0 = {2131165270, 2131165271, 2131165272};
+     * 按注解中的顺序排列，一个 @BindViews 字段对应一个 id 表。
+     */
+    private FieldSpec createCollectionIdsField(int index, FieldCollectionViewBinding binding) {
+        CodeBlock.Builder ids = CodeBlock.builder().add("{");
+        int[] bindingIds = binding.getIds();
+        for (int i = 0; i < bindingIds.length; i++) {
+            ids.add(i == 0 ? "$L" : ", $L", bindingIds[i]);
+        }
+        ids.add("}");
+        return FieldSpec.builder(int[].class, COLLECTION_IDS + index, PRIVATE, STATIC, FINAL)
+                .initializer(ids.build())
+                .build();
+    }
+
+    /**
+     * target.mStars = ViewFinder.findViewsById(source, VIEWS_IDS_0, new ImageView[3]);
+     * target.mKeys = new ImmutableViewList<>(ViewFinder.findViewsById(source, VIEWS_IDS_1, new Button[12]));
+     * 不论绑定多少个视图，都只生成一条语句，查找在 ViewFinder 的循环中完成。
+     */
+    private void addFieldCollection(MethodSpec.Builder result, int index,
+                                    FieldCollectionViewBinding binding) {
+        CodeBlock find = CodeBlock.of("$T.findViewsById(source, $L, new $T[$L])", VIEW_FINDER,
+                COLLECTION_IDS + index, binding.getElementTypeName(), binding.getIds().length);
+        switch (binding.getKind()) {
+            case ARRAY:
+                result.addStatement("target.$L = $L", binding.getSampleName(), find);
+                break;
+            case LIST:
+                result.addStatement("target.$L = new $T<>($L)", binding.getSampleName(),
+                        IMMUTABLE_VIEW_LIST, find);
+                break;
+            default:
+                throw new AssertionError(binding.getKind());
+        }
+    }
+
+    /**
+     * Context context = source.getContext();
+     * RESOURCES.refresh(context);
+     * target.mTitle = RESOURCES.getString(context, 0, 2131623963);
+     * target.mPadding = RESOURCES.getDimensionPixelSize(context, 1, 2131099736);
+     * 每个资源在 RESOURCES 中占一个 slot，Configuration 不变时直接读取缓存；颜色和 Drawable 还要求主题不变。
+     */
+    private void addResourceBindings(MethodSpec.Builder result) {
+        if (!hasResourceBindings()) {
+            return;
+        }
+        if (hasFieldViewBindings()) {
+            result.addCode("\n");
+        }
+        if (constructorNeedsView()) {
+            result.addStatement("$T context = source.getContext()", CONTEXT);
+        }
+        result.addStatement("$L.refresh(context)", RESOURCES);
+        for (int i = 0; i < resourceBindings.size(); i++) {
+            FieldResourceBinding binding = resourceBindings.get(i);
+            result.addStatement("target.$L = $L.$L(context, $L, $L)", binding.getSampleName(), RESOURCES,
+                    binding.getType().cacheMethod, i, binding.getId());
+        }
+    }
+
+    /**
+     * private void bindListeners(View source) {
+     *   View view2131165270 = source.findViewById(2131165270);
+     *   if (view2131165270 != null) view2131165270.setOnClickListener(this);
+     * }
+     * 解绑后不会移除监听，但 onClick 中 target 为 null 时直接返回。
+     */
+    private MethodSpec createBindListenersMethod() {
+        MethodSpec.Builder result = MethodSpec.methodBuilder("bindListeners")
+                .addModifiers(PRIVATE)
+                .addParameter(VIEW, "source");
+        Map<Integer, List<MethodViewBinding.Listener>> listeners = new LinkedHashMap<>();
+        for (MethodViewBinding binding : methodBindings) {
+            for (int id : binding.getIds()) {
+                List<MethodViewBinding.Listener> idListeners = listeners.get(id);
+                if (idListeners == null) {
+                    idListeners = new ArrayList<>();
+                    listeners.put(id, idListeners);
+                }
+                if (!idListeners.contains(binding.getListener())) {
+                    idListeners.add(binding.getListener());
+                }
+            }
+        }
+        for (Map.Entry<Integer, List<MethodViewBinding.Listener>> entry : listeners.entrySet()) {
+            String view = "view" + entry.getKey();
+            result.addStatement("$T $L = source.findViewById($L)", VIEW, view, entry.getKey());
+            result.beginControlFlow("if ($L != null)", view);
+            for (MethodViewBinding.Listener listener : entry.getValue()) {
+                result.addStatement("$L.$L(this)", view, listener == MethodViewBinding.Listener.CLICK
+                        ? "setOnClickListener" : "setOnLongClickListener");
+            }
+            result.endControlFlow();
+        }
+        return result.build();
+    }
+
+    /**
+     * @Override
+     * public void onClick(View v) {
+     *   DemoActivity target = this.target;
+     *   if (target == null) return;
+     *   switch (v.getId()) {
+     *     case 2131165269:
+     *     case 2131165270: {
+     *       long now = SystemClock.uptimeMillis();
+     *       if (now - lastClickMillis < 500) return;
+     *       lastClickMillis = now;
+     *       target.onSubmit(v);
+     *       return;
+     *     }
+     *     case 2131165271: target.onCancel(); return;
+     *     default: super.onClick(v);
+     *   }
+     * }
+     * 父类的绑定类也实现了 OnClickListener 时，其余的 id 交给父类分发。
+     */
+    private MethodSpec createOnClickMethod(boolean parentHasClick) {
+        MethodSpec.Builder result = MethodSpec.methodBuilder("onClick")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .addParameter(VIEW, "v");
+        result.addStatement("$T target = this.target", targetTypeName);
+        result.addStatement("if (target == null) return");
+        result.beginControlFlow("switch (v.getId())");
+        for (MethodViewBinding binding : methodBindings) {
+            if (binding.getListener() != MethodViewBinding.Listener.CLICK) {
+                continue;
+            }
+            // 同一个方法的多个 id 共用一个分支。
+            int[] ids = binding.getIds();
+            for (int i = 0; i < ids.length - 1; i++) {
+                result.addCode("case $L:\n", ids[i]);
+            }
+            int lastId = ids[ids.length - 1];
+            if (binding.getDebounceMillis() > 0) {
+                result.beginControlFlow("case $L:", lastId);
+                result.addStatement("long now = $T.uptimeMillis()", SYSTEM_CLOCK);
+                result.addStatement("if (now - lastClickMillis < $LL) return", binding.getDebounceMillis());
+                result.addStatement("lastClickMillis = now");
+                result.addStatement("$L", createMethodCall(binding));
+                result.addStatement("return");
+                result.endControlFlow();
+            } else {
+                result.addStatement("case $L: $L; return", lastId, createMethodCall(binding));
+            }
+        }
+        if (parentHasClick) {
+            result.addStatement("default: super.onClick(v)");
+        }
+        result.endControlFlow();
+        return result.build();
+    }
+
+    /**
+     * 与 onClick 相同，方法返回 void 时视为已消费。
+     */
+    private MethodSpec createOnLongClickMethod(boolean parentHasLongClick) {
+        MethodSpec.Builder result = MethodSpec.methodBuilder("onLongClick")
+                .addAnnotation(Override.class)
+                .addModifiers(PUBLIC)
+                .returns(boolean.class)
+                .addParameter(VIEW, "v");
+        result.addStatement("$T target = this.target", targetTypeName);
+        result.addStatement("if (target == null) return false");
+        result.beginControlFlow("switch (v.getId())");
+        for (MethodViewBinding binding : methodBindings) {
+            if (binding.getListener() != MethodViewBinding.Listener.LONG_CLICK) {
+                continue;
+            }
+            int[] ids = binding.getIds();
+            for (int i = 0; i < ids.length - 1; i++) {
+                result.addCode("case $L:\n", ids[i]);
+            }
+            int lastId = ids[ids.length - 1];
+            if (binding.returnsBoolean()) {
+                result.addStatement("case $L: return $L", lastId, createMethodCall(binding));
+            } else {
+                result.addStatement("case $L: $L; return true", lastId, createMethodCall(binding));
+            }
+        }
+        result.addStatement("default: return $L", parentHasLongClick ? "super.onLongClick(v)" : "false");
+        result.endControlFlow();
+        return result.build();
+    }
+
+    private CodeBlock createMethodCall(MethodViewBinding binding) {
+        TypeName parameterType = binding.getParameterType();
+        if (parameterType == null) {
+            return CodeBlock.of("target.$L()", binding.getName());
+        }
+        if (requiresCast(parameterType)) {
+            return CodeBlock.of("target.$L(($T) v)", binding.getName(), parameterType);
+        }
+        return CodeBlock.of("target.$L(v)", binding.getName());
+    }
+
+    private boolean hasDebounce() {
+        for (MethodViewBinding binding : methodBindings) {
+            if (binding.getDebounceMillis() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * View stub0 = source.findViewById(2131165300);
+     * if (stub0 instanceof ViewStub) {
+     *   ((ViewStub) stub0).setOnInflateListener(new ViewStub.OnInflateListener() {
+     *     @Override
+     *     public void onInflate(ViewStub stub, View inflated) {
+     *       if (DemoActivity_ViewBinding.this.target != target) return;
+     *       target.mError = (TextView) inflated.findViewById(2131165301);
+     *     }
+     *   });
+     * } else {
+     *   target.mError = (TextView) source.findViewById(2131165301);
+     * }
+     * 不会在绑定时 inflate ViewStub；ViewStub 已经 inflate 时它已从视图树中移除，直接从 source 中查找。
+     * 监听引用安装时的 target，解绑或者 rebind 到其他 target 之后再 inflate 时直接返回，
+     * 不会把旧视图树中的视图写入新的 target；rebind 到同一个 target 时不做区分。
+     * 开启静态绑定时 bindViews 是静态的，改为通过参数 binding 判断，静态的 bind 方法传入 null，总是绑定。
+     */
+    private void addStubViewBindings(MethodSpec.Builder result) {
+        Map<Integer, List<ViewBinding>> stubs = new LinkedHashMap<>();
+        for (ViewBinding binding : viewBindings) {
+            if (!binding.isInStub()) {
+                continue;
+            }
+            List<ViewBinding> bindings = stubs.get(binding.getStubId());
+            if (bindings == null) {
+                bindings = new ArrayList<>();
+                stubs.put(binding.getStubId(), bindings);
+            }
+            bindings.add(binding);
+        }
+
+        int index = 0;
+        for (Map.Entry<Integer, List<ViewBinding>> entry : stubs.entrySet()) {
+            String stub = "stub" + index++;
+            MethodSpec.Builder onInflate = MethodSpec.methodBuilder("onInflate")
+                    .addAnnotation(Override.class)
+                    .addModifiers(PUBLIC)
+                    .addParameter(VIEW_STUB, "stub")
+                    .addParameter(VIEW, "inflated");
+            if (!hasStaticBind()) {
+                // 解绑后 target 为 null，rebind 到其他 target 后旧视图树中的 ViewStub 同样不再绑定。
+                onInflate.addStatement("if ($T.this.target != target) return", bindingClassName);
+            } else {
+                // 通过绑定对象创建时同样判断；静态的 bind 方法没有 Unbinder，binding 为 null。
+                onInflate.addStatement("if (binding != null && binding.target != target) return");
+            }
+            for (ViewBinding binding : entry.getValue()) {
+                addViewBinding(onInflate, binding, "inflated");
+            }
+            TypeSpec listener = TypeSpec.anonymousClassBuilder("")
+                    .addSuperinterface(ON_INFLATE_LISTENER)
+                    .addMethod(onInflate.build())
+                    .build();
+
+            result.addCode("\n");
+            result.addStatement("$T $L = source.findViewById($L)", VIEW, stub, entry.getKey());
+            result.beginControlFlow("if ($L instanceof $T)", stub, VIEW_STUB);
+            result.addStatement("(($T) $L).setOnInflateListener($L)", VIEW_STUB, stub, listener);
+            result.nextControlFlow("else");
+            for (ViewBinding binding : entry.getValue()) {
+                addViewBinding(result, binding, "source");
+            }
+            result.endControlFlow();
+        }
+    }
+
+    /**
+     * private static final int[] VIEW_IDS = {2131165267, 2131165344};
+     * 升序排列，运行时通过二分查找匹配遍历到的视图。
+     */
+    private FieldSpec createViewIdsField() {
+        CodeBlock.Builder ids = CodeBlock.builder().add("{");
+        int[] sortedIds = getSortedViewIds();
+        for (int i = 0; i < sortedIds.length; i++) {
+            ids.add(i == 0 ? "$L" : ", $L", sortedIds[i]);
+        }
+        ids.add("}");
+        return FieldSpec.builder(int[].class, VIEW_IDS, PRIVATE, STATIC, FINAL)
+                .initializer(ids.build())
+                .build();
+    }
+
+    /**
+     * View[] views = new View[2];
+     * ViewFinder.findViewsByIds(source, VIEW_IDS, views);
+     * target.mFlRoot = (FrameLayout) views[0];
+     * target.mTv = (TextView) views[1];
+     */
+    private void addSinglePassViewBindings(MethodSpec.Builder result) {
+        int[] sortedIds = getSortedViewIds();
+        result.addStatement("$T[] views = new $T[$L]", VIEW, VIEW, sortedIds.length);
+        result.addStatement("$T.findViewsByIds(source, $L, views)", VIEW_FINDER, VIEW_IDS);
+        for (ViewBinding binding : viewBindings) {
+            if (binding.isInStub()) {
+                continue;
+            }
+            if (binding.isLazy()) {
+                addViewBinding(result, binding, "source");
+                continue;
+            }
+            CodeBlock.Builder builder = CodeBlock.builder()
+                    .add("target.$L = ", binding.getSampleName());
+            if (requiresCast(binding.getTypeName())) {
+                builder.add("($T) ", binding.getTypeName());
+            }
+            builder.add("views[$L]", Arrays.binarySearch(sortedIds, binding.getId()));
+            result.addStatement("$L", builder.build());
+        }
+    }
+
+    /**
+     * for (int i = 0; i < VIEW_IDS.length; i++) setView(target, i, source.findViewById(VIEW_IDS[i]));
+     * 开启 singlePass 时：
+     * View[] views = new View[160];
+     * ViewFinder.findViewsByIds(source, VIEW_IDS, views);
+     * for (int i = 0; i < views.length; i++) setView(target, i, views[i]);
+     * 延迟绑定的视图不在 id 表中，仍然逐个绑定。
+     */
+    private void addCompactViewBindings(MethodSpec.Builder result, boolean singlePass) {
+        if (singlePass) {
+            result.addStatement("$T[] views = new $T[$L]", VIEW, VIEW, getSortedViewIds().length);
+            result.addStatement("$T.findViewsByIds(source, $L, views)", VIEW_FINDER, VIEW_IDS);
+            result.addStatement("for (int i = 0; i < views.length; i++) $L(target, i, views[i])", SET_VIEW);
+        } else {
+            result.addStatement("for (int i = 0; i < $L.length; i++) $L(target, i, source.findViewById($L[i]))",
+                    VIEW_IDS, SET_VIEW, VIEW_IDS);
+        }
+        for (ViewBinding binding : viewBindings) {
+            if (binding.isLazy() && !binding.isInStub()) {
+                addViewBinding(result, binding, "source");
+            }
+        }
+    }
+
+    /**
+     * private static void setView(DemoActivity target, int index, View view) {
+     *   switch (index / 500) {
+     *     case 0: setView0(target, index, view); return;
+     *     case 1: setView1(target, index, view); return;
+     *   }
+     * }
+     *
+     * private static void setView0(DemoActivity target, int index, View view) {
+     *   switch (index) {
+     *     case 0: target.mFlRoot = (FrameLayout) view; return;
+     *     case 1: target.mTv = (TextView) view; return;
+     *     ...
+     *   }
+     * }
+     * index 为视图在 VIEW_IDS 中的下标。每个分块的 case 数量由 maxMethodSize 决定，只有一个分块时不生成分发方法。
+     */
+    private List<MethodSpec> createSetViewMethods(int maxMethodSize) {
+        int[] sortedIds = getSortedViewIds();
+        ViewBinding[] bindings = new ViewBinding[sortedIds.length];
+        for (ViewBinding binding : viewBindings) {
+            if (!binding.isLazy() && !binding.isInStub()) {
+                bindings[Arrays.binarySearch(sortedIds, binding.getId())] = binding;
+            }
+        }
+
+        int chunkSize = Math.max(1, maxMethodSize / SET_VIEW_CASE_BYTES);
+        int chunkCount = (bindings.length + chunkSize - 1) / chunkSize;
+        List<MethodSpec> methods = new ArrayList<>(chunkCount + 1);
+        if (chunkCount > 1) {
+            MethodSpec.Builder dispatcher = createSetViewMethodBuilder(SET_VIEW);
+            dispatcher.beginControlFlow("switch (index / $L)", chunkSize);
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                dispatcher.addStatement("case $L: $L$L(target, index, view); return", chunk, SET_VIEW, chunk);
+            }
+            dispatcher.endControlFlow();
+            methods.add(dispatcher.build());
+        }
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            MethodSpec.Builder result = createSetViewMethodBuilder(chunkCount > 1 ? SET_VIEW + chunk : SET_VIEW);
+            result.beginControlFlow("switch (index)");
+            int end = Math.min(bindings.length, (chunk + 1) * chunkSize);
+            for (int i = chunk * chunkSize; i < end; i++) {
+                ViewBinding binding = bindings[i];
+                if (requiresCast(binding.getTypeName())) {
+                    result.addStatement("case $L: target.$L = ($T) view; return", i, binding.getSampleName(),
+                            binding.getTypeName());
+                } else {
+                    result.addStatement("case $L: target.$L = view; return", i, binding.getSampleName());
+                }
+            }
+            result.endControlFlow();
+            methods.add(result.build());
+        }
+        return methods;
+    }
+
+    private MethodSpec.Builder createSetViewMethodBuilder(String name) {
+        return MethodSpec.methodBuilder(name)
+                .addModifiers(PRIVATE, STATIC)
+                .addParameter(targetTypeName, "target")
+                .addParameter(int.class, "index")
+                .addParameter(VIEW, "view");
+    }
+
+    /**
+     * private static final int[][] VIEW_PATHS = {{0}, {1, 0}};
+     * 与 layoutPaths.paths 的顺序一致。
+     */
+    private FieldSpec createViewPathsField() {
+        CodeBlock.Builder paths = CodeBlock.builder().add("{");
+        boolean first = true;
+        for (int[] path : layoutPaths.paths.values()) {
+            paths.add(first ? "{" : ", {");
+            for (int i = 0; i < path.length; i++) {
+                paths.add(i == 0 ? "$L" : ", $L", path[i]);
+            }
+            paths.add("}");
+            first = false;
+        }
+        paths.add("}");
+        return FieldSpec.builder(int[][].class, VIEW_PATHS, PRIVATE, STATIC, FINAL)
+                .initializer(paths.build())
+                .build();
+    }
+
+    /**
+     * View root = source.findViewById(2131165267);
+     * target.mFlRoot = (FrameLayout) ViewFinder.findViewByPath(source, root, VIEW_PATHS[0], 2131165267);
+     * target.mTv = (TextView) ViewFinder.findViewByPath(source, root, VIEW_PATHS[1], 2131165344);
+     * 没有路径的视图（延迟绑定、ViewStub 中的视图）按原来的方式绑定。
+     */
+    private void addPathViewBindings(MethodSpec.Builder result) {
+        result.addStatement("$T root = source.findViewById($L)", VIEW, layoutPaths.rootId);
+        List<Integer> pathIds = new ArrayList<>(layoutPaths.paths.keySet());
+        for (ViewBinding binding : viewBindings) {
+            if (binding.isInStub()) {
+                continue;
+            }
+            int pathIndex = pathIds.indexOf(binding.getId());
+            if (binding.isLazy() || pathIndex < 0) {
+                addViewBinding(result, binding, "source");
+                continue;
+            }
+            CodeBlock.Builder builder = CodeBlock.builder()
+                    .add("target.$L = ", binding.getSampleName());
+            if (requiresCast(binding.getTypeName())) {
+                builder.add("($T) ", binding.getTypeName());
+            }
+            builder.add("$T.findViewByPath(source, root, $L[$L], $L)", VIEW_FINDER, VIEW_PATHS,
+                    pathIndex, binding.getId());
+            result.addStatement("$L", builder.build());
+        }
+    }
+
+    /**
+     * 需要在构造函数中查找的视图 id，不包括延迟绑定和 ViewStub 中的视图。
+     */
+    private int[] getSortedViewIds() {
+        int[] ids = new int[viewBindings.size()];
+        int count = 0;
+        for (ViewBinding binding : viewBindings) {
+            if (!binding.isLazy() && !binding.isInStub()) {
+                ids[count++] = binding.getId();
+            }
+        }
+        ids = Arrays.copyOf(ids, count);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * 当前类有任何需要绑定的字段（视图或者资源）时返回 true，此时会生成 bindViews 方法。
+     */
+    private boolean hasTargetBindings() {
+        return hasFieldViewBindings() || hasResourceBindings();
+    }
+
+    private boolean hasFieldViewBindings() {
+        return !viewBindings.isEmpty() || !collectionBindings.isEmpty();
+    }
+
+    private boolean hasMethodBindings() {
+        return !methodBindings.isEmpty();
+    }
+
+    private boolean hasMethodBindings(MethodViewBinding.Listener listener) {
+        for (MethodViewBinding binding : methodBindings) {
+            if (binding.getListener() == listener) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasResourceBindings() {
+        return !resourceBindings.isEmpty();
+    }
+
+    private boolean hasStubViewBindings() {
+        for (ViewBinding binding : viewBindings) {
+            if (binding.isInStub()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 当前类需要绑定视图时返回 true，设置监听也需要视图。
      */
     private boolean hasViewBindings() {
-        return !viewBindings.isEmpty();
+        return hasFieldViewBindings() || hasMethodBindings();
     }
 
     /**
@@ -297,6 +1122,27 @@ final class BindingSet implements BindingInformationProvider {
                 || (parentBinding != null && parentBinding.constructorNeedsView());
     }
 
+    /**
+     * 开启静态绑定并且当前类及其父类都没有监听方法时为 true。监听器就是绑定对象本身，
+     * 有监听方法时静态的 bind 也只能创建绑定对象，因此不生成它，运行时改为通过构造函数绑定并返回 Unbinder。
+     */
+    @Override
+    public boolean hasStaticBind() {
+        return staticBind && !hasClickListener() && !hasLongClickListener();
+    }
+
+    @Override
+    public boolean hasClickListener() {
+        return hasMethodBindings(MethodViewBinding.Listener.CLICK)
+                || (parentBinding != null && parentBinding.hasClickListener());
+    }
+
+    @Override
+    public boolean hasLongClickListener() {
+        return hasMethodBindings(MethodViewBinding.Listener.LONG_CLICK)
+                || (parentBinding != null && parentBinding.hasLongClickListener());
+    }
+
     static boolean requiresCast(TypeName type) {
         return !VIEW_TYPE.equals(type.toString());
     }
@@ -306,57 +1152,104 @@ final class BindingSet implements BindingInformationProvider {
         return bindingClassName.toString();
     }
 
-    static Builder newBuilder(TypeElement enclosingElement) {
-        return new Builder(enclosingElement);
+    static Builder newBuilder(TargetType target) {
+        return new Builder(target);
     }
 
-    static ClassName getBindingClassName(TypeElement typeElement) {
-        String packageName = getPackage(typeElement).getQualifiedName().toString();
-        String className = typeElement.getQualifiedName().toString().substring(
-                packageName.length() + 1).replace('.', '$');
+    /**
+     * 绑定类与目标类同包，嵌套类的类名使用 $ 连接，例如 Outer$Inner_ViewBinding。
+     */
+    static ClassName getBindingClassName(ClassName targetClassName) {
+        String packageName = targetClassName.packageName();
+        String className = targetClassName.reflectionName().substring(
+                packageName.isEmpty() ? 0 : packageName.length() + 1);
         return ClassName.get(packageName, className + "_ViewBinding");
     }
 
     static final class Builder {
         private final TypeName targetTypeName;
         private final ClassName bindingClassName;
-        private final TypeElement enclosingElement;
+        private final TargetType target;
         private final boolean isFinal;
+        private final boolean isPublic;
         private final boolean isView;
         private final boolean isActivity;
         private final boolean isDialog;
 
         private @Nullable BindingInformationProvider parentBinding;
+        private @Nullable LayoutAnalyzer.LayoutPaths layoutPaths;
+        private boolean staticBind;
+        private int parentDepth;
 
         private final Map<Integer, ViewBinding> viewIdMap = new LinkedHashMap<>();
+        private final ImmutableList.Builder<FieldCollectionViewBinding> collectionBindings =
+                ImmutableList.builder();
+        private final ImmutableList.Builder<FieldResourceBinding> resourceBindings =
+                ImmutableList.builder();
+        private final List<MethodViewBinding> methodBindings = new ArrayList<>();
 
-        private Builder(TypeElement element) {
-            this.enclosingElement = element;
+        private Builder(TargetType target) {
+            this.target = target;
+            isView = target.isView();
+            isActivity = target.isActivity();
+            isDialog = target.isDialog();
+            targetTypeName = target.getClassName();
+            bindingClassName = getBindingClassName(target.getClassName());
+            isFinal = target.isFinal();
+            isPublic = target.isPublic();
+        }
+
+        void addField(int id, ViewBinding binding) {
+            viewIdMap.put(id, binding);
+        }
 
-            // 根据绑定的元素，解析生成文件所需要的信息。
-            TypeMirror typeMirror = enclosingElement.asType();
+        void addFieldCollection(FieldCollectionViewBinding binding) {
+            collectionBindings.add(binding);
+        }
 
-            isView = isSubtypeOfType(typeMirror, VIEW_TYPE);
-            isActivity = isSubtypeOfType(typeMirror, ACTIVITY_TYPE);
-            isDialog = isSubtypeOfType(typeMirror, DIALOG_TYPE);
+        void addResource(FieldResourceBinding binding) {
+            resourceBindings.add(binding);
+        }
 
-            TypeName targetTypeName = TypeName.get(typeMirror);
-            if (targetTypeName instanceof ParameterizedTypeName) {
-                targetTypeName = ((ParameterizedTypeName) targetTypeName).rawType;
+        /**
+         * 同一个 id 的同一种监听已经绑定了其他方法时返回该方法名，否则添加并返回 null。
+         */
+        @Nullable
+        String addMethod(MethodViewBinding binding) {
+            for (MethodViewBinding existing : methodBindings) {
+                if (existing.getListener() != binding.getListener()) {
+                    continue;
+                }
+                for (int existingId : existing.getIds()) {
+                    for (int id : binding.getIds()) {
+                        if (existingId == id) {
+                            return existing.getName();
+                        }
+                    }
+                }
             }
-            this.targetTypeName = targetTypeName;
+            methodBindings.add(binding);
+            return null;
+        }
 
-            bindingClassName = getBindingClassName(enclosingElement);
-            isFinal = enclosingElement.getModifiers().contains(Modifier.FINAL);
+        /**
+         * @param parentDepth 存在绑定的父类的层数，仅用于构建报告。
+         */
+        void setParent(BindingInformationProvider parent, int parentDepth) {
+            this.parentBinding = parent;
+            this.parentDepth = parentDepth;
         }
 
+        void setLayoutPaths(@Nullable LayoutAnalyzer.LayoutPaths layoutPaths) {
+            this.layoutPaths = layoutPaths;
+        }
 
-        void addField(int id, ViewBinding binding) {
-            viewIdMap.put(id, binding);
+        void setStaticBind(boolean staticBind) {
+            this.staticBind = staticBind;
         }
 
-        void setParent(BindingInformationProvider parent) {
-            this.parentBinding = parent;
+        Collection<ViewBinding> getViewBindings() {
+            return viewIdMap.values();
         }
 
         @Nullable
@@ -374,34 +1267,10 @@ final class BindingSet implements BindingInformationProvider {
             for (ViewBinding viewBinding : viewIdMap.values()) {
                 viewBindings.add(viewBinding);
             }
-            return new BindingSet(targetTypeName, bindingClassName, enclosingElement, isFinal, isView,
-                    isActivity, isDialog, viewBindings.build(), parentBinding);
+            return new BindingSet(targetTypeName, bindingClassName, target, isFinal, isPublic,
+                    isView, isActivity, isDialog, viewBindings.build(), collectionBindings.build(),
+                    resourceBindings.build(), ImmutableList.copyOf(methodBindings), parentBinding, layoutPaths,
+                    staticBind, parentDepth);
         }
     }
 }
-
-interface BindingInformationProvider {
-    boolean constructorNeedsView();
-
-    ClassName getBindingClassName();
-}
-
-final class ClasspathBindingSet implements BindingInformationProvider {
-    private boolean constructorNeedsView;
-    private ClassName className;
-
-    ClasspathBindingSet(boolean constructorNeedsView, TypeElement classElement) {
-        this.constructorNeedsView = constructorNeedsView;
-        this.className = BindingSet.getBindingClassName(classElement);
-    }
-
-    @Override
-    public ClassName getBindingClassName() {
-        return className;
-    }
-
-    @Override
-    public boolean constructorNeedsView() {
-        return constructorNeedsView;
-    }
-}
\ No newline at end of file
@@ -2,23 +2,32 @@ package me.paasin.butterknife.compiler;
 
 import androidx.annotation.Nullable;
 
-import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.WildcardTypeName;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.lang.annotation.Annotation;
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.Filer;
@@ -27,18 +36,30 @@ import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
 
+import me.passin.butterknife.annotations.BindColor;
+import me.passin.butterknife.annotations.BindDimen;
+import me.passin.butterknife.annotations.BindDrawable;
+import me.passin.butterknife.annotations.BindString;
 import me.passin.butterknife.annotations.BindView;
+import me.passin.butterknife.annotations.BindViews;
+import me.passin.butterknife.annotations.OnClick;
+import me.passin.butterknife.annotations.OnLongClick;
 
 import static javax.lang.model.element.ElementKind.CLASS;
 import static javax.lang.model.element.ElementKind.INTERFACE;
@@ -53,6 +74,131 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
     static final String VIEW_TYPE = "android.view.View";
     static final String ACTIVITY_TYPE = "android.app.Activity";
     static final String DIALOG_TYPE = "android.app.Dialog";
+    static final String LAZY_VIEW_TYPE = "me.passin.butterknife.api.LazyView";
+    static final String STRING_TYPE = "java.lang.String";
+    static final String DRAWABLE_TYPE = "android.graphics.drawable.Drawable";
+    static final String OPTION_INDEX = "butterknife.index";
+    static final String OPTION_SINGLE_PASS = "butterknife.singlePass";
+    static final String OPTION_STATIC_BIND = "butterknife.staticBind";
+    static final String OPTION_METADATA = "butterknife.metadata";
+    static final String OPTION_PARALLELISM = "butterknife.parallelism";
+    static final String OPTION_REPORT = "butterknife.report";
+    /**
+     * 布局目录（或者 res 目录），多个目录以 File.pathSeparator 分隔，需要同时设置 {@link #OPTION_R_CLASS}。
+     * <p>
+     * 处理器参数只是字符串，布局 XML 不会因此成为 javac 任务的输入：只修改布局时 javac 任务仍然是 up-to-date 的，
+     * 校验过的 id、类型和 getChildAt 路径会悄悄过期。需要通过 CommandLineArgumentProvider 把目录声明为输入，
+     * 布局变化时 Gradle 会重新编译整个模块：
+     * <pre>
+     * class ButterKnifeLayouts implements CommandLineArgumentProvider {
+     *     &#64;InputFiles &#64;PathSensitive(PathSensitivity.RELATIVE)
+     *     FileCollection layoutDirs
+     *
+     *     &#64;Override
+     *     Iterable&lt;String&gt; asArguments() {
+     *         ["-Abutterknife.layoutDirs=" + layoutDirs.files.join(File.pathSeparator)]
+     *     }
+     * }
+     *
+     * android.defaultConfig.javaCompileOptions.annotationProcessorOptions {
+     *     arguments = ["butterknife.rClass": "com.example.R"]
+     *     compilerArgumentProvider new ButterKnifeLayouts(layoutDirs: files("src/main/res"))
+     * }
+     * </pre>
+     * 直接写在 arguments 中时，修改布局后需要 clean 之后再构建。
+     */
+    static final String OPTION_LAYOUT_DIRS = "butterknife.layoutDirs";
+    static final String OPTION_R_CLASS = "butterknife.rClass";
+    static final String OPTION_MAX_METHOD_SIZE = "butterknife.maxMethodSize";
+    /**
+     * 输出混淆规则到 class 目录下的 META-INF/proguard/，只对库模块有效，见 {@link KeepRules}。
+     */
+    static final String OPTION_KEEP_RULES = "butterknife.keepRules";
+    /**
+     * Gradle 增量注解处理器的类型，注册方式见 META-INF/gradle/incremental.annotation.processors。
+     */
+    private static final String GRADLE_ISOLATING = "org.gradle.annotation.processing.isolating";
+    private static final String GRADLE_AGGREGATING = "org.gradle.annotation.processing.aggregating";
+    /**
+     * AppCompat 和 Material Components 的 ViewInflater 在运行时把布局中的 framework 控件替换成的子类，
+     * key 为布局中的类，value 为可能替换成的类。
+     */
+    private static final ImmutableListMultimap<String, String> INFLATER_SUBSTITUTES =
+            ImmutableListMultimap.<String, String>builder()
+                    .putAll("android.widget.TextView", "androidx.appcompat.widget.AppCompatTextView",
+                            "com.google.android.material.textview.MaterialTextView")
+                    .putAll("android.widget.Button", "androidx.appcompat.widget.AppCompatButton",
+                            "com.google.android.material.button.MaterialButton")
+                    .putAll("android.widget.CheckBox", "androidx.appcompat.widget.AppCompatCheckBox",
+                            "com.google.android.material.checkbox.MaterialCheckBox")
+                    .putAll("android.widget.RadioButton", "androidx.appcompat.widget.AppCompatRadioButton",
+                            "com.google.android.material.radiobutton.MaterialRadioButton")
+                    .putAll("android.widget.AutoCompleteTextView",
+                            "androidx.appcompat.widget.AppCompatAutoCompleteTextView",
+                            "com.google.android.material.textfield.MaterialAutoCompleteTextView")
+                    .put("android.widget.ImageView", "androidx.appcompat.widget.AppCompatImageView")
+                    .put("android.widget.EditText", "androidx.appcompat.widget.AppCompatEditText")
+                    .put("android.widget.Spinner", "androidx.appcompat.widget.AppCompatSpinner")
+                    .put("android.widget.ImageButton", "androidx.appcompat.widget.AppCompatImageButton")
+                    .put("android.widget.CheckedTextView", "androidx.appcompat.widget.AppCompatCheckedTextView")
+                    .put("android.widget.MultiAutoCompleteTextView",
+                            "androidx.appcompat.widget.AppCompatMultiAutoCompleteTextView")
+                    .put("android.widget.RatingBar", "androidx.appcompat.widget.AppCompatRatingBar")
+                    .put("android.widget.SeekBar", "androidx.appcompat.widget.AppCompatSeekBar")
+                    .put("android.widget.ToggleButton", "androidx.appcompat.widget.AppCompatToggleButton")
+                    .build();
+
+    /**
+     * 生成索引类的全类名，为 null 时不生成索引。
+     */
+    private @Nullable ClassName mIndexClassName;
+    private boolean mIndexWritten;
+    /**
+     * 为 true 时输出每个包的绑定元数据，并读取依赖库输出的元数据来解析父类的绑定。
+     * 为 false 时不读取元数据，避免通过 Filer 访问 Gradle 无法追踪的类路径资源。
+     */
+    private boolean mUseMetadata;
+    /**
+     * 所有轮次中生成的绑定，在最后一轮写入元数据。
+     */
+    private final List<BindingSet> mMetadataBindings = new ArrayList<>();
+    private BindingMetadata mBindingMetadata;
+    /**
+     * 大于 1 时，在该并行度的 ForkJoinPool 中并行生成并渲染源码，Filer 的写入仍在处理器线程中按顺序进行。
+     */
+    private int mParallelism;
+    /**
+     * 配置了 butterknife.layoutDirs 和 butterknife.rClass 时用于在编译期解析布局，否则为 null。
+     */
+    private @Nullable LayoutAnalyzer mLayoutAnalyzer;
+    private boolean mLayoutAnalyzerCreated;
+    /**
+     * 为 true 时生成的构造函数只遍历一次视图树来查找所有视图。
+     */
+    private boolean mSinglePass;
+    /**
+     * 为 true 时绑定类额外生成静态方法 bind(Target, View)，不需要创建绑定对象。
+     */
+    private boolean mStaticBind;
+    /**
+     * 大于 0 时，估算的绑定方法字节码超过该大小的类改用 id 表和分块的 setView 方法生成，0 表示不限制。
+     */
+    private int mMaxMethodSize;
+    /**
+     * 本轮处理的类型继承关系索引，每轮重新创建。
+     */
+    private TypeHierarchy mTypeHierarchy;
+    private final PhaseTimer mPhaseTimer = new PhaseTimer();
+    /**
+     * 开启 butterknife.report 时收集构建报告，否则为 null。
+     */
+    private @Nullable ProcessorReport mReport;
+    /**
+     * 开启 butterknife.keepRules 时收集所有轮次的绑定类，在最后一轮输出混淆规则，否则为 null。
+     * R8 只读取依赖的 jar 中的规则，应用模块需要开启索引或者手动引用生成的规则文件。
+     */
+    private @Nullable KeepRules mKeepRules;
+    private ClasspathBindingCache mClasspathBindingCache;
 
     @Override
     public synchronized void init(ProcessingEnvironment processingEnvironment) {
@@ -61,25 +207,73 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
         mMessager = processingEnv.getMessager();
         mTypes = processingEnv.getTypeUtils();
         mElements = processingEnv.getElementUtils();
+        mClasspathBindingCache = new ClasspathBindingCache(mElements);
+
+        String index = processingEnv.getOptions().get(OPTION_INDEX);
+        if (index != null && !index.isEmpty()) {
+            mIndexClassName = ClassName.bestGuess(index);
+        }
+        mSinglePass = Boolean.parseBoolean(processingEnv.getOptions().get(OPTION_SINGLE_PASS));
+        mStaticBind = Boolean.parseBoolean(processingEnv.getOptions().get(OPTION_STATIC_BIND));
+        mUseMetadata = Boolean.parseBoolean(processingEnv.getOptions().get(OPTION_METADATA));
+        mBindingMetadata = new BindingMetadata(mFiler);
+        if (Boolean.parseBoolean(processingEnv.getOptions().get(OPTION_REPORT))) {
+            mReport = new ProcessorReport();
+        }
+        if (Boolean.parseBoolean(processingEnv.getOptions().get(OPTION_KEEP_RULES))) {
+            mKeepRules = new KeepRules();
+        }
+        String parallelism = processingEnv.getOptions().get(OPTION_PARALLELISM);
+        if (parallelism != null && !parallelism.isEmpty()) {
+            try {
+                mParallelism = Integer.parseInt(parallelism);
+            } catch (NumberFormatException e) {
+                error(null, "Option %s must be an integer: %s", OPTION_PARALLELISM, parallelism);
+            }
+        }
+        String maxMethodSize = processingEnv.getOptions().get(OPTION_MAX_METHOD_SIZE);
+        if (maxMethodSize != null && !maxMethodSize.isEmpty()) {
+            try {
+                mMaxMethodSize = Integer.parseInt(maxMethodSize);
+            } catch (NumberFormatException e) {
+                error(null, "Option %s must be an integer: %s", OPTION_MAX_METHOD_SIZE, maxMethodSize);
+            }
+        }
     }
 
     @Override
     public Set<String> getSupportedOptions() {
         // 支持的选项（key）。
-//        ImmutableSet.Builder<String> builder = ImmutableSet.builder();
-//        builder.add("HOST");
-//        return builder.build();
-        // 可在模块内的 build.gradle 配置，并在 init() 中通过 processingEnvironment.getOptions().get("HOST") 拿到具体的值。
+        // 可在模块内的 build.gradle 配置，并在 init() 中通过 processingEnvironment.getOptions().get("butterknife.index") 拿到具体的值。
         // android {
         //     defaultConfig {
         //        javaCompileOptions {
         //            annotationProcessorOptions {
-        //                arguments = ["HOST": "component"]
+        //                arguments = ["butterknife.index": "com.example.AppBindingIndex"]
         //            }
         //        }
         //    }
         //
-        return super.getSupportedOptions();
+        ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        builder.add(OPTION_INDEX);
+        builder.add(OPTION_SINGLE_PASS);
+        builder.add(OPTION_STATIC_BIND);
+        builder.add(OPTION_METADATA);
+        builder.add(OPTION_PARALLELISM);
+        builder.add(OPTION_REPORT);
+        builder.add(OPTION_LAYOUT_DIRS);
+        builder.add(OPTION_R_CLASS);
+        builder.add(OPTION_MAX_METHOD_SIZE);
+        builder.add(OPTION_KEEP_RULES);
+        // 每个 _ViewBinding 只依赖它的 target 类（以及 target 的父类），因此可以是 isolating 的；
+        // 而索引、元数据、构建报告和混淆规则依赖模块内所有的 target 类，生成它们时只能是 aggregating 的。
+        // 布局分析的结果取决于模块内所有的布局而不只是 target 类，同样只能是 aggregating 的。
+        // aggregating 并不会让 Gradle 追踪布局 XML，布局需要另外声明为 javac 任务的输入，见 OPTION_LAYOUT_DIRS。
+        String layoutDirs = processingEnv.getOptions().get(OPTION_LAYOUT_DIRS);
+        boolean analyzesLayouts = layoutDirs != null && !layoutDirs.isEmpty();
+        builder.add(mIndexClassName == null && !mUseMetadata && mReport == null && mKeepRules == null
+                && !analyzesLayouts ? GRADLE_ISOLATING : GRADLE_AGGREGATING);
+        return builder.build();
     }
 
     @Override
@@ -95,6 +289,13 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
     private Set<Class<? extends Annotation>> getSupportedAnnotations() {
         Set<Class<? extends Annotation>> annotations = new LinkedHashSet<>();
         annotations.add(BindView.class);
+        annotations.add(BindViews.class);
+        annotations.add(BindString.class);
+        annotations.add(BindColor.class);
+        annotations.add(BindDimen.class);
+        annotations.add(BindDrawable.class);
+        annotations.add(OnClick.class);
+        annotations.add(OnLongClick.class);
         return annotations;
     }
 
@@ -106,22 +307,186 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
 
     @Override
     public boolean process(Set<? extends TypeElement> set, RoundEnvironment env) {
+        mTypeHierarchy = new TypeHierarchy(mElements);
         Map<TypeElement, BindingSet> bindingMap = findAndParseTargets(env);
 
+        if (mParallelism > 1 && bindingMap.size() > 1) {
+            writeBindingsInParallel(bindingMap);
+        } else {
+            for (Map.Entry<TypeElement, BindingSet> entry : bindingMap.entrySet()) {
+                TypeElement typeElement = entry.getKey();
+                BindingSet binding = entry.getValue();
+
+                long start = System.nanoTime();
+                // 与并行写入相同，渲染为文本计入 BREW，WRITE 只包括写入 Filer，两种方式的耗时可以直接比较。
+                RenderedJavaFile rendered = new RenderedJavaFile(binding.brewJava(mSinglePass, mMaxMethodSize));
+                start = mPhaseTimer.add(PhaseTimer.Phase.BREW, start);
+                try {
+                    rendered.writeTo(mFiler);
+                    if (mReport != null) {
+                        mReport.addBinding(binding, rendered);
+                    }
+                    if (mKeepRules != null) {
+                        mKeepRules.addWritten(binding);
+                    }
+                } catch (IOException e) {
+                    error(typeElement, "Unable to write binding for type %s: %s", typeElement, e.getMessage());
+                }
+                mPhaseTimer.add(PhaseTimer.Phase.WRITE, start);
+            }
+        }
+
+        Set<BindingSet> indexed = writeIndex(bindingMap);
+        writeKeepRules(bindingMap, indexed, env.processingOver());
+        writeMetadata(bindingMap, env.processingOver());
+        writeReport(env.processingOver());
+
+        // 如果返回 true，则不会传递给后续处理器进行处理; 如果返回 false，则注释类型是无人认领的，后续的处理器可能会继续处理它们。
+        return false;
+    }
+
+    /**
+     * 并行执行 brewJava 并渲染为源码文本，再按 bindingMap 的顺序依次写入 Filer，
+     * 输出的内容和顺序与逐个 writeTo 完全一致。
+     */
+    private void writeBindingsInParallel(Map<TypeElement, BindingSet> bindingMap) {
+        final boolean singlePass = mSinglePass;
+        final int maxMethodSize = mMaxMethodSize;
+        List<ForkJoinTask<RenderedJavaFile>> tasks = new ArrayList<>(bindingMap.size());
+        List<RenderedJavaFile> files = new ArrayList<>(bindingMap.size());
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(mParallelism);
+        try {
+            for (final BindingSet binding : bindingMap.values()) {
+                tasks.add(pool.submit(new Callable<RenderedJavaFile>() {
+                    @Override
+                    public RenderedJavaFile call() {
+                        return new RenderedJavaFile(binding.brewJava(singlePass, maxMethodSize));
+                    }
+                }));
+            }
+            for (ForkJoinTask<RenderedJavaFile> task : tasks) {
+                files.add(task.join());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        start = mPhaseTimer.add(PhaseTimer.Phase.BREW, start);
+
+        int i = 0;
         for (Map.Entry<TypeElement, BindingSet> entry : bindingMap.entrySet()) {
             TypeElement typeElement = entry.getKey();
-            BindingSet binding = entry.getValue();
-
-            JavaFile javaFile = binding.brewJava();
+            RenderedJavaFile file = files.get(i++);
             try {
-                javaFile.writeTo(mFiler);
+                file.writeTo(mFiler);
+                if (mReport != null) {
+                    mReport.addBinding(entry.getValue(), file);
+                }
+                if (mKeepRules != null) {
+                    mKeepRules.addWritten(entry.getValue());
+                }
             } catch (IOException e) {
                 error(typeElement, "Unable to write binding for type %s: %s", typeElement, e.getMessage());
             }
         }
+        mPhaseTimer.add(PhaseTimer.Phase.WRITE, start);
+    }
 
-        // 如果返回 true，则不会传递给后续处理器进行处理; 如果返回 false，则注释类型是无人认领的，后续的处理器可能会继续处理它们。
-        return false;
+    /**
+     * 各阶段的累计耗时，供基准测试和构建报告使用。
+     */
+    PhaseTimer getPhaseTimer() {
+        return mPhaseTimer;
+    }
+
+    private void writeReport(boolean processingOver) {
+        if (mReport == null) {
+            return;
+        }
+        mReport.addRound();
+        if (!processingOver) {
+            return;
+        }
+        try {
+            mReport.write(mFiler, mPhaseTimer);
+        } catch (IOException e) {
+            error(null, "Unable to write processor report: %s", e.getMessage());
+        }
+    }
+
+    private void writeMetadata(Map<TypeElement, BindingSet> bindingMap, boolean processingOver) {
+        if (!mUseMetadata) {
+            return;
+        }
+        mMetadataBindings.addAll(bindingMap.values());
+        // 同一个包的元数据文件只能创建一次，因此等到最后一轮再统一写入。
+        if (!processingOver || mMetadataBindings.isEmpty()) {
+            return;
+        }
+        try {
+            BindingMetadata.write(mFiler, mMetadataBindings);
+        } catch (IOException e) {
+            error(null, "Unable to write binding metadata: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * @return 写入索引的绑定，没有生成索引时为空。
+     */
+    private Set<BindingSet> writeIndex(Map<TypeElement, BindingSet> bindingMap) {
+        if (mIndexClassName == null || bindingMap.isEmpty()) {
+            return Collections.emptySet();
+        }
+        if (mIndexWritten) {
+            // 索引已在之前的轮次中生成，后续轮次新增的绑定类只能通过反射查找，关闭反射回退后它们不会被绑定。
+            for (TypeElement typeElement : bindingMap.keySet()) {
+                warning(typeElement, "@%s bindings of %s were found after %s was generated "
+                                + "and are only reachable through reflection.",
+                        BindView.class.getSimpleName(), typeElement, mIndexClassName);
+            }
+            return Collections.emptySet();
+        }
+        // 非 public 的 target 通过所在包的辅助类写入索引，因此所有的绑定都在索引中。
+        ImmutableList<BindingSet> indexedBindings = ImmutableList.copyOf(bindingMap.values());
+        try {
+            for (JavaFile javaFile : new BindingIndexSet(mIndexClassName, indexedBindings).brewJava()) {
+                javaFile.writeTo(mFiler);
+            }
+        } catch (IOException e) {
+            error(null, "Unable to write binding index %s: %s", mIndexClassName, e.getMessage());
+            return Collections.emptySet();
+        }
+        mIndexWritten = true;
+        return ImmutableSet.copyOf(indexedBindings);
+    }
+
+    /**
+     * 规则文件只能创建一次，因此与元数据一样等到最后一轮再写入；写入前校验规则与实际生成的绑定类一致。
+     */
+    private void writeKeepRules(Map<TypeElement, BindingSet> bindingMap, Set<BindingSet> indexed,
+                                boolean processingOver) {
+        if (mKeepRules == null) {
+            return;
+        }
+        for (BindingSet binding : bindingMap.values()) {
+            mKeepRules.add(binding, indexed.contains(binding));
+        }
+        if (!processingOver || mKeepRules.isEmpty()) {
+            return;
+        }
+        String rendered = mKeepRules.render();
+        List<String> problems = mKeepRules.check(rendered);
+        if (!problems.isEmpty()) {
+            for (String problem : problems) {
+                error(null, "Inconsistent keep rules: %s", problem);
+            }
+            return;
+        }
+        try {
+            mKeepRules.write(mFiler, rendered);
+        } catch (IOException e) {
+            error(null, "Unable to write keep rules: %s", e.getMessage());
+        }
     }
 
     private Map<TypeElement, BindingSet> findAndParseTargets(RoundEnvironment env) {
@@ -132,6 +497,7 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
         // 所有被注解元素所在的类。
         Set<TypeElement> bindingTargetElements = new LinkedHashSet<>();
 
+        long start = System.nanoTime();
         // getElementsAnnotatedWith 可以拿到所有添加 @BindView 注解的元素。
         for (Element element : env.getElementsAnnotatedWith(BindView.class)) {
             try {
@@ -142,40 +508,201 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
             }
         }
 
+        for (Element element : env.getElementsAnnotatedWith(BindViews.class)) {
+            try {
+                parseBindViews(element, builderMap, bindingTargetElements);
+            } catch (Exception e) {
+                logParsingError(element, BindViews.class, e);
+            }
+        }
+
+        // 资源绑定只需要 Context。
+        for (Element element : env.getElementsAnnotatedWith(BindString.class)) {
+            try {
+                parseResource(element, BindString.class, element.getAnnotation(BindString.class).value(),
+                        builderMap, bindingTargetElements);
+            } catch (Exception e) {
+                logParsingError(element, BindString.class, e);
+            }
+        }
+        for (Element element : env.getElementsAnnotatedWith(BindColor.class)) {
+            try {
+                parseResource(element, BindColor.class, element.getAnnotation(BindColor.class).value(),
+                        builderMap, bindingTargetElements);
+            } catch (Exception e) {
+                logParsingError(element, BindColor.class, e);
+            }
+        }
+        for (Element element : env.getElementsAnnotatedWith(BindDimen.class)) {
+            try {
+                parseResource(element, BindDimen.class, element.getAnnotation(BindDimen.class).value(),
+                        builderMap, bindingTargetElements);
+            } catch (Exception e) {
+                logParsingError(element, BindDimen.class, e);
+            }
+        }
+        for (Element element : env.getElementsAnnotatedWith(BindDrawable.class)) {
+            try {
+                parseResource(element, BindDrawable.class, element.getAnnotation(BindDrawable.class).value(),
+                        builderMap, bindingTargetElements);
+            } catch (Exception e) {
+                logParsingError(element, BindDrawable.class, e);
+            }
+        }
+
+        // 监听方法，同一个类的所有方法共用一个监听器。
+        for (Element element : env.getElementsAnnotatedWith(OnClick.class)) {
+            try {
+                OnClick onClick = element.getAnnotation(OnClick.class);
+                parseMethod(element, OnClick.class, MethodViewBinding.Listener.CLICK, onClick.value(),
+                        onClick.debounce(), builderMap, bindingTargetElements);
+            } catch (Exception e) {
+                logParsingError(element, OnClick.class, e);
+            }
+        }
+        for (Element element : env.getElementsAnnotatedWith(OnLongClick.class)) {
+            try {
+                parseMethod(element, OnLongClick.class, MethodViewBinding.Listener.LONG_CLICK,
+                        element.getAnnotation(OnLongClick.class).value(), 0, builderMap, bindingTargetElements);
+            } catch (Exception e) {
+                logParsingError(element, OnLongClick.class, e);
+            }
+        }
+
         // 从 bindingTargetElements 中筛选出父类也是被注解元素所在的类。
         // key 为被注解元素所在的类且需要继承父类。
         // value 为父类的要求（是否需要传递参数 view）以及父类的类名。
-        Map<TypeElement, ClasspathBindingSet> classpathBindings = findAllSupertypeBindings(builderMap, bindingTargetElements);
+        LayoutAnalyzer layoutAnalyzer = getLayoutAnalyzer();
+        if (layoutAnalyzer != null) {
+            for (Map.Entry<TypeElement, BindingSet.Builder> entry : builderMap.entrySet()) {
+                analyzeLayouts(layoutAnalyzer, entry.getKey(), entry.getValue());
+            }
+        }
 
-        Deque<Map.Entry<TypeElement, BindingSet.Builder>> entries = new ArrayDeque<>(builderMap.entrySet());
-        Map<TypeElement, BindingSet> bindingMap = new LinkedHashMap<>();
-        while (!entries.isEmpty()) {
-            Map.Entry<TypeElement, BindingSet.Builder> entry = entries.removeFirst();
+        start = mPhaseTimer.add(PhaseTimer.Phase.PARSE, start);
+        BindingHierarchy<TypeElement> hierarchy = new BindingHierarchy<>(new SupertypeResolver(), mReport != null);
+        // 这里只会读取 target 的父类链，父类的信息对 target 而言总是可达的，不会破坏 isolating 增量编译：
+        // 增量编译时未改动的父类不在本轮中，会从 class 文件中读取注解（BindView 为 CLASS 级别，可以读到）。
+        Map<TypeElement, ClasspathBindingSet> classpathBindings =
+                hierarchy.findAllSupertypeBindings(builderMap.keySet(), bindingTargetElements);
+        start = mPhaseTimer.add(PhaseTimer.Phase.SUPERTYPES, start);
 
-            TypeElement type = entry.getKey();
-            BindingSet.Builder builder = entry.getValue();
+        Map<TypeElement, BindingSet> bindingMap =
+                hierarchy.build(builderMap, bindingTargetElements, classpathBindings);
 
-            TypeElement parentType = findParentType(type, bindingTargetElements, classpathBindings.keySet());
-            if (parentType == null) {
-                bindingMap.put(type, builder.build());
-            } else {
-                BindingInformationProvider parentBinding = bindingMap.get(parentType);
-                if (parentBinding == null) {
-                    parentBinding = classpathBindings.get(parentType);
-                }
-                if (parentBinding != null) {
-                    builder.setParent(parentBinding);
-                    bindingMap.put(type, builder.build());
-                } else {
-                    // 具有超类绑定，但我们尚未构建它。重新排队以便稍后使用。
-                    entries.addLast(entry);
-                }
+        mPhaseTimer.add(PhaseTimer.Phase.PARSE, start);
+        return bindingMap;
+    }
+
+
+    @Nullable
+    private LayoutAnalyzer getLayoutAnalyzer() {
+        if (mLayoutAnalyzerCreated) {
+            return mLayoutAnalyzer;
+        }
+        mLayoutAnalyzerCreated = true;
+        String layoutDirs = processingEnv.getOptions().get(OPTION_LAYOUT_DIRS);
+        String rClass = processingEnv.getOptions().get(OPTION_R_CLASS);
+        if (layoutDirs == null || layoutDirs.isEmpty() || rClass == null || rClass.isEmpty()) {
+            return null;
+        }
+        TypeElement idClass = mElements.getTypeElement(rClass + ".id");
+        if (idClass == null) {
+            warning(null, "Option %s is set but %s.id was not found, layout analysis is disabled.",
+                    OPTION_LAYOUT_DIRS, rClass);
+            return null;
+        }
+        // 只有常量才能用在注解中，因此通过常量值就能找到注解中 id 对应的名字。
+        Map<Integer, String> idNames = new HashMap<>();
+        for (Element field : idClass.getEnclosedElements()) {
+            if (field instanceof VariableElement
+                    && ((VariableElement) field).getConstantValue() instanceof Integer) {
+                idNames.put((Integer) ((VariableElement) field).getConstantValue(),
+                        field.getSimpleName().toString());
             }
         }
+        List<File> dirs = new ArrayList<>();
+        for (String dir : layoutDirs.split(File.pathSeparator)) {
+            if (!dir.isEmpty()) {
+                dirs.add(new File(dir));
+            }
+        }
+        mLayoutAnalyzer = new LayoutAnalyzer(dirs, idNames);
+        return mLayoutAnalyzer;
+    }
 
-        return bindingMap;
+    /**
+     * 验证 builder 中绑定的 id 在布局中存在且视图类型兼容；
+     * 所有视图都只出现在同一个布局中时，为它们设置从布局根视图开始的路径。
+     */
+    private void analyzeLayouts(LayoutAnalyzer layoutAnalyzer, TypeElement type,
+                                BindingSet.Builder builder) {
+        List<Integer> pathIds = new ArrayList<>();
+        boolean hasMismatch = false;
+        for (ViewBinding binding : builder.getViewBindings()) {
+            String idName = layoutAnalyzer.findIdName(binding.getId());
+            if (idName == null) {
+                // 不是本模块 R.id 中的 id（例如 android.R.id），无法分析。
+                continue;
+            }
+            List<LayoutAnalyzer.LayoutView> views = layoutAnalyzer.findViews(idName);
+            if (views.isEmpty()) {
+                warning(type, "@%s id R.id.%s is not declared in any layout. (%s.%s)",
+                        BindView.class.getSimpleName(), idName, type.getQualifiedName(),
+                        binding.getSampleName());
+                continue;
+            }
+            if (!isCompatibleWithLayouts(views, binding.getTypeName())) {
+                // 自定义的 LayoutInflater.Factory 也可能替换布局中的控件，因此只警告，不中断编译。
+                warning(type, "@%s field type %s is not compatible with R.id.%s in layout %s. (%s.%s)",
+                        BindView.class.getSimpleName(), binding.getTypeName(), idName,
+                        views.get(0).layout.getName(), type.getQualifiedName(), binding.getSampleName());
+                hasMismatch = true;
+                continue;
+            }
+            if (!binding.isLazy() && !binding.isInStub()) {
+                pathIds.add(binding.getId());
+            }
+        }
+        // 类型不一致时布局可能与运行时的视图树不同，不使用路径，退回到 findViewById。
+        if (!hasMismatch) {
+            builder.setLayoutPaths(layoutAnalyzer.findPaths(pathIds));
+        }
     }
 
+    /**
+     * 布局中至少有一处该 id 的视图类型是字段类型的子类型时返回 true，无法确定的类型视为兼容。
+     * 视图会被 ViewInflater 替换时，替换后的类型是字段类型的子类型也视为兼容，例如 &lt;Button&gt; 与 AppCompatButton。
+     */
+    private boolean isCompatibleWithLayouts(List<LayoutAnalyzer.LayoutView> views, TypeName fieldType) {
+        if (fieldType instanceof ParameterizedTypeName) {
+            ParameterizedTypeName parameterized = (ParameterizedTypeName) fieldType;
+            // LazyView<T> 比较的是 T。
+            fieldType = parameterized.rawType.toString().equals(LAZY_VIEW_TYPE)
+                    ? parameterized.typeArguments.get(0) : parameterized.rawType;
+        }
+        if (fieldType instanceof WildcardTypeName) {
+            fieldType = ((WildcardTypeName) fieldType).upperBounds.get(0);
+        }
+        if (!(fieldType instanceof ClassName)) {
+            return true;
+        }
+        String fieldTypeName = fieldType.toString();
+        for (LayoutAnalyzer.LayoutView view : views) {
+            TypeElement viewType = view.className != null ? mElements.getTypeElement(view.className) : null;
+            if (viewType == null || mTypeHierarchy.isSubtypeOfType(viewType.asType(), fieldTypeName)) {
+                return true;
+            }
+            for (String substitute : INFLATER_SUBSTITUTES.get(view.className)) {
+                TypeElement substituteType = mElements.getTypeElement(substitute);
+                if (substitute.equals(fieldTypeName) || substituteType != null
+                        && mTypeHierarchy.isSubtypeOfType(substituteType.asType(), fieldTypeName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
 
     private void parseBindView(Element element, Map<TypeElement, BindingSet.Builder> builderMap,
                                Set<TypeElement> bindingTargetElements) {
@@ -187,15 +714,37 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
         boolean hasError = isInaccessibleViaGeneratedCode(BindView.class, "fields", element)
                 || isBindingInWrongPackage(BindView.class, element);
 
+        BindView annotation = element.getAnnotation(BindView.class);
+        Name qualifiedName = enclosingElement.getQualifiedName();
+        Name simpleName = element.getSimpleName();
         TypeMirror elementType = element.asType();
+        if (annotation.lazy() && annotation.stub() != ViewBinding.NO_STUB) {
+            error(element, "@%s fields may not be both lazy and in a stub. (%s.%s)",
+                    BindView.class.getSimpleName(), qualifiedName, simpleName);
+            return;
+        }
+        if (annotation.lazy()) {
+            // 延迟绑定的字段类型为 LazyView<T>，之后验证的是 T。
+            if (!isLazyViewType(elementType)) {
+                error(element, "@%s(lazy = true) fields must be of type LazyView. (%s.%s)",
+                        BindView.class.getSimpleName(), qualifiedName, simpleName);
+                return;
+            }
+            List<? extends TypeMirror> typeArguments = ((DeclaredType) elementType).getTypeArguments();
+            elementType = typeArguments.isEmpty()
+                    ? mElements.getTypeElement(VIEW_TYPE).asType()
+                    : typeArguments.get(0);
+            if (elementType.getKind() == TypeKind.WILDCARD) {
+                TypeMirror extendsBound = ((WildcardType) elementType).getExtendsBound();
+                elementType = extendsBound != null ? extendsBound : mElements.getTypeElement(VIEW_TYPE).asType();
+            }
+        }
         if (elementType.getKind() == TypeKind.TYPEVAR) {
             TypeVariable typeVariable = (TypeVariable) elementType;
             elementType = typeVariable.getUpperBound();
         }
-        Name qualifiedName = enclosingElement.getQualifiedName();
-        Name simpleName = element.getSimpleName();
         // 验证 element 是否是 View 的子类。
-        if (!isSubtypeOfType(elementType, VIEW_TYPE) && !isInterface(elementType)) {
+        if (!mTypeHierarchy.isSubtypeOfType(elementType, VIEW_TYPE) && !isInterface(elementType)) {
             if (elementType.getKind() == TypeKind.ERROR) {
                 note(element, "@%s field with unresolved type (%s) "
                                 + "must elsewhere be generated as a View or interface. (%s.%s)",
@@ -212,7 +761,7 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
         }
 
         // 获取元素上注解的值。
-        int id = element.getAnnotation(BindView.class).value();
+        int id = annotation.value();
         BindingSet.Builder builder = builderMap.get(enclosingElement);
         if (builder != null) {
             String existingBindingName = builder.findExistingBindingName(id);
@@ -230,12 +779,230 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
         String sampleName = simpleName.toString();
         TypeName typeName = TypeName.get(elementType);
         boolean required = Utils.isFieldRequired(element);
-        builder.addField(id, new ViewBinding(id, sampleName, typeName, required));
+        builder.addField(id, new ViewBinding(id, sampleName, typeName, required, annotation.lazy(),
+                annotation.stub()));
 
         bindingTargetElements.add(enclosingElement);
     }
 
 
+    private void parseBindViews(Element element, Map<TypeElement, BindingSet.Builder> builderMap,
+                                Set<TypeElement> bindingTargetElements) {
+        TypeElement enclosingElement = (TypeElement) element.getEnclosingElement();
+
+        boolean hasError = isInaccessibleViaGeneratedCode(BindViews.class, "fields", element)
+                || isBindingInWrongPackage(BindViews.class, element);
+
+        Name qualifiedName = enclosingElement.getQualifiedName();
+        Name simpleName = element.getSimpleName();
+        // 字段类型只能是数组或者 List，之后验证的是元素类型。
+        TypeMirror elementType = element.asType();
+        FieldCollectionViewBinding.Kind kind;
+        if (elementType.getKind() == TypeKind.ARRAY) {
+            elementType = ((ArrayType) elementType).getComponentType();
+            kind = FieldCollectionViewBinding.Kind.ARRAY;
+        } else if (isListType(elementType)) {
+            List<? extends TypeMirror> typeArguments = ((DeclaredType) elementType).getTypeArguments();
+            if (typeArguments.size() != 1) {
+                error(element, "@%s List must have a generic component. (%s.%s)",
+                        BindViews.class.getSimpleName(), qualifiedName, simpleName);
+                return;
+            }
+            elementType = typeArguments.get(0);
+            if (elementType.getKind() == TypeKind.WILDCARD) {
+                TypeMirror extendsBound = ((WildcardType) elementType).getExtendsBound();
+                elementType = extendsBound != null ? extendsBound : mElements.getTypeElement(VIEW_TYPE).asType();
+            }
+            kind = FieldCollectionViewBinding.Kind.LIST;
+        } else {
+            error(element, "@%s must be a List or array. (%s.%s)",
+                    BindViews.class.getSimpleName(), qualifiedName, simpleName);
+            return;
+        }
+        // 生成代码需要创建元素类型的数组，因此不支持类型变量。
+        if (elementType.getKind() != TypeKind.DECLARED && elementType.getKind() != TypeKind.ERROR) {
+            error(element, "@%s type must be a View or interface, not a type variable. (%s.%s)",
+                    BindViews.class.getSimpleName(), qualifiedName, simpleName);
+            return;
+        }
+        if (!mTypeHierarchy.isSubtypeOfType(elementType, VIEW_TYPE) && !isInterface(elementType)) {
+            if (elementType.getKind() == TypeKind.ERROR) {
+                note(element, "@%s List or array with unresolved type (%s) "
+                                + "must elsewhere be generated as a View or interface. (%s.%s)",
+                        BindViews.class.getSimpleName(), elementType, qualifiedName, simpleName);
+            } else {
+                error(element, "@%s List or array type must extend from View or be an interface. (%s.%s)",
+                        BindViews.class.getSimpleName(), qualifiedName, simpleName);
+                hasError = true;
+            }
+        }
+
+        int[] ids = element.getAnnotation(BindViews.class).value();
+        if (ids.length == 0) {
+            error(element, "@%s must specify at least one ID. (%s.%s)",
+                    BindViews.class.getSimpleName(), qualifiedName, simpleName);
+            hasError = true;
+        }
+        Set<Integer> seenIds = new HashSet<>();
+        for (int id : ids) {
+            if (!seenIds.add(id)) {
+                error(element, "@%s annotation contains duplicate ID %d. (%s.%s)",
+                        BindViews.class.getSimpleName(), id, qualifiedName, simpleName);
+                hasError = true;
+            }
+        }
+
+        if (hasError) {
+            return;
+        }
+
+        TypeName elementTypeName = TypeName.get(elementType);
+        if (elementTypeName instanceof ParameterizedTypeName) {
+            // 不能创建泛型数组。
+            elementTypeName = ((ParameterizedTypeName) elementTypeName).rawType;
+        }
+        getOrCreateBindingBuilder(builderMap, enclosingElement).addFieldCollection(
+                new FieldCollectionViewBinding(simpleName.toString(), elementTypeName, kind, ids));
+
+        bindingTargetElements.add(enclosingElement);
+    }
+
+    private void parseResource(Element element, Class<? extends Annotation> annotationClass, int id,
+                               Map<TypeElement, BindingSet.Builder> builderMap,
+                               Set<TypeElement> bindingTargetElements) {
+        TypeElement enclosingElement = (TypeElement) element.getEnclosingElement();
+
+        boolean hasError = isInaccessibleViaGeneratedCode(annotationClass, "fields", element)
+                || isBindingInWrongPackage(annotationClass, element);
+
+        // 根据注解和字段类型确定读取资源的方式。
+        TypeMirror elementType = element.asType();
+        FieldResourceBinding.Type type = null;
+        String expectedType;
+        if (annotationClass == BindString.class) {
+            expectedType = "String";
+            if (isDeclaredType(elementType, STRING_TYPE)) {
+                type = FieldResourceBinding.Type.STRING;
+            }
+        } else if (annotationClass == BindColor.class) {
+            expectedType = "int";
+            if (elementType.getKind() == TypeKind.INT) {
+                type = FieldResourceBinding.Type.COLOR;
+            }
+        } else if (annotationClass == BindDimen.class) {
+            expectedType = "int (for pixel size) or float (for exact value)";
+            if (elementType.getKind() == TypeKind.INT) {
+                type = FieldResourceBinding.Type.DIMEN_AS_INT;
+            } else if (elementType.getKind() == TypeKind.FLOAT) {
+                type = FieldResourceBinding.Type.DIMEN_AS_FLOAT;
+            }
+        } else {
+            expectedType = "Drawable";
+            if (isDeclaredType(elementType, DRAWABLE_TYPE)) {
+                type = FieldResourceBinding.Type.DRAWABLE;
+            }
+        }
+        if (type == null) {
+            error(element, "@%s field type must be '%s'. (%s.%s)",
+                    annotationClass.getSimpleName(), expectedType, enclosingElement.getQualifiedName(),
+                    element.getSimpleName());
+            hasError = true;
+        }
+
+        if (hasError) {
+            return;
+        }
+
+        getOrCreateBindingBuilder(builderMap, enclosingElement).addResource(
+                new FieldResourceBinding(id, element.getSimpleName().toString(), type));
+
+        bindingTargetElements.add(enclosingElement);
+    }
+
+    private void parseMethod(Element element, Class<? extends Annotation> annotationClass,
+                             MethodViewBinding.Listener listener, int[] ids, long debounceMillis,
+                             Map<TypeElement, BindingSet.Builder> builderMap,
+                             Set<TypeElement> bindingTargetElements) {
+        if (!(element instanceof ExecutableElement) || element.getKind() != ElementKind.METHOD) {
+            throw new IllegalStateException(
+                    String.format("@%s annotation must be on a method.", annotationClass.getSimpleName()));
+        }
+        ExecutableElement executableElement = (ExecutableElement) element;
+        TypeElement enclosingElement = (TypeElement) element.getEnclosingElement();
+        Name qualifiedName = enclosingElement.getQualifiedName();
+        Name simpleName = element.getSimpleName();
+
+        boolean hasError = isInaccessibleViaGeneratedCode(annotationClass, "methods", element)
+                || isBindingInWrongPackage(annotationClass, element);
+
+        if (ids.length == 0) {
+            error(element, "@%s must specify at least one ID. (%s.%s)",
+                    annotationClass.getSimpleName(), qualifiedName, simpleName);
+            hasError = true;
+        }
+        Set<Integer> seenIds = new HashSet<>();
+        for (int id : ids) {
+            if (!seenIds.add(id)) {
+                error(element, "@%s annotation contains duplicate ID %d. (%s.%s)",
+                        annotationClass.getSimpleName(), id, qualifiedName, simpleName);
+                hasError = true;
+            }
+        }
+        if (debounceMillis < 0) {
+            error(element, "@%s debounce must not be negative. (%s.%s)",
+                    annotationClass.getSimpleName(), qualifiedName, simpleName);
+            hasError = true;
+        }
+
+        // 参数只能没有，或者是一个 View（及其子类、接口），生成代码会把回调的 View 转换为该类型。
+        List<? extends VariableElement> parameters = executableElement.getParameters();
+        TypeName parameterType = null;
+        if (parameters.size() > 1) {
+            error(element, "@%s methods can have at most 1 parameter. (%s.%s)",
+                    annotationClass.getSimpleName(), qualifiedName, simpleName);
+            hasError = true;
+        } else if (parameters.size() == 1) {
+            TypeMirror type = parameters.get(0).asType();
+            if (type.getKind() == TypeKind.TYPEVAR) {
+                type = ((TypeVariable) type).getUpperBound();
+            }
+            if (!mTypeHierarchy.isSubtypeOfType(type, VIEW_TYPE) && !isInterface(type)) {
+                error(element, "@%s method parameter must extend from View or be an interface. (%s.%s)",
+                        annotationClass.getSimpleName(), qualifiedName, simpleName);
+                hasError = true;
+            } else {
+                parameterType = TypeName.get(type);
+            }
+        }
+
+        // 点击方法只能返回 void，长按方法可以返回 boolean 表示是否消费了事件。
+        TypeKind returnKind = executableElement.getReturnType().getKind();
+        boolean returnsBoolean = returnKind == TypeKind.BOOLEAN;
+        if (returnKind != TypeKind.VOID
+                && !(returnsBoolean && listener == MethodViewBinding.Listener.LONG_CLICK)) {
+            error(element, "@%s methods must have a '%s' return type. (%s.%s)",
+                    annotationClass.getSimpleName(),
+                    listener == MethodViewBinding.Listener.LONG_CLICK ? "boolean' or 'void" : "void",
+                    qualifiedName, simpleName);
+            hasError = true;
+        }
+
+        if (hasError) {
+            return;
+        }
+
+        String existing = getOrCreateBindingBuilder(builderMap, enclosingElement).addMethod(
+                new MethodViewBinding(simpleName.toString(), listener, ids, parameterType, returnsBoolean,
+                        debounceMillis));
+        if (existing != null) {
+            error(element, "Multiple @%s methods bound to the same ID in %s: %s and %s.",
+                    annotationClass.getSimpleName(), qualifiedName, existing, simpleName);
+            return;
+        }
+
+        bindingTargetElements.add(enclosingElement);
+    }
+
     private boolean isInaccessibleViaGeneratedCode(Class<? extends Annotation> annotationClass,
                                                    String targetThing, Element element) {
         boolean hasError = false;
@@ -290,121 +1057,151 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
         return false;
     }
 
-    static boolean isSubtypeOfType(TypeMirror typeMirror, String otherType) {
-        if (otherType.equals(typeMirror.toString())) {
-            return true;
-        }
-        if (typeMirror.getKind() != TypeKind.DECLARED) {
-            return false;
+    /**
+     * 通过 javac 的 API 为 {@link BindingHierarchy} 提供父类以及 classpath 中的绑定信息。
+     */
+    private final class SupertypeResolver implements BindingHierarchy.Types<TypeElement> {
+        // 获取所有支持的注解。
+        private final Set<Class<? extends Annotation>> supportedAnnotations = getSupportedAnnotations();
+        // 所有需要在构造函数传参 View 的注解。
+        private final Set<Class<? extends Annotation>> requireViewInConstructor =
+                ImmutableSet.<Class<? extends Annotation>>builder()
+                        .add(BindView.class)
+                        .add(BindViews.class)
+                        .add(OnClick.class)
+                        .add(OnLongClick.class)
+                        .build();
+
+        SupertypeResolver() {
+            // 剩下的注解只需要向父类传参 context。
+            supportedAnnotations.removeAll(requireViewInConstructor);
         }
-        DeclaredType declaredType = (DeclaredType) typeMirror;
-        List<? extends TypeMirror> typeArguments = declaredType.getTypeArguments();
-        if (typeArguments.size() > 0) {
-            StringBuilder typeString = new StringBuilder(declaredType.asElement().toString());
-            typeString.append('<');
-            for (int i = 0; i < typeArguments.size(); i++) {
-                if (i > 0) {
-                    typeString.append(',');
-                }
-                typeString.append('?');
-            }
-            typeString.append('>');
-            if (typeString.toString().equals(otherType)) {
-                return true;
+
+        @Nullable
+        @Override
+        public TypeElement getSuperclass(TypeElement type) {
+            TypeElement superclass = getSuperClass(type);
+            if (superclass == null) {
+                return null;
             }
+            // framework 中的类不允许有绑定（见 isBindingInWrongPackage），不必再扫描它们以及它们的父类。
+            String qualifiedName = superclass.getQualifiedName().toString();
+            return qualifiedName.startsWith("android.") || qualifiedName.startsWith("java.") ? null : superclass;
         }
-        Element element = declaredType.asElement();
-        if (!(element instanceof TypeElement)) {
-            return false;
-        }
-        TypeElement typeElement = (TypeElement) element;
-        TypeMirror superType = typeElement.getSuperclass();
-        if (isSubtypeOfType(superType, otherType)) {
-            return true;
+
+        @Nullable
+        @Override
+        public ClasspathBindingSet findClasspathBinding(TypeElement type, boolean parentNeedsView) {
+            return findBindingInfoForType(type, requireViewInConstructor, supportedAnnotations, parentNeedsView);
         }
-        for (TypeMirror interfaceType : typeElement.getInterfaces()) {
-            if (isSubtypeOfType(interfaceType, otherType)) {
-                return true;
-            }
+
+        @Override
+        public void unresolvedParent(TypeElement child, TypeElement parent) {
+            error(child, "Unable to resolve parent binding %s for %s.",
+                    parent.getQualifiedName(), child.getQualifiedName());
         }
-        return false;
     }
 
-
-    private Map<TypeElement, ClasspathBindingSet> findAllSupertypeBindings(
-            Map<TypeElement, BindingSet.Builder> builderMap, Set<TypeElement> processedInThisRound) {
-        Map<TypeElement, ClasspathBindingSet> classpathBindings = new HashMap<>();
-        // 获取所有支持的注解。
-        Set<Class<? extends Annotation>> supportedAnnotations = getSupportedAnnotations();
-        // 所有需要在构造函数传参 View 的注解。
-        Set<Class<? extends Annotation>> requireViewInConstructor =
-                ImmutableSet.<Class<? extends Annotation>>builder().add(BindView.class).build();
-        // 剩下的注解只需要向父类传参 context。
-        supportedAnnotations.removeAll(requireViewInConstructor);
-
-        // typeElement 为被注解元素所在的类。
-        for (TypeElement typeElement : builderMap.keySet()) {
-            // 确保在子类之前处理超类，因为父类的构造函数参数需要子类提供。
-            // superClasses 存储着需要继承父类的类元素。
-            Deque<TypeElement> superClasses = new ArrayDeque<>();
-            TypeElement superClass = getSuperClass(typeElement);
-            while (superClass != null && !processedInThisRound.contains(superClass)
-                    && !classpathBindings.containsKey(superClass)) {
-                // 逐级添加存在绑定的父类到队列的头部，直至最终的父类。
-                // 这样能保证在有多重继承关系的类之间，父类一定在子类的前面。
-                superClasses.addFirst(superClass);
-                superClass = getSuperClass(superClass);
-            }
-
-            // 标记着父类的构造函数是否需要参数 View。
-            boolean parentHasConstructorWithView = false;
-            while (!superClasses.isEmpty()) {
-                TypeElement superclass = superClasses.removeFirst();
-                // 查找 superclass 的父类的要求以及类名。
-                ClasspathBindingSet classpathBinding =
-                        findBindingInfoForType(superclass, requireViewInConstructor, supportedAnnotations,
-                                parentHasConstructorWithView);
-                if (classpathBinding != null) {
-                    // superclass 父类的要求，它的所有子类也必须要提供。
-                    parentHasConstructorWithView |= classpathBinding.constructorNeedsView();
-                    classpathBindings.put(superclass, classpathBinding);
-                }
-            }
-        }
-        return ImmutableMap.copyOf(classpathBindings);
+    /**
+     * 本次编译中实际扫描了成员的父类数量。
+     */
+    int getClasspathScanCount() {
+        return mClasspathBindingCache.getScanCount();
     }
 
     private ClasspathBindingSet findBindingInfoForType(
             TypeElement typeElement, Set<Class<? extends Annotation>> requireConstructorWithView,
             Set<Class<? extends Annotation>> otherAnnotations, boolean needsConstructorWithView) {
+        // 父类大多来自稳定的依赖库，扫描结果跨轮次缓存，JDK 18 及以上还会跨编译缓存。
+        ClasspathBindingCache.Bindings bindings = mClasspathBindingCache.get(typeElement);
+        if (bindings == null) {
+            // 开启元数据并且依赖库输出了元数据时直接读取，否则遍历成员查找注解。
+            bindings = mUseMetadata ? mBindingMetadata.find(typeElement) : null;
+        }
+        if (bindings == null) {
+            bindings = scanBindingsForType(typeElement, requireConstructorWithView, otherAnnotations);
+            mClasspathBindingCache.put(typeElement, bindings);
+        }
+        switch (bindings) {
+            case REQUIRE_VIEW:
+                return new ClasspathBindingSet(true, hasStaticBindMethod(typeElement),
+                        hasListenerMethod(typeElement, "onClick"), hasListenerMethod(typeElement, "onLongClick"),
+                        ClassName.get(typeElement));
+            case CONTEXT_ONLY:
+                return new ClasspathBindingSet(needsConstructorWithView, hasStaticBindMethod(typeElement),
+                        hasListenerMethod(typeElement, "onClick"), hasListenerMethod(typeElement, "onLongClick"),
+                        ClassName.get(typeElement));
+            default:
+                return null;
+        }
+    }
+
+    private ClasspathBindingCache.Bindings scanBindingsForType(
+            TypeElement typeElement, Set<Class<? extends Annotation>> requireConstructorWithView,
+            Set<Class<? extends Annotation>> otherAnnotations) {
         boolean foundSupportedAnnotation = false;
         for (Element enclosedElement : typeElement.getEnclosedElements()) {
             for (Class<? extends Annotation> bindViewAnnotation : requireConstructorWithView) {
                 if (enclosedElement.getAnnotation(bindViewAnnotation) != null) {
-                    return new ClasspathBindingSet(true, typeElement);
+                    return ClasspathBindingCache.Bindings.REQUIRE_VIEW;
                 }
             }
             for (Class<? extends Annotation> supportedAnnotation : otherAnnotations) {
                 if (enclosedElement.getAnnotation(supportedAnnotation) != null) {
-                    if (needsConstructorWithView) {
-                        return new ClasspathBindingSet(true, typeElement);
-                    }
                     foundSupportedAnnotation = true;
                 }
             }
         }
-        if (foundSupportedAnnotation) {
-            return new ClasspathBindingSet(false, typeElement);
-        } else {
-            return null;
+        return foundSupportedAnnotation
+                ? ClasspathBindingCache.Bindings.CONTEXT_ONLY
+                : ClasspathBindingCache.Bindings.NONE;
+    }
+
+    /**
+     * 依赖库中的父类绑定类是否生成了静态方法 bind，只有开启静态绑定时才需要检查。
+     */
+    private boolean hasStaticBindMethod(TypeElement typeElement) {
+        if (!mStaticBind) {
+            return false;
+        }
+        TypeElement bindingClass =
+                mElements.getTypeElement(BindingSet.getBindingClassName(ClassName.get(typeElement)).toString());
+        if (bindingClass == null) {
+            return false;
+        }
+        for (Element enclosed : bindingClass.getEnclosedElements()) {
+            if (enclosed.getKind() == ElementKind.METHOD && enclosed.getModifiers().contains(STATIC)
+                    && enclosed.getSimpleName().contentEquals("bind")) {
+                return true;
+            }
         }
+        return false;
+    }
+
+    /**
+     * 依赖库中的父类绑定类（或者它的父类）是否已经实现了对应的监听方法，子类的绑定类需要覆写而不是重新实现接口。
+     */
+    private boolean hasListenerMethod(TypeElement typeElement, String methodName) {
+        TypeElement bindingClass =
+                mElements.getTypeElement(BindingSet.getBindingClassName(ClassName.get(typeElement)).toString());
+        if (bindingClass == null) {
+            return false;
+        }
+        for (Element member : mElements.getAllMembers(bindingClass)) {
+            if (member.getKind() == ElementKind.METHOD && member.getSimpleName().contentEquals(methodName)
+                    && ((ExecutableElement) member).getParameters().size() == 1) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private BindingSet.Builder getOrCreateBindingBuilder(
             Map<TypeElement, BindingSet.Builder> builderMap, TypeElement enclosingElement) {
         BindingSet.Builder builder = builderMap.get(enclosingElement);
         if (builder == null) {
-            builder = BindingSet.newBuilder(enclosingElement);
+            builder = BindingSet.newBuilder(new JavacTargetType(enclosingElement, mTypeHierarchy));
+            builder.setStaticBind(mStaticBind);
             builderMap.put(enclosingElement, builder);
         }
         return builder;
@@ -417,15 +1214,18 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
         error(element, "Unable to parse @%s binding.\n\n%s", annotation.getSimpleName(), stackTrace);
     }
 
-    @Nullable
-    private TypeElement findParentType(TypeElement typeElement, Set<TypeElement> parents, Set<TypeElement> classpathParents) {
-        while (true) {
-            typeElement = getSuperClass(typeElement);
-            if (typeElement == null || parents.contains(typeElement)
-                    || classpathParents.contains(typeElement)) {
-                return typeElement;
-            }
-        }
+    private boolean isDeclaredType(TypeMirror typeMirror, String qualifiedName) {
+        return typeMirror.getKind() == TypeKind.DECLARED
+                && ((TypeElement) ((DeclaredType) typeMirror).asElement()).getQualifiedName()
+                .contentEquals(qualifiedName);
+    }
+
+    private boolean isListType(TypeMirror typeMirror) {
+        return isDeclaredType(typeMirror, List.class.getCanonicalName());
+    }
+
+    private boolean isLazyViewType(TypeMirror typeMirror) {
+        return isDeclaredType(typeMirror, LAZY_VIEW_TYPE);
     }
 
     private boolean isInterface(TypeMirror typeMirror) {
@@ -446,6 +1246,10 @@ public final class ButterKnifeProcessor extends AbstractProcessor {
         printMessage(Diagnostic.Kind.NOTE, element, message, args);
     }
 
+    private void warning(Element element, String message, Object... args) {
+        printMessage(Diagnostic.Kind.WARNING, element, message, args);
+    }
+
     private void error(Element element, String message, Object... args) {
         printMessage(Diagnostic.Kind.ERROR, element, message, args);
     }
@@ -0,0 +1,220 @@
+package me.paasin.butterknife.compiler;
+
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.JavaFileObject;
+
+/**
+ * 缓存父类中是否存在绑定注解，避免每次都遍历父类的 getEnclosedElements() 并反射读取注解。
+ * <p>
+ * 本次编译中的所有类型都缓存在实例中，跨轮次有效；来自 class 文件（例如依赖库的 jar）的类型
+ * 还会缓存在静态的 {@link #SHARED} 中，只要 Gradle 守护进程复用了处理器的类加载器，
+ * 之后的编译就不必再扫描未改动的父类。
+ * <p>
+ * 共享缓存以全类名为 key，并校验类所在的 classpath 条目：jar 中的类校验 jar 文件的路径、大小和修改时间，
+ * 目录中的类校验 class 文件本身的路径、大小和修改时间。jar 中条目的修改时间会被 Gradle 和 AGP 归一化，
+ * 但重新构建的 jar 文件本身的修改时间会变化。
+ * <p>
+ * class 文件的位置只能通过 JDK 18 开始才有的 Elements.getFileObjectOf(Element) 得到。更早的 JDK 中只能通过
+ * Filer 读取 classpath，而 isolating 模式下 Gradle 只允许通过 Filer 读取 CLASS_OUTPUT 和 SOURCE_OUTPUT，
+ * 因此不使用共享缓存，只在本次编译中缓存。
+ */
+final class ClasspathBindingCache {
+    enum Bindings {
+        /**
+         * 没有任何绑定注解。
+         */
+        NONE,
+        /**
+         * 存在需要在构造函数中传入 View 的注解。
+         */
+        REQUIRE_VIEW,
+        /**
+         * 只存在需要 Context 的注解。
+         */
+        CONTEXT_ONLY
+    }
+
+    /**
+     * 共享缓存的最大条目数，超过后移除最久未使用的条目，避免守护进程中的缓存无限增长。
+     */
+    private static final int MAX_SHARED_ENTRIES = 2048;
+
+    private static final Map<String, SharedEntry> SHARED = Collections.synchronizedMap(
+            new LinkedHashMap<String, SharedEntry>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, SharedEntry> eldest) {
+                    return size() > MAX_SHARED_ENTRIES;
+                }
+            });
+
+    /**
+     * JDK 18 开始才有的公开 API：Elements.getFileObjectOf(Element)，只查找一次，不存在时为 null。
+     */
+    @Nullable
+    private static final Method GET_FILE_OBJECT_OF = findGetFileObjectOf();
+
+    private final Elements elements;
+    private final Map<TypeElement, Bindings> local = new HashMap<>();
+    /**
+     * 本次编译中已经查找过的类所在的 classpath 条目，get 与 put 共用，无法确定时 value 为 null。
+     */
+    private final Map<TypeElement, ClasspathEntry> entries = new HashMap<>();
+    private int scanCount;
+
+    ClasspathBindingCache(Elements elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * 当前的 JDK 是否支持跨编译的共享缓存。
+     */
+    static boolean isSharedCacheSupported() {
+        return GET_FILE_OBJECT_OF != null;
+    }
+
+    @Nullable
+    Bindings get(TypeElement typeElement) {
+        Bindings bindings = local.get(typeElement);
+        if (bindings != null || GET_FILE_OBJECT_OF == null) {
+            return bindings;
+        }
+        ClasspathEntry entry = getEntry(typeElement);
+        if (entry == null) {
+            return null;
+        }
+        SharedEntry shared = SHARED.get(typeElement.getQualifiedName().toString());
+        if (shared == null || !shared.entry.equals(entry)) {
+            return null;
+        }
+        local.put(typeElement, shared.bindings);
+        return shared.bindings;
+    }
+
+    /**
+     * 记录扫描 typeElement 的成员得到的结果。
+     */
+    void put(TypeElement typeElement, Bindings bindings) {
+        scanCount++;
+        local.put(typeElement, bindings);
+        if (GET_FILE_OBJECT_OF == null) {
+            return;
+        }
+        ClasspathEntry entry = getEntry(typeElement);
+        if (entry != null) {
+            SHARED.put(typeElement.getQualifiedName().toString(), new SharedEntry(entry, bindings));
+        }
+    }
+
+    /**
+     * 本次编译中缓存没有命中、实际扫描了成员的类型数量。
+     */
+    int getScanCount() {
+        return scanCount;
+    }
+
+    /**
+     * 返回 typeElement 所在的 classpath 条目；来自源码或者无法确定时返回 null，此时不做跨编译缓存。
+     */
+    @Nullable
+    private ClasspathEntry getEntry(TypeElement typeElement) {
+        if (entries.containsKey(typeElement)) {
+            return entries.get(typeElement);
+        }
+        ClasspathEntry entry = null;
+        try {
+            Object fileObject = GET_FILE_OBJECT_OF.invoke(elements, typeElement);
+            if (fileObject instanceof JavaFileObject
+                    && ((JavaFileObject) fileObject).getKind() == JavaFileObject.Kind.CLASS) {
+                entry = ClasspathEntry.of(((JavaFileObject) fileObject).toUri());
+            }
+        } catch (Exception ignored) {
+        }
+        entries.put(typeElement, entry);
+        return entry;
+    }
+
+    @Nullable
+    private static Method findGetFileObjectOf() {
+        try {
+            return Elements.class.getMethod("getFileObjectOf", Element.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * jar 中的类为 jar 文件，目录中的类为 class 文件本身，以及它的大小和修改时间。
+     */
+    private static final class ClasspathEntry {
+        private final String path;
+        private final long size;
+        private final long lastModified;
+
+        private ClasspathEntry(String path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * @param classUri jar:file:/libs/base.jar!/com/example/Base.class 或者 file:/classes/com/example/Base.class。
+         */
+        @Nullable
+        static ClasspathEntry of(URI classUri) {
+            URI fileUri = classUri;
+            if ("jar".equals(classUri.getScheme())) {
+                String path = classUri.getRawSchemeSpecificPart();
+                int separator = path.indexOf("!/");
+                if (separator < 0) {
+                    return null;
+                }
+                fileUri = URI.create(path.substring(0, separator));
+            }
+            if (!"file".equals(fileUri.getScheme())) {
+                return null;
+            }
+            File file = new File(fileUri);
+            long lastModified = file.lastModified();
+            if (lastModified == 0) {
+                return null;
+            }
+            return new ClasspathEntry(file.getPath(), file.length(), lastModified);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ClasspathEntry)) {
+                return false;
+            }
+            ClasspathEntry other = (ClasspathEntry) o;
+            return size == other.size && lastModified == other.lastModified && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode();
+        }
+    }
+
+    private static final class SharedEntry {
+        private final ClasspathEntry entry;
+        private final Bindings bindings;
+
+        SharedEntry(ClasspathEntry entry, Bindings bindings) {
+            this.entry = entry;
+            this.bindings = bindings;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package me.paasin.butterknife.compiler;
+
+import com.squareup.javapoet.ClassName;
+
+/**
+ * classpath 中已经编译好的父类的绑定信息，从父类的注解中读取，不会为它生成代码。
+ */
+final class ClasspathBindingSet implements BindingInformationProvider {
+    private boolean constructorNeedsView;
+    private boolean hasStaticBind;
+    private boolean hasClickListener;
+    private boolean hasLongClickListener;
+    private ClassName className;
+
+    ClasspathBindingSet(boolean constructorNeedsView, boolean hasStaticBind, boolean hasClickListener,
+                        boolean hasLongClickListener, ClassName targetClassName) {
+        this.constructorNeedsView = constructorNeedsView;
+        this.hasStaticBind = hasStaticBind;
+        this.hasClickListener = hasClickListener;
+        this.hasLongClickListener = hasLongClickListener;
+        this.className = BindingSet.getBindingClassName(targetClassName);
+    }
+
+    @Override
+    public ClassName getBindingClassName() {
+        return className;
+    }
+
+    @Override
+    public boolean constructorNeedsView() {
+        return constructorNeedsView;
+    }
+
+    @Override
+    public boolean hasStaticBind() {
+        return hasStaticBind;
+    }
+
+    @Override
+    public boolean hasClickListener() {
+        return hasClickListener;
+    }
+
+    @Override
+    public boolean hasLongClickListener() {
+        return hasLongClickListener;
+    }
+}
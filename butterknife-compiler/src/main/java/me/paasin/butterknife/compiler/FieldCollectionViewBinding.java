@@ -0,0 +1,44 @@
+package me.paasin.butterknife.compiler;
+
+import com.squareup.javapoet.TypeName;
+
+/**
+ * {@code @BindViews} 字段的绑定信息。
+ */
+final class FieldCollectionViewBinding {
+    enum Kind {
+        ARRAY,
+        LIST
+    }
+
+    private final String sampleName;
+    private final TypeName elementTypeName;
+    private final Kind kind;
+    private final int[] ids;
+
+    FieldCollectionViewBinding(String sampleName, TypeName elementTypeName, Kind kind, int[] ids) {
+        this.sampleName = sampleName;
+        this.elementTypeName = elementTypeName;
+        this.kind = kind;
+        this.ids = ids;
+    }
+
+    public String getSampleName() {
+        return sampleName;
+    }
+
+    /**
+     * 数组或者 List 元素的类型，生成代码中用它创建数组。
+     */
+    public TypeName getElementTypeName() {
+        return elementTypeName;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int[] getIds() {
+        return ids;
+    }
+}
@@ -0,0 +1,45 @@
+package me.paasin.butterknife.compiler;
+
+/**
+ * {@code @BindString}、{@code @BindColor}、{@code @BindDimen}、{@code @BindDrawable} 字段的绑定信息。
+ */
+final class FieldResourceBinding {
+    enum Type {
+        STRING("getString"),
+        COLOR("getColor"),
+        DIMEN_AS_FLOAT("getDimension"),
+        DIMEN_AS_INT("getDimensionPixelSize"),
+        DRAWABLE("getDrawable");
+
+        /**
+         * 生成代码中调用的 ResourceCache 方法。
+         */
+        final String cacheMethod;
+
+        Type(String cacheMethod) {
+            this.cacheMethod = cacheMethod;
+        }
+    }
+
+    private final int id;
+    private final String sampleName;
+    private final Type type;
+
+    FieldResourceBinding(int id, String sampleName, Type type) {
+        this.id = id;
+        this.sampleName = sampleName;
+        this.type = type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getSampleName() {
+        return sampleName;
+    }
+
+    public Type getType() {
+        return type;
+    }
+}
@@ -0,0 +1,84 @@
+package me.paasin.butterknife.compiler;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+
+import static me.paasin.butterknife.compiler.ButterKnifeProcessor.ACTIVITY_TYPE;
+import static me.paasin.butterknife.compiler.ButterKnifeProcessor.DIALOG_TYPE;
+import static me.paasin.butterknife.compiler.ButterKnifeProcessor.VIEW_TYPE;
+
+/**
+ * 基于 TypeElement 的目标类。
+ */
+final class JavacTargetType implements TargetType {
+    private final TypeElement element;
+    private final ClassName className;
+    private final boolean isFinal;
+    private final boolean isPublic;
+    private final boolean isView;
+    private final boolean isActivity;
+    private final boolean isDialog;
+
+    JavacTargetType(TypeElement element, TypeHierarchy typeHierarchy) {
+        this.element = element;
+        // 根据绑定的元素，解析生成文件所需要的信息。
+        TypeMirror typeMirror = element.asType();
+        isView = typeHierarchy.isSubtypeOfType(typeMirror, VIEW_TYPE);
+        isActivity = typeHierarchy.isSubtypeOfType(typeMirror, ACTIVITY_TYPE);
+        isDialog = typeHierarchy.isSubtypeOfType(typeMirror, DIALOG_TYPE);
+        // 泛型类使用原始类型。
+        className = ClassName.get(element);
+        isFinal = element.getModifiers().contains(Modifier.FINAL);
+        isPublic = isPublicInAllEnclosingTypes(element);
+    }
+
+    private static boolean isPublicInAllEnclosingTypes(Element element) {
+        while (element instanceof TypeElement) {
+            if (!element.getModifiers().contains(Modifier.PUBLIC)) {
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    @Override
+    public ClassName getClassName() {
+        return className;
+    }
+
+    @Override
+    public boolean isFinal() {
+        return isFinal;
+    }
+
+    @Override
+    public boolean isPublic() {
+        return isPublic;
+    }
+
+    @Override
+    public boolean isView() {
+        return isView;
+    }
+
+    @Override
+    public boolean isActivity() {
+        return isActivity;
+    }
+
+    @Override
+    public boolean isDialog() {
+        return isDialog;
+    }
+
+    @Override
+    public void addOriginatingElements(TypeSpec.Builder type) {
+        type.addOriginatingElement(element);
+    }
+}
@@ -0,0 +1,156 @@
+package me.paasin.butterknife.compiler;
+
+import com.squareup.javapoet.ClassName;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.Filer;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * 只保留运行时通过反射查找的绑定类的 R8/ProGuard 规则，随 class 一起输出到 {@value #DIRECTORY}，
+ * 作为 consumer 规则被 R8 读取：
+ * <pre>
+ * -keepnames class com.example.DemoActivity
+ * -keep class com.example.DemoActivity_ViewBinding {
+ *     public &lt;init&gt;(com.example.DemoActivity, android.view.View);
+ * }
+ * </pre>
+ * 反射按 target 的类名拼接出绑定类名，因此 target 只保留类名，仍然允许被移除和优化；
+ * 绑定类只保留 (Target, View) 构造函数，生成了静态方法时再保留 bind(Target, View)。
+ * 已经写入索引的绑定类通过索引直接创建，不需要任何规则。
+ * <p>
+ * 注意 R8 只从依赖的 jar（包括库模块打包出的 jar/aar）中的 {@value #DIRECTORY} 读取规则，
+ * 应用模块自己的 javac 输出目录中的规则不会被读取。应用模块中的绑定类要么写入索引，
+ * 要么在 proguardFiles 中手动引用生成的规则文件。
+ */
+final class KeepRules {
+    static final String DIRECTORY = "META-INF/proguard/";
+    private static final String KEEP_BINDING = "-keep class ";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * key 为绑定类的全类名，value 为它的规则。
+     */
+    private final Map<String, String> rules = new LinkedHashMap<>();
+    /**
+     * 写入索引的绑定类的全类名。
+     */
+    private final Set<String> indexedBindings = new LinkedHashSet<>();
+    /**
+     * 所有轮次中实际写入的绑定类的全类名，用于校验规则。
+     */
+    private final Set<String> writtenBindings = new LinkedHashSet<>();
+    private final Set<String> packages = new LinkedHashSet<>();
+
+    /**
+     * 记录一个已经通过 Filer 写入的绑定类。
+     */
+    void addWritten(BindingSet binding) {
+        writtenBindings.add(binding.getBindingClassName().reflectionName());
+    }
+
+    /**
+     * 为一个绑定类生成规则，indexed 为 true 时它写入了索引，不需要规则。
+     */
+    void add(BindingSet binding, boolean indexed) {
+        ClassName bindingClassName = binding.getBindingClassName();
+        String bindingName = bindingClassName.reflectionName();
+        packages.add(bindingClassName.packageName());
+        if (indexed) {
+            indexedBindings.add(bindingName);
+            return;
+        }
+        String targetName = binding.getTarget().getClassName().reflectionName();
+        StringBuilder rule = new StringBuilder()
+                .append("-keepnames class ").append(targetName).append('\n')
+                .append(KEEP_BINDING).append(bindingName).append(" {\n")
+                .append("    public <init>(").append(targetName).append(", android.view.View);\n");
+        if (binding.hasStaticBind()) {
+            rule.append("    public static void bind(").append(targetName).append(", android.view.View);\n");
+        }
+        rule.append("}\n");
+        rules.put(bindingName, rule.toString());
+    }
+
+    boolean isEmpty() {
+        return packages.isEmpty();
+    }
+
+    /**
+     * 规则文件名由所有绑定类的公共包名得出，不同模块输出的规则不会互相覆盖。
+     */
+    String getFileName() {
+        String common = null;
+        for (String packageName : packages) {
+            if (common == null) {
+                common = packageName;
+                continue;
+            }
+            while (!common.isEmpty() && !packageName.equals(common) && !packageName.startsWith(common + ".")) {
+                int dot = common.lastIndexOf('.');
+                common = dot < 0 ? "" : common.substring(0, dot);
+            }
+        }
+        return common == null || common.isEmpty() ? "butterknife.pro" : "butterknife-" + common + ".pro";
+    }
+
+    String render() {
+        StringBuilder content = new StringBuilder("# Generated code from Butter Knife. Do not modify!\n");
+        for (String rule : rules.values()) {
+            content.append(rule);
+        }
+        return content.toString();
+    }
+
+    /**
+     * 从渲染后的规则中解析出被保留的绑定类，与 Filer 实际写入的绑定类比较：
+     * 每个不在索引中的绑定类都必须有且只有一条规则，规则中也不能出现没有生成的类。
+     *
+     * @return 不一致的描述，一致时为空。
+     */
+    List<String> check(String rendered) {
+        List<String> problems = new ArrayList<>();
+        Set<String> kept = new LinkedHashSet<>();
+        for (String line : rendered.split("\n")) {
+            if (!line.startsWith(KEEP_BINDING)) {
+                continue;
+            }
+            String bindingName = line.substring(KEEP_BINDING.length(), line.indexOf(' ', KEEP_BINDING.length()));
+            if (!kept.add(bindingName)) {
+                problems.add("Duplicate keep rule for " + bindingName);
+            }
+        }
+        for (String bindingName : writtenBindings) {
+            boolean indexed = indexedBindings.contains(bindingName);
+            if (!indexed && !kept.contains(bindingName)) {
+                problems.add("Missing keep rule for " + bindingName);
+            } else if (indexed && kept.contains(bindingName)) {
+                problems.add("Unnecessary keep rule for indexed " + bindingName);
+            }
+        }
+        for (String bindingName : kept) {
+            if (!writtenBindings.contains(bindingName)) {
+                problems.add("Keep rule for " + bindingName + " which was not generated");
+            }
+        }
+        return problems;
+    }
+
+    void write(Filer filer, String rendered) throws IOException {
+        FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", DIRECTORY + getFileName());
+        try (Writer writer = new OutputStreamWriter(file.openOutputStream(), UTF_8)) {
+            writer.write(rendered);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package me.paasin.butterknife.compiler;
+
+import androidx.annotation.Nullable;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+/**
+ * 解析模块的布局 XML，找出每个 id 所在的布局、视图类型以及从布局根视图到它的子视图下标路径。
+ * <p>
+ * 布局中的 id 是名字，注解中的 id 是整数，二者通过 R.id 中的常量对应。
+ * 布局目录需要声明为 javac 任务的输入，否则只修改布局时不会重新分析，见 {@link ButterKnifeProcessor#OPTION_LAYOUT_DIRS}。
+ */
+final class LayoutAnalyzer {
+    private static final String ANDROID_NS = "http://schemas.android.com/apk/res/android";
+
+    /**
+     * 布局中出现的一个带 id 的视图。
+     */
+    static final class LayoutView {
+        final File layout;
+        final String idName;
+        /**
+         * 视图的全类名，无法确定时为 null。
+         */
+        final @Nullable String className;
+        /**
+         * 从布局根视图开始的子视图下标，无法确定时为 null。
+         */
+        final @Nullable int[] path;
+
+        LayoutView(File layout, String idName, @Nullable String className, @Nullable int[] path) {
+            this.layout = layout;
+            this.idName = idName;
+            this.className = className;
+            this.path = path;
+        }
+    }
+
+    /**
+     * 一个 target 在布局中的路径：先通过根视图的 id 找到布局根视图，再按路径逐级 getChildAt。
+     */
+    static final class LayoutPaths {
+        final int rootId;
+        final Map<Integer, int[]> paths;
+
+        LayoutPaths(int rootId, Map<Integer, int[]> paths) {
+            this.rootId = rootId;
+            this.paths = paths;
+        }
+    }
+
+    private final List<File> layoutDirs;
+    private final Map<Integer, String> idNames;
+    private final Map<String, Integer> ids;
+    /**
+     * key 为 id 的名字，value 为所有布局中该 id 的视图。
+     */
+    private @Nullable Map<String, List<LayoutView>> views;
+    /**
+     * key 为布局文件，value 为布局根视图的 id 名字，根视图没有 id 时为 null。
+     */
+    private final Map<File, String> rootIds = new HashMap<>();
+
+    /**
+     * @param layoutDirs 布局目录（layout、layout-land 等）或者包含它们的 res 目录。
+     * @param idNames    R.id 中的常量值到名字的映射。
+     */
+    LayoutAnalyzer(List<File> layoutDirs, Map<Integer, String> idNames) {
+        this.layoutDirs = layoutDirs;
+        this.idNames = idNames;
+        this.ids = new HashMap<>();
+        for (Map.Entry<Integer, String> entry : idNames.entrySet()) {
+            ids.put(entry.getValue(), entry.getKey());
+        }
+    }
+
+    @Nullable
+    String findIdName(int id) {
+        return idNames.get(id);
+    }
+
+    /**
+     * 所有布局中 id 为 idName 的视图，没有时返回空列表。
+     */
+    List<LayoutView> findViews(String idName) {
+        List<LayoutView> result = getViews().get(idName);
+        return result != null ? result : Collections.<LayoutView>emptyList();
+    }
+
+    /**
+     * 当 viewIds 全部只出现在唯一一个布局中、路径都可以确定且布局根视图有 id 时返回它们的路径，否则返回 null。
+     */
+    @Nullable
+    LayoutPaths findPaths(Collection<Integer> viewIds) {
+        if (viewIds.isEmpty()) {
+            return null;
+        }
+        File layout = null;
+        Map<Integer, int[]> paths = new LinkedHashMap<>();
+        for (int id : viewIds) {
+            String idName = idNames.get(id);
+            if (idName == null) {
+                return null;
+            }
+            List<LayoutView> occurrences = findViews(idName);
+            // 出现在多个布局（包括不同配置的同名布局）或者同一布局的多个位置时，无法确定路径。
+            if (occurrences.size() != 1) {
+                return null;
+            }
+            LayoutView view = occurrences.get(0);
+            if (view.path == null || (layout != null && !layout.equals(view.layout))) {
+                return null;
+            }
+            layout = view.layout;
+            paths.put(id, view.path);
+        }
+        String rootIdName = rootIds.get(layout);
+        Integer rootId = rootIdName != null ? ids.get(rootIdName) : null;
+        if (rootId == null) {
+            return null;
+        }
+        return new LayoutPaths(rootId, paths);
+    }
+
+    private Map<String, List<LayoutView>> getViews() {
+        if (views == null) {
+            views = new HashMap<>();
+            try {
+                DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+                factory.setNamespaceAware(true);
+                DocumentBuilder builder = factory.newDocumentBuilder();
+                for (File layout : findLayoutFiles()) {
+                    parseLayout(builder, layout);
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException("Unable to parse layouts: " + e.getMessage(), e);
+            }
+        }
+        return views;
+    }
+
+    private List<File> findLayoutFiles() {
+        List<File> files = new ArrayList<>();
+        for (File dir : layoutDirs) {
+            if (dir.getName().startsWith("layout")) {
+                addXmlFiles(dir, files);
+            } else {
+                // res 目录，查找其中的 layout* 目录。
+                File[] children = dir.listFiles();
+                if (children == null) {
+                    continue;
+                }
+                Arrays.sort(children);
+                for (File child : children) {
+                    if (child.isDirectory() && child.getName().startsWith("layout")) {
+                        addXmlFiles(child, files);
+                    }
+                }
+            }
+        }
+        return files;
+    }
+
+    private static void addXmlFiles(File dir, List<File> files) {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        Arrays.sort(children);
+        for (File child : children) {
+            if (child.isFile() && child.getName().endsWith(".xml")) {
+                files.add(child);
+            }
+        }
+    }
+
+    private void parseLayout(DocumentBuilder builder, File layout) throws Exception {
+        Document document = builder.parse(layout);
+        Element root = document.getDocumentElement();
+        String tag = root.getTagName();
+        // merge 的子视图会直接添加到父布局中，data binding 的 layout 会被改写，都无法确定路径。
+        boolean reliable = !"merge".equals(tag) && !"layout".equals(tag);
+        rootIds.put(layout, reliable ? getIdName(root) : null);
+        visit(layout, root, reliable ? new int[0] : null);
+    }
+
+    private void visit(File layout, Element element, @Nullable int[] path) {
+        String idName = getIdName(element);
+        if (idName != null) {
+            List<LayoutView> list = views.get(idName);
+            if (list == null) {
+                list = new ArrayList<>();
+                views.put(idName, list);
+            }
+            list.add(new LayoutView(layout, idName, getClassName(element), path));
+        }
+        // include 引用的布局可能是 merge，其后兄弟视图的下标无法确定。
+        boolean reliable = path != null;
+        int index = 0;
+        NodeList children = element.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node node = children.item(i);
+            if (!(node instanceof Element)) {
+                continue;
+            }
+            Element child = (Element) node;
+            String tag = child.getTagName();
+            if ("requestFocus".equals(tag) || "tag".equals(tag)) {
+                // 这两个标签不会创建视图。
+                continue;
+            }
+            int[] childPath = null;
+            if (reliable) {
+                childPath = Arrays.copyOf(path, path.length + 1);
+                childPath[path.length] = index;
+            }
+            visit(layout, child, childPath);
+            if ("include".equals(tag)) {
+                reliable = false;
+            }
+            index++;
+        }
+    }
+
+    @Nullable
+    private static String getIdName(Element element) {
+        String id = element.getAttributeNS(ANDROID_NS, "id");
+        if (id.isEmpty()) {
+            id = element.getAttribute("android:id");
+        }
+        int slash = id.indexOf('/');
+        if (!id.startsWith("@") || slash < 0 || id.startsWith("@android:")) {
+            return null;
+        }
+        return id.substring(slash + 1);
+    }
+
+    @Nullable
+    private static String getClassName(Element element) {
+        String tag = element.getTagName();
+        switch (tag) {
+            case "include":
+            case "merge":
+            case "fragment":
+            case "layout":
+                return null;
+            case "view":
+                String className = element.getAttribute("class");
+                return className.isEmpty() ? null : className;
+            case "View":
+            case "ViewStub":
+            case "SurfaceView":
+            case "TextureView":
+                return "android.view." + tag;
+            case "WebView":
+                return "android.webkit." + tag;
+            default:
+                return tag.indexOf('.') >= 0 ? tag : "android.widget." + tag;
+        }
+    }
+}
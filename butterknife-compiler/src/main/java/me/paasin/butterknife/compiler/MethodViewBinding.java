@@ -0,0 +1,63 @@
+package me.paasin.butterknife.compiler;
+
+import androidx.annotation.Nullable;
+
+import com.squareup.javapoet.TypeName;
+
+/**
+ * {@code @OnClick}、{@code @OnLongClick} 方法的绑定信息。
+ */
+final class MethodViewBinding {
+    enum Listener {
+        CLICK,
+        LONG_CLICK
+    }
+
+    private final String name;
+    private final Listener listener;
+    private final int[] ids;
+    private final @Nullable TypeName parameterType;
+    private final boolean returnsBoolean;
+    private final long debounceMillis;
+
+    /**
+     * @param parameterType 方法没有参数时为 null。
+     */
+    MethodViewBinding(String name, Listener listener, int[] ids, @Nullable TypeName parameterType,
+                      boolean returnsBoolean, long debounceMillis) {
+        this.name = name;
+        this.listener = listener;
+        this.ids = ids;
+        this.parameterType = parameterType;
+        this.returnsBoolean = returnsBoolean;
+        this.debounceMillis = debounceMillis;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Listener getListener() {
+        return listener;
+    }
+
+    public int[] getIds() {
+        return ids;
+    }
+
+    @Nullable
+    public TypeName getParameterType() {
+        return parameterType;
+    }
+
+    /**
+     * 长按方法返回 boolean 时为 true，此时返回值即是否消费了事件。
+     */
+    public boolean returnsBoolean() {
+        return returnsBoolean;
+    }
+
+    public long getDebounceMillis() {
+        return debounceMillis;
+    }
+}
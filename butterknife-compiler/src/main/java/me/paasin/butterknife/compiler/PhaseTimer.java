@@ -0,0 +1,40 @@
+package me.paasin.butterknife.compiler;
+
+/**
+ * 累计 {@link ButterKnifeProcessor#process} 中每个阶段的耗时（纳秒），跨轮次累加。
+ */
+final class PhaseTimer {
+    enum Phase {
+        /**
+         * findAndParseTargets 中解析注解的部分，不包括 SUPERTYPES。
+         */
+        PARSE,
+        /**
+         * findAllSupertypeBindings。
+         */
+        SUPERTYPES,
+        /**
+         * BindingSet.brewJava 以及把结果渲染为源码文本，开启并行时计入整批并行执行的实际耗时。
+         */
+        BREW,
+        /**
+         * 把渲染好的源码写入 Filer。
+         */
+        WRITE
+    }
+
+    private final long[] nanos = new long[Phase.values().length];
+
+    /**
+     * 将 startNanos 到现在的耗时计入 phase，并返回现在的时间，方便连续计时。
+     */
+    long add(Phase phase, long startNanos) {
+        long now = System.nanoTime();
+        nanos[phase.ordinal()] += now - startNanos;
+        return now;
+    }
+
+    long get(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+}
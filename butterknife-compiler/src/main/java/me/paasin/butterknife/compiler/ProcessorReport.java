@@ -0,0 +1,128 @@
+package me.paasin.butterknife.compiler;
+
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.processing.Filer;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * 处理器的构建报告，开启 "butterknife.report" 后在最后一轮写入生成源码目录下的 {@value #FILE_NAME}：
+ * <pre>
+ * {
+ *   "rounds": 2,
+ *   "phases": {"parseNanos": 1200000, "supertypesNanos": 300000, "brewNanos": 900000, "writeNanos": 400000},
+ *   "bindings": [
+ *     {
+ *       "target": "com.example.DemoActivity",
+ *       "binding": "com.example.DemoActivity_ViewBinding",
+ *       "fields": 2,
+ *       "parentDepth": 1,
+ *       "sourceBytes": 1536,
+ *       "methods": [
+ *         {"name": "&lt;init&gt;", "estimatedBytes": 8, "sourceLines": 1},
+ *         {"name": "bindViews", "estimatedBytes": 28, "sourceLines": 2}
+ *       ]
+ *     }
+ *   ]
+ * }
+ * </pre>
+ * methods 中的 estimatedBytes 是按 {@link BindingSet#estimateBytecodeSize} 估算的字节码大小，
+ * 与 "butterknife.maxMethodSize" 使用相同的估算，可以用来选择该选项的值；
+ * sourceLines 是生成的 Java 方法体的行数。二者都不是编译产物中的实际大小，实际大小需要查看编译产物（例如 apkanalyzer）。
+ */
+final class ProcessorReport {
+    static final String FILE_NAME = "butterknife-report.json";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final List<String> bindings = new ArrayList<>();
+    private int rounds;
+
+    void addRound() {
+        rounds++;
+    }
+
+    /**
+     * @param file 与写入 Filer 的内容相同的渲染结果。
+     */
+    void addBinding(BindingSet binding, RenderedJavaFile file) {
+        JavaFile javaFile = file.getJavaFile();
+        StringBuilder json = new StringBuilder("    {\n");
+        json.append("      \"target\": ")
+                .append(quote(binding.getTarget().getClassName().reflectionName())).append(",\n");
+        json.append("      \"binding\": ")
+                .append(quote(binding.getBindingClassName().reflectionName())).append(",\n");
+        json.append("      \"fields\": ").append(binding.getFieldCount()).append(",\n");
+        json.append("      \"parentDepth\": ").append(binding.getParentDepth()).append(",\n");
+        json.append("      \"sourceBytes\": ").append(file.getSourceBytes()).append(",\n");
+        json.append("      \"methods\": [");
+        boolean first = true;
+        for (MethodSpec method : javaFile.typeSpec.methodSpecs) {
+            json.append(first ? "\n" : ",\n")
+                    .append("        {\"name\": ").append(quote(method.name))
+                    .append(", \"estimatedBytes\": ").append(BindingSet.estimateBytecodeSize(method))
+                    .append(", \"sourceLines\": ").append(countLines(method.code.toString())).append('}');
+            first = false;
+        }
+        json.append(first ? "]\n    }" : "\n      ]\n    }");
+        bindings.add(json.toString());
+    }
+
+    void write(Filer filer, PhaseTimer timer) throws IOException {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"rounds\": ").append(rounds).append(",\n");
+        json.append("  \"phases\": {");
+        boolean first = true;
+        for (PhaseTimer.Phase phase : PhaseTimer.Phase.values()) {
+            json.append(first ? "" : ", ")
+                    .append(quote(phase.name().toLowerCase() + "Nanos")).append(": ").append(timer.get(phase));
+            first = false;
+        }
+        json.append("},\n");
+        json.append("  \"bindings\": [");
+        for (int i = 0; i < bindings.size(); i++) {
+            json.append(i == 0 ? "\n" : ",\n").append(bindings.get(i));
+        }
+        json.append(bindings.isEmpty() ? "]\n" : "\n  ]\n");
+        json.append("}\n");
+
+        // 报告不对应任何源文件，只能在最后一轮创建一次。
+        FileObject file = filer.createResource(StandardLocation.SOURCE_OUTPUT, "", FILE_NAME);
+        try (Writer writer = new OutputStreamWriter(file.openOutputStream(), UTF_8)) {
+            writer.write(json.toString());
+        }
+    }
+
+    private static int countLines(String code) {
+        int lines = 0;
+        for (int i = 0; i < code.length(); i++) {
+            if (code.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static String quote(String value) {
+        StringBuilder result = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                result.append('\\').append(c);
+            } else if (c < 0x20) {
+                result.append(String.format("\\u%04x", (int) c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.append('"').toString();
+    }
+}
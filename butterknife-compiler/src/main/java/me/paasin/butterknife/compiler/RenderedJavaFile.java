@@ -0,0 +1,55 @@
+package me.paasin.butterknife.compiler;
+
+import com.squareup.javapoet.JavaFile;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.tools.JavaFileObject;
+
+/**
+ * 已经渲染为文本的 JavaFile。渲染可以在任意线程中进行，写入 Filer 必须在处理器线程中进行。
+ */
+final class RenderedJavaFile {
+    private final JavaFile javaFile;
+    private final String qualifiedName;
+    private final Element[] originatingElements;
+    private final String source;
+
+    RenderedJavaFile(JavaFile javaFile) {
+        this.javaFile = javaFile;
+        this.qualifiedName = javaFile.packageName.isEmpty()
+                ? javaFile.typeSpec.name
+                : javaFile.packageName + "." + javaFile.typeSpec.name;
+        this.originatingElements = javaFile.typeSpec.originatingElements.toArray(new Element[0]);
+        // 与 JavaFile.writeTo(Filer) 写入的内容相同。
+        this.source = javaFile.toString();
+    }
+
+    JavaFile getJavaFile() {
+        return javaFile;
+    }
+
+    /**
+     * 源码按 UTF-8 编码后的字节数。
+     */
+    int getSourceBytes() {
+        return source.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    void writeTo(Filer filer) throws IOException {
+        JavaFileObject file = filer.createSourceFile(qualifiedName, originatingElements);
+        try (Writer writer = file.openWriter()) {
+            writer.write(source);
+        } catch (IOException e) {
+            try {
+                file.delete();
+            } catch (Exception ignored) {
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package me.paasin.butterknife.compiler;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.TypeSpec;
+
+/**
+ * 绑定的目标类。BindingSet 只通过它了解目标类，与 javax.lang.model 和 KSP 无关，
+ * javac 的实现见 {@link JavacTargetType}。
+ */
+interface TargetType {
+    /**
+     * 目标类的类名，泛型类为原始类型。
+     */
+    ClassName getClassName();
+
+    boolean isFinal();
+
+    /**
+     * 目标类以及它的所有外部类都是 public 时返回 true，此时才能在其他包中引用。
+     */
+    boolean isPublic();
+
+    boolean isView();
+
+    boolean isActivity();
+
+    boolean isDialog();
+
+    /**
+     * 为生成的绑定类声明来源元素，javac 的 Filer 据此处理增量编译；KSP 通过 Dependencies 声明，不需要处理。
+     */
+    void addOriginatingElements(TypeSpec.Builder type);
+}
@@ -0,0 +1,94 @@
+package me.paasin.butterknife.compiler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+
+/**
+ * 类型继承关系的索引，每轮处理创建一个。
+ * <p>
+ * 缓存每个 (类型, 父类型) 的判断结果，并直接比较 TypeElement 而不是 toString() 的结果，
+ * 同一个类的父类和接口只会被遍历一次。
+ */
+final class TypeHierarchy {
+    private final Elements elements;
+    /**
+     * key 为父类型的全类名，value 为对应的元素，找不到时为 null。
+     */
+    private final Map<String, TypeElement> supertypeElements = new HashMap<>();
+    /**
+     * key 为父类型，value 为每个类型是否是它的子类型。
+     */
+    private final Map<TypeElement, Map<TypeElement, Boolean>> subtypeCache = new HashMap<>();
+
+    TypeHierarchy(Elements elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * typeMirror 是 otherType 或者是它的子类型（包括实现了该接口）时返回 true。
+     *
+     * @param otherType 父类型的全类名，例如 "android.view.View"。
+     */
+    boolean isSubtypeOfType(TypeMirror typeMirror, String otherType) {
+        if (typeMirror.getKind() != TypeKind.DECLARED) {
+            // 无法解析的类型只能比较名字。
+            return typeMirror.getKind() == TypeKind.ERROR && otherType.equals(typeMirror.toString());
+        }
+        TypeElement supertype = getSupertypeElement(otherType);
+        if (supertype == null) {
+            return false;
+        }
+        Element element = ((DeclaredType) typeMirror).asElement();
+        return element instanceof TypeElement && isSubtypeOf((TypeElement) element, supertype);
+    }
+
+    private TypeElement getSupertypeElement(String name) {
+        if (supertypeElements.containsKey(name)) {
+            return supertypeElements.get(name);
+        }
+        TypeElement element = elements.getTypeElement(name);
+        supertypeElements.put(name, element);
+        return element;
+    }
+
+    private boolean isSubtypeOf(TypeElement typeElement, TypeElement supertype) {
+        if (typeElement.equals(supertype)) {
+            return true;
+        }
+        Map<TypeElement, Boolean> cache = subtypeCache.get(supertype);
+        if (cache == null) {
+            cache = new HashMap<>();
+            subtypeCache.put(supertype, cache);
+        }
+        Boolean cached = cache.get(typeElement);
+        if (cached != null) {
+            return cached;
+        }
+        boolean result = isDeclaredSubtypeOf(typeElement.getSuperclass(), supertype);
+        if (!result) {
+            for (TypeMirror interfaceType : typeElement.getInterfaces()) {
+                if (isDeclaredSubtypeOf(interfaceType, supertype)) {
+                    result = true;
+                    break;
+                }
+            }
+        }
+        cache.put(typeElement, result);
+        return result;
+    }
+
+    private boolean isDeclaredSubtypeOf(TypeMirror typeMirror, TypeElement supertype) {
+        if (typeMirror.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        Element element = ((DeclaredType) typeMirror).asElement();
+        return element instanceof TypeElement && isSubtypeOf((TypeElement) element, supertype);
+    }
+}
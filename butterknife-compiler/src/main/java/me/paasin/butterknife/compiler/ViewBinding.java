@@ -3,16 +3,23 @@ package me.paasin.butterknife.compiler;
 import com.squareup.javapoet.TypeName;
 
 final class ViewBinding {
+    static final int NO_STUB = -1;
+
     private final int id;
     private final String sampleName;
     private final TypeName typeName;
     private final boolean required;
+    private final boolean lazy;
+    private final int stubId;
 
-    public ViewBinding(int id, String sampleName, TypeName typeName, boolean required) {
+    public ViewBinding(int id, String sampleName, TypeName typeName, boolean required, boolean lazy,
+                       int stubId) {
         this.id = id;
         this.sampleName = sampleName;
         this.typeName = typeName;
         this.required = required;
+        this.lazy = lazy;
+        this.stubId = stubId;
     }
 
     public int getId() {
@@ -31,4 +38,22 @@ final class ViewBinding {
         return required;
     }
 
+    /**
+     * 字段类型为 LazyView，第一次访问时才查找视图。此时 typeName 为 LazyView 的类型参数。
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * 视图所在 ViewStub 的 id，不在 ViewStub 中时为 {@link #NO_STUB}。
+     */
+    public int getStubId() {
+        return stubId;
+    }
+
+    public boolean isInStub() {
+        return stubId != NO_STUB;
+    }
+
 }
@@ -0,0 +1,163 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.testing.compile.JavaFileObjects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+
+/**
+ * 测试用的 Android framework 以及 butterknife-api 的桩类，只包含生成的绑定类用到的成员。
+ * 视图可以按 id 组成视图树，生成的绑定类可以通过 {@link CompiledClasses#classLoader} 加载后直接运行。
+ */
+final class AndroidSources {
+    private static final String[][] STUBS = {
+            {"android.content.Context",
+                    "public class Context {"
+                            + " public android.content.res.Resources getResources() { return null; } }"},
+            {"android.content.res.Resources", "public class Resources {}"},
+            {"android.graphics.drawable.Drawable", "public class Drawable {}"},
+            {"android.os.SystemClock",
+                    "public final class SystemClock {"
+                            // 测试中直接修改当前时间。
+                            + " public static long now;"
+                            + " public static long uptimeMillis() { return now; } }"},
+            {"android.view.View",
+                    "public class View {"
+                            + " public interface OnClickListener { void onClick(View v); }"
+                            + " public interface OnLongClickListener { boolean onLongClick(View v); }"
+                            + " public static final int NO_ID = -1;"
+                            + " private final int id;"
+                            + " private OnClickListener onClickListener;"
+                            + " private OnLongClickListener onLongClickListener;"
+                            + " private final java.util.List<View> children = new java.util.ArrayList<>();"
+                            + " public View() { this(NO_ID); }"
+                            + " public View(int id) { this.id = id; }"
+                            + " public int getId() { return id; }"
+                            + " public View addView(View child) { children.add(child); return this; }"
+                            + " public View findViewById(int id) {"
+                            + "   if (this.id == id) return this;"
+                            + "   for (View child : children) {"
+                            + "     View view = child.findViewById(id);"
+                            + "     if (view != null) return view;"
+                            + "   }"
+                            + "   return null; }"
+                            + " public void setOnClickListener(OnClickListener l) { onClickListener = l; }"
+                            + " public void setOnLongClickListener(OnLongClickListener l) { onLongClickListener = l; }"
+                            + " public boolean performClick() {"
+                            + "   if (onClickListener == null) return false;"
+                            + "   onClickListener.onClick(this); return true; }"
+                            + " public boolean performLongClick() {"
+                            + "   return onLongClickListener != null && onLongClickListener.onLongClick(this); }"
+                            + " public android.content.Context getContext() { return null; } }"},
+            {"android.view.ViewStub",
+                    "public class ViewStub extends View {"
+                            + " public interface OnInflateListener { void onInflate(ViewStub stub, View inflated); }"
+                            + " private OnInflateListener listener;"
+                            + " public ViewStub(int id) { super(id); }"
+                            + " public void setOnInflateListener(OnInflateListener listener) {"
+                            + "   this.listener = listener; }"
+                            // 代替真实的 inflate()，inflated 为布局 inflate 得到的视图。
+                            + " public void inflate(View inflated) {"
+                            + "   if (listener != null) listener.onInflate(this, inflated); } }"},
+            {"android.view.Window", "public class Window { public View getDecorView() { return null; } }"},
+            {"android.widget.TextView",
+                    "public class TextView extends android.view.View {"
+                            + " public TextView() {}"
+                            + " public TextView(int id) { super(id); } }"},
+            {"android.app.Activity",
+                    "public class Activity extends android.content.Context {"
+                            + " public android.view.Window getWindow() { return null; } }"},
+            {"android.app.Dialog",
+                    "public class Dialog {"
+                            + " public android.view.Window getWindow() { return null; }"
+                            + " public android.content.Context getContext() { return null; } }"},
+            {"me.passin.butterknife.api.Unbinder", "public interface Unbinder { void unbind(); }"},
+            {"me.passin.butterknife.api.Rebinder",
+                    "public interface Rebinder extends Unbinder {"
+                            + " void rebind(Object target, android.view.View source); }"},
+            {"me.passin.butterknife.api.LazyView",
+                    "public final class LazyView<T extends android.view.View> {"
+                            + " private android.view.View source;"
+                            + " private final int id;"
+                            + " private T view;"
+                            + " public LazyView(android.view.View source, int id) {"
+                            + "   this.source = source; this.id = id; }"
+                            + " public static <T extends android.view.View> LazyView<T> bind("
+                            + "     LazyView<T> current, android.view.View source, int id) {"
+                            + "   if (current == null || current.id != id) return new LazyView<>(source, id);"
+                            + "   current.source = source; current.view = null; return current; }"
+                            + " @SuppressWarnings(\"unchecked\") public T get() {"
+                            + "   if (view == null && source != null) view = (T) source.findViewById(id);"
+                            + "   return view; }"
+                            + " public void unbind() { source = null; view = null; } }"},
+            {"me.passin.butterknife.api.ViewFinder",
+                    "public final class ViewFinder {"
+                            + " public static int findViewsByIds(android.view.View source, int[] sortedIds,"
+                            + "     android.view.View[] views) {"
+                            + "   int found = 0;"
+                            + "   for (int i = 0; i < sortedIds.length; i++) {"
+                            + "     views[i] = source.findViewById(sortedIds[i]);"
+                            + "     if (views[i] != null) found++;"
+                            + "   }"
+                            + "   return found; }"
+                            + " @SuppressWarnings(\"unchecked\")"
+                            + " public static <T> T[] findViewsById(android.view.View source, int[] ids, T[] views) {"
+                            + "   int count = 0;"
+                            + "   for (int id : ids) {"
+                            + "     T view = (T) source.findViewById(id);"
+                            + "     if (view != null) views[count++] = view;"
+                            + "   }"
+                            + "   return count == views.length ? views : java.util.Arrays.copyOf(views, count); } }"},
+            {"me.passin.butterknife.api.ImmutableViewList",
+                    "public final class ImmutableViewList<T> extends java.util.AbstractList<T> {"
+                            + " private final T[] views;"
+                            + " public ImmutableViewList(T[] views) { this.views = views; }"
+                            + " @Override public T get(int index) { return views[index]; }"
+                            + " @Override public int size() { return views.length; } }"},
+            {"me.passin.butterknife.api.ResourceCache",
+                    "public final class ResourceCache {"
+                            + " public ResourceCache(int size) {}"
+                            + " public void refresh(android.content.Context context) {}"
+                            + " public String getString(android.content.Context context, int slot, int id) {"
+                            + "   return null; }"
+                            + " public int getColor(android.content.Context context, int slot, int id) { return 0; }"
+                            + " public float getDimension(android.content.Context context, int slot, int id) {"
+                            + "   return 0; }"
+                            + " public int getDimensionPixelSize(android.content.Context context, int slot, int id) {"
+                            + "   return 0; }"
+                            + " public android.graphics.drawable.Drawable getDrawable("
+                            + "     android.content.Context context, int slot, int id) { return null; } }"},
+            {"me.passin.butterknife.api.BindingConstructor",
+                    "public interface BindingConstructor {"
+                            + " Unbinder newInstance(Object target, android.view.View source); }"},
+            {"me.passin.butterknife.api.ViewBinder",
+                    "public interface ViewBinder<T> { void bind(T target, android.view.View source); }"},
+            {"me.passin.butterknife.api.BindingIndex",
+                    "public interface BindingIndex {"
+                            + " BindingConstructor getBindingConstructor(Class<?> targetClass);"
+                            + " ViewBinder<Object> getViewBinder(Class<?> targetClass);"
+                            + " java.util.Set<Class<?>> getTargetClasses(); }"},
+    };
+
+    private AndroidSources() {
+        throw new AssertionError("No instances.");
+    }
+
+    /**
+     * 返回所有桩类以及 sources，作为一次编译的全部源码。
+     */
+    static List<JavaFileObject> withStubs(JavaFileObject... sources) {
+        List<JavaFileObject> files = new ArrayList<>(STUBS.length + sources.length);
+        for (String[] stub : STUBS) {
+            String qualifiedName = stub[0];
+            String packageName = qualifiedName.substring(0, qualifiedName.lastIndexOf('.'));
+            files.add(JavaFileObjects.forSourceString(qualifiedName,
+                    "package " + packageName + ";\n\n" + stub[1] + "\n"));
+        }
+        files.addAll(Arrays.asList(sources));
+        return files;
+    }
+}
@@ -0,0 +1,71 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * {@code @BindViews} 生成的静态 id 表以及数组和 List 字段的绑定。
+ */
+public final class BindViewsTest {
+    private static final JavaFileObject TARGET = JavaFileObjects.forSourceLines("com.example.Target",
+            "package com.example;",
+            "import android.app.Activity;",
+            "import android.view.View;",
+            "import android.widget.TextView;",
+            "import java.util.List;",
+            "import me.passin.butterknife.annotations.BindViews;",
+            "public class Target extends Activity {",
+            "    @BindViews({3, 1, 2}) TextView[] stars;",
+            "    @BindViews({5, 4}) List<View> keys;",
+            "}");
+
+    @Test
+    public void idTablesKeepAnnotationOrder() throws IOException {
+        String binding = compile().generatedSourceFile("com.example.Target_ViewBinding").get()
+                .getCharContent(false).toString();
+        assertThat(binding).contains("private static final int[] VIEWS_IDS_0 = {3, 1, 2};");
+        assertThat(binding).contains("private static final int[] VIEWS_IDS_1 = {5, 4};");
+        assertThat(binding).contains(
+                "target.stars = ViewFinder.findViewsById(source, VIEWS_IDS_0, new TextView[3]);");
+        assertThat(binding).contains("target.keys = new ImmutableViewList<>("
+                + "ViewFinder.findViewsById(source, VIEWS_IDS_1, new View[2]));");
+        assertThat(binding).contains("target.stars = null;\n    target.keys = null;");
+    }
+
+    @Test
+    public void viewsAreBoundInAnnotationOrderAndMissingViewsAreDropped() throws Exception {
+        GeneratedCode code = GeneratedCode.load(compile());
+        Object target = code.newInstance("com.example.Target");
+        // 缺少 id 为 4 的视图。
+        Object source = code.newSource(code.newView(1), code.newView(2), code.newView(3), code.newView(5));
+
+        Object binding = code.bind(target, source);
+        Object[] stars = (Object[]) code.get(target, "stars");
+        assertThat(Arrays.asList(stars)).containsExactly(
+                code.find(source, 3), code.find(source, 1), code.find(source, 2)).inOrder();
+        assertThat((List<?>) code.get(target, "keys")).containsExactly(code.find(source, 5));
+
+        code.unbind(binding);
+        assertThat(code.get(target, "stars")).isNull();
+        assertThat(code.get(target, "keys")).isNull();
+    }
+
+    private static Compilation compile() {
+        Compilation compilation = javac().withProcessors(new ButterKnifeProcessor())
+                .compile(AndroidSources.withStubs(TARGET));
+        assertThat(compilation).succeeded();
+        return compilation;
+    }
+}
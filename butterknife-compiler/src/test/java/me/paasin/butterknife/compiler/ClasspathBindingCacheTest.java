@@ -0,0 +1,114 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * classpath 中的父类的扫描结果在本次编译中只计算一次；JDK 18 及以上还会跨编译复用，
+ * 并在父类所在的 classpath 条目变化时失效。
+ */
+public final class ClasspathBindingCacheTest {
+    private static final String BOUND_FIELD =
+            "@me.passin.butterknife.annotations.BindView(1) android.widget.TextView title;";
+
+    private static final JavaFileObject CHILD = JavaFileObjects.forSourceLines("com.example.CacheChild",
+            "package com.example;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class CacheChild extends CacheParent {",
+            "    @BindView(2) TextView subtitle;",
+            "}");
+    private static final JavaFileObject OTHER_CHILD = JavaFileObjects.forSourceLines("com.example.OtherChild",
+            "package com.example;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class OtherChild extends CacheParent {",
+            "    @BindView(3) TextView summary;",
+            "}");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void parentIsScannedOncePerCompilation() throws IOException {
+        File library = temporaryFolder.newFolder("library");
+        writeParent(library, BOUND_FIELD, 1000000000000L);
+        ButterKnifeProcessor processor = new ButterKnifeProcessor();
+        Compilation compilation = javac().withProcessors(processor)
+                .withClasspath(CompiledClasses.classpathWith(library))
+                .compile(CHILD, OTHER_CHILD);
+        assertThat(compilation).succeeded();
+        assertThat(processor.getClasspathScanCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void unchangedParentIsNotRescannedByLaterCompilations() throws IOException {
+        assumeTrue(ClasspathBindingCache.isSharedCacheSupported());
+        File library = temporaryFolder.newFolder("library");
+        writeParent(library, BOUND_FIELD, 1000000000000L);
+        ButterKnifeProcessor first = new ButterKnifeProcessor();
+        assertThat(javac().withProcessors(first)
+                .withClasspath(CompiledClasses.classpathWith(library))
+                .compile(CHILD)).succeeded();
+        assertThat(first.getClasspathScanCount()).isEqualTo(1);
+
+        ButterKnifeProcessor second = new ButterKnifeProcessor();
+        Compilation compilation = javac().withProcessors(second)
+                .withClasspath(CompiledClasses.classpathWith(library))
+                .compile(CHILD);
+        assertThat(compilation).succeeded();
+        assertThat(second.getClasspathScanCount()).isEqualTo(0);
+        assertThat(compilation).generatedSourceFile("com.example.CacheChild_ViewBinding")
+                .contentsAsUtf8String().contains("extends CacheParent_ViewBinding");
+    }
+
+    @Test
+    public void rebuiltParentIsRescanned() throws IOException {
+        File library = temporaryFolder.newFolder("library");
+        writeParent(library, BOUND_FIELD, 1000000000000L);
+        Compilation first = javac().withProcessors(new ButterKnifeProcessor())
+                .withClasspath(CompiledClasses.classpathWith(library))
+                .compile(CHILD);
+        assertThat(first).succeeded();
+        assertThat(first).generatedSourceFile("com.example.CacheChild_ViewBinding")
+                .contentsAsUtf8String().contains("extends CacheParent_ViewBinding");
+
+        // 父类去掉绑定后在同一路径重新构建。
+        writeParent(library, "android.widget.TextView title;", 1000000001000L);
+        Compilation second = javac().withProcessors(new ButterKnifeProcessor())
+                .withClasspath(CompiledClasses.classpathWith(library))
+                .compile(CHILD);
+        assertThat(second).succeeded();
+        assertThat(second).generatedSourceFile("com.example.CacheChild_ViewBinding")
+                .contentsAsUtf8String().doesNotContain("CacheParent_ViewBinding");
+    }
+
+    private static void writeParent(File library, String field, long lastModified) throws IOException {
+        JavaFileObject parent = JavaFileObjects.forSourceLines("com.example.CacheParent",
+                "package com.example;",
+                "public class CacheParent extends android.app.Activity {",
+                "    " + field,
+                "}");
+        Compilation compilation = javac().withProcessors(new ButterKnifeProcessor())
+                .compile(AndroidSources.withStubs(parent));
+        assertThat(compilation).succeeded();
+        CompiledClasses.deleteContents(library);
+        for (File file : CompiledClasses.write(compilation, library)) {
+            file.setLastModified(lastModified);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * 绑定类自身作为监听器按 id 分发点击，子类的绑定类把其余的 id 交给父类，以及 debounce。
+ */
+public final class ClickDispatchTest {
+    private static final JavaFileObject PARENT = JavaFileObjects.forSourceLines("com.example.Parent",
+            "package com.example;",
+            "import android.app.Activity;",
+            "import android.view.View;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.OnClick;",
+            "import me.passin.butterknife.annotations.OnLongClick;",
+            "public class Parent extends Activity {",
+            "    int submits;",
+            "    int cancels;",
+            "    int longClicks;",
+            "    @OnClick(value = {1, 2}, debounce = 500) void submit(TextView v) { submits++; }",
+            "    @OnClick(3) void cancel() { cancels++; }",
+            "    @OnLongClick(1) boolean more(View v) { longClicks++; return false; }",
+            "}");
+    private static final JavaFileObject CHILD = JavaFileObjects.forSourceLines("com.example.Child",
+            "package com.example;",
+            "import me.passin.butterknife.annotations.OnClick;",
+            "public class Child extends Parent {",
+            "    int opens;",
+            "    @OnClick(4) void open() { opens++; }",
+            "}");
+
+    @Test
+    public void parentDispatchesIdsWithSwitch() throws IOException {
+        String parent = source(compile(), "com.example.Parent_ViewBinding");
+        assertThat(parent).contains("implements Rebinder, View.OnClickListener, View.OnLongClickListener");
+        assertThat(parent).contains("switch (v.getId()) {\n"
+                + "      case 1:\n"
+                + "      case 2: {\n"
+                + "        long now = SystemClock.uptimeMillis();\n"
+                + "        if (now - lastClickMillis < 500L) return;\n"
+                + "        lastClickMillis = now;\n"
+                + "        target.submit((TextView) v);\n"
+                + "        return;\n"
+                + "      }\n"
+                + "      case 3: target.cancel(); return;\n"
+                + "    }");
+        assertThat(parent).contains("case 1: return target.more(v);\n      default: return false;");
+        // 一个 id 只查找一次，同时设置两个监听。
+        assertThat(parent).contains("View view1 = source.findViewById(1);\n"
+                + "    if (view1 != null) {\n"
+                + "      view1.setOnClickListener(this);\n"
+                + "      view1.setOnLongClickListener(this);\n"
+                + "    }");
+    }
+
+    @Test
+    public void childDelegatesOtherIdsToParent() throws IOException {
+        String child = source(compile(), "com.example.Child_ViewBinding");
+        assertThat(child).contains("public class Child_ViewBinding extends Parent_ViewBinding {");
+        assertThat(child).doesNotContain("implements");
+        assertThat(child).contains("switch (v.getId()) {\n"
+                + "      case 4: target.open(); return;\n"
+                + "      default: super.onClick(v);\n"
+                + "    }");
+        assertThat(child).doesNotContain("onLongClick");
+    }
+
+    @Test
+    public void clicksReachParentAndChildMethods() throws Exception {
+        GeneratedCode code = GeneratedCode.load(compile());
+        Object target = code.newInstance("com.example.Child");
+        Object source = code.newSource(code.newView(1), code.newView(2), code.newView(3), code.newView(4));
+        Object binding = code.bind(target, source);
+
+        click(code, source, 4);
+        click(code, source, 3);
+        code.find(source, 1).getClass().getMethod("performLongClick").invoke(code.find(source, 1));
+        assertThat(code.get(target, "opens")).isEqualTo(1);
+        assertThat(code.get(target, "cancels")).isEqualTo(1);
+        assertThat(code.get(target, "longClicks")).isEqualTo(1);
+
+        // 解绑后监听仍然在视图上，但不再分发。
+        code.unbind(binding);
+        click(code, source, 4);
+        click(code, source, 3);
+        assertThat(code.get(target, "opens")).isEqualTo(1);
+        assertThat(code.get(target, "cancels")).isEqualTo(1);
+    }
+
+    /**
+     * 同一个方法的所有 id 共用一个时间窗口。
+     */
+    @Test
+    public void debounceDropsClicksInsideWindow() throws Exception {
+        GeneratedCode code = GeneratedCode.load(compile());
+        Object target = code.newInstance("com.example.Child");
+        Object source = code.newSource(code.newView(1), code.newView(2));
+        code.bind(target, source);
+
+        setUptimeMillis(code, 1000);
+        click(code, source, 1);
+        setUptimeMillis(code, 1499);
+        click(code, source, 2);
+        assertThat(code.get(target, "submits")).isEqualTo(1);
+
+        setUptimeMillis(code, 1500);
+        click(code, source, 2);
+        assertThat(code.get(target, "submits")).isEqualTo(2);
+    }
+
+    private static void click(GeneratedCode code, Object source, int id) throws Exception {
+        Object view = code.find(source, id);
+        view.getClass().getMethod("performClick").invoke(view);
+    }
+
+    private static void setUptimeMillis(GeneratedCode code, long millis) throws Exception {
+        code.loadClass("android.os.SystemClock").getField("now").setLong(null, millis);
+    }
+
+    private static Compilation compile() {
+        Compilation compilation = javac().withProcessors(new ButterKnifeProcessor())
+                .compile(AndroidSources.withStubs(PARENT, CHILD));
+        assertThat(compilation).succeeded();
+        return compilation;
+    }
+
+    private static String source(Compilation compilation, String name) throws IOException {
+        return compilation.generatedSourceFile(name).get().getCharContent(false).toString();
+    }
+}
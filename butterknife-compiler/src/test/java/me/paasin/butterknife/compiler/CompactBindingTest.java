@@ -0,0 +1,150 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * 超过 butterknife.maxMethodSize 时生成的紧凑形式与普通形式绑定和解绑相同的字段。
+ */
+public final class CompactBindingTest {
+    private static final JavaFileObject PARENT = JavaFileObjects.forSourceLines("com.example.Parent",
+            "package com.example;",
+            "import android.app.Activity;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class Parent extends Activity {",
+            "    @BindView(4) TextView p4;",
+            "    @BindView(1) TextView p1;",
+            "    @BindView(3) TextView p3;",
+            "    @BindView(2) TextView p2;",
+            "}");
+    private static final JavaFileObject CHILD = JavaFileObjects.forSourceLines("com.example.Child",
+            "package com.example;",
+            "import android.view.View;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "import me.passin.butterknife.api.LazyView;",
+            "public class Child extends Parent {",
+            "    @BindView(16) TextView c16;",
+            "    @BindView(11) View c11;",
+            "    @BindView(15) TextView c15;",
+            "    @BindView(12) TextView c12;",
+            "    @BindView(14) View c14;",
+            "    @BindView(13) TextView c13;",
+            "    @BindView(value = 20, lazy = true) LazyView<TextView> lazy;",
+            "    @BindView(value = 31, stub = 30) TextView inStub;",
+            "}");
+
+    /**
+     * 每个 setView 分块容纳 2 个视图：Parent 分为 2 块，Child 分为 3 块。
+     */
+    private static final String MAX_METHOD_SIZE = "-Abutterknife.maxMethodSize=28";
+
+    /**
+     * 字段名与绑定的视图 id，不包括延迟绑定和 ViewStub 中的视图。
+     */
+    private static final Map<String, Integer> FIELD_IDS = new LinkedHashMap<>();
+
+    static {
+        for (int id = 1; id <= 4; id++) {
+            FIELD_IDS.put("p" + id, id);
+        }
+        for (int id = 11; id <= 16; id++) {
+            FIELD_IDS.put("c" + id, id);
+        }
+    }
+
+    @Test
+    public void compactBindsAndUnbindsSameFieldsAsNormal() throws Exception {
+        String[][] variants = {
+                {},
+                {MAX_METHOD_SIZE},
+                {"-Abutterknife.singlePass=true"},
+                {"-Abutterknife.singlePass=true", MAX_METHOD_SIZE},
+        };
+        for (String[] options : variants) {
+            Compilation compilation = compile(options);
+            boolean compact = Arrays.asList(options).contains(MAX_METHOD_SIZE);
+            for (String name : new String[] {"com.example.Parent_ViewBinding", "com.example.Child_ViewBinding"}) {
+                assertWithMessage("%s with %s", name, String.join(" ", options))
+                        .that(source(compilation, name).contains("setView0("))
+                        .isEqualTo(compact);
+            }
+
+            GeneratedCode code = GeneratedCode.load(compilation);
+            Object target = code.newInstance("com.example.Child");
+            Object stub = code.newStub(30);
+            Object source = code.newSource(stub, code.newView(20));
+            for (int id : FIELD_IDS.values()) {
+                source = code.newSource(source, code.newView(id));
+            }
+
+            Object binding = code.bind(target, source);
+            for (Map.Entry<String, Integer> field : FIELD_IDS.entrySet()) {
+                assertWithMessage("%s with %s", field.getKey(), String.join(" ", options))
+                        .that(code.get(target, field.getKey()))
+                        .isSameInstanceAs(code.find(source, field.getValue()));
+            }
+            assertThat(code.lazyGet(code.get(target, "lazy"))).isSameInstanceAs(code.find(source, 20));
+            Object inflated = code.newView(31);
+            code.inflate(stub, inflated);
+            assertThat(code.get(target, "inStub")).isSameInstanceAs(inflated);
+
+            code.unbind(binding);
+            for (String field : FIELD_IDS.keySet()) {
+                assertWithMessage("%s with %s", field, String.join(" ", options))
+                        .that(code.get(target, field)).isNull();
+            }
+            assertThat(code.get(target, "lazy")).isNull();
+            assertThat(code.get(target, "inStub")).isNull();
+        }
+    }
+
+    @Test
+    public void setViewIsSplitIntoChunks() throws Exception {
+        Compilation compilation = compile(MAX_METHOD_SIZE);
+        String child = source(compilation, "com.example.Child_ViewBinding");
+        assertThat(child).contains("private static final int[] VIEW_IDS = {11, 12, 13, 14, 15, 16};");
+        assertThat(child).contains("switch (index / 2) {\n"
+                + "      case 0: setView0(target, index, view); return;\n"
+                + "      case 1: setView1(target, index, view); return;\n"
+                + "      case 2: setView2(target, index, view); return;\n"
+                + "    }");
+        assertThat(child).contains("private static void setView1(Child target, int index, View view) {\n"
+                + "    switch (index) {\n"
+                + "      case 2: target.c13 = (TextView) view; return;\n"
+                + "      case 3: target.c14 = view; return;\n"
+                + "    }");
+        assertThat(child).doesNotContain("setView3");
+
+        String parent = source(compilation, "com.example.Parent_ViewBinding");
+        assertThat(parent).contains("case 1: setView1(target, index, view); return;");
+        assertThat(parent).doesNotContain("setView2");
+    }
+
+    private static Compilation compile(String... options) {
+        Compilation compilation = javac().withProcessors(new ButterKnifeProcessor())
+                .withOptions((Object[]) options)
+                .compile(AndroidSources.withStubs(PARENT, CHILD));
+        assertThat(compilation).succeeded();
+        return compilation;
+    }
+
+    private static String source(Compilation compilation, String name) throws IOException {
+        return compilation.generatedSourceFile(name).get().getCharContent(false).toString();
+    }
+}
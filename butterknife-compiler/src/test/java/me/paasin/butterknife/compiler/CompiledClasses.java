@@ -0,0 +1,93 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.common.io.ByteStreams;
+import com.google.testing.compile.Compilation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * 把一次编译输出的 class 文件写入目录，作为下一次编译的 classpath，模拟依赖库或者增量编译时上一次的输出。
+ */
+final class CompiledClasses {
+    private CompiledClasses() {
+        throw new AssertionError("No instances.");
+    }
+
+    /**
+     * 只写入 class 文件，不包括生成的源码和资源。
+     *
+     * @return 写入的所有文件。
+     */
+    static List<File> write(Compilation compilation, File directory) throws IOException {
+        List<File> written = new ArrayList<>();
+        for (JavaFileObject file : compilation.generatedFiles()) {
+            if (file.getKind() != JavaFileObject.Kind.CLASS) {
+                continue;
+            }
+            String path = file.toUri().getPath();
+            path = path.substring(path.indexOf("CLASS_OUTPUT/") + "CLASS_OUTPUT/".length());
+            File output = new File(directory, path);
+            output.getParentFile().mkdirs();
+            try (InputStream in = file.openInputStream(); OutputStream out = new FileOutputStream(output)) {
+                ByteStreams.copy(in, out);
+            }
+            written.add(output);
+        }
+        return written;
+    }
+
+    /**
+     * 直接从编译输出中加载类，包括 {@link AndroidSources} 中的桩类和生成的绑定类。
+     */
+    static ClassLoader classLoader(final Compilation compilation) {
+        return new ClassLoader(CompiledClasses.class.getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                Optional<JavaFileObject> file = compilation.generatedFile(StandardLocation.CLASS_OUTPUT,
+                        name.replace('.', '/') + ".class");
+                if (!file.isPresent()) {
+                    throw new ClassNotFoundException(name);
+                }
+                try (InputStream in = file.get().openInputStream()) {
+                    byte[] bytes = ByteStreams.toByteArray(in);
+                    return defineClass(name, bytes, 0, bytes.length);
+                } catch (IOException e) {
+                    throw new ClassNotFoundException(name, e);
+                }
+            }
+        };
+    }
+
+    static void deleteContents(File directory) {
+        File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            deleteContents(child);
+            child.delete();
+        }
+    }
+
+    /**
+     * classes 加上当前测试的 classpath（其中包括 androidx.annotation 等生成的代码引用的依赖）。
+     */
+    static List<File> classpathWith(File classes) {
+        List<File> classpath = new ArrayList<>();
+        classpath.add(classes);
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            classpath.add(new File(entry));
+        }
+        return classpath;
+    }
+}
@@ -0,0 +1,95 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.testing.compile.Compilation;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * 通过反射运行一次编译得到的类，包括 {@link AndroidSources} 中的桩类和生成的绑定类，它们只存在于编译输出中。
+ */
+final class GeneratedCode {
+    private final ClassLoader loader;
+    private final Class<?> viewClass;
+
+    private GeneratedCode(ClassLoader loader) throws ClassNotFoundException {
+        this.loader = loader;
+        this.viewClass = loader.loadClass("android.view.View");
+    }
+
+    static GeneratedCode load(Compilation compilation) throws ClassNotFoundException {
+        return new GeneratedCode(CompiledClasses.classLoader(compilation));
+    }
+
+    Class<?> loadClass(String className) throws ClassNotFoundException {
+        return loader.loadClass(className);
+    }
+
+    Object newInstance(String className) throws Exception {
+        return loader.loadClass(className).getConstructor().newInstance();
+    }
+
+    Object newView(int id) throws Exception {
+        return loader.loadClass("android.widget.TextView").getConstructor(int.class).newInstance(id);
+    }
+
+    Object newStub(int id) throws Exception {
+        return loader.loadClass("android.view.ViewStub").getConstructor(int.class).newInstance(id);
+    }
+
+    /**
+     * 没有 id 的根视图，children 依次作为它的子视图。
+     */
+    Object newSource(Object... children) throws Exception {
+        Object source = viewClass.getConstructor().newInstance();
+        Method addView = viewClass.getMethod("addView", viewClass);
+        for (Object child : children) {
+            addView.invoke(source, child);
+        }
+        return source;
+    }
+
+    Object find(Object source, int id) throws Exception {
+        return viewClass.getMethod("findViewById", int.class).invoke(source, id);
+    }
+
+    /**
+     * 通过绑定类的 (target, View) 构造函数绑定，返回绑定对象。
+     */
+    Object bind(Object target, Object source) throws Exception {
+        return loader.loadClass(target.getClass().getName() + "_ViewBinding")
+                .getConstructor(target.getClass(), viewClass)
+                .newInstance(target, source);
+    }
+
+    void rebind(Object binding, Object target, Object source) throws Exception {
+        binding.getClass().getMethod("rebind", Object.class, viewClass).invoke(binding, target, source);
+    }
+
+    void unbind(Object binding) throws Exception {
+        binding.getClass().getMethod("unbind").invoke(binding);
+    }
+
+    void inflate(Object stub, Object inflated) throws Exception {
+        stub.getClass().getMethod("inflate", viewClass).invoke(stub, inflated);
+    }
+
+    Object lazyGet(Object lazy) throws Exception {
+        return lazy.getClass().getMethod("get").invoke(lazy);
+    }
+
+    /**
+     * 读取 target 或者它的父类中的字段。
+     */
+    Object get(Object target, String name) throws Exception {
+        for (Class<?> cls = target.getClass(); cls != null; cls = cls.getSuperclass()) {
+            try {
+                Field field = cls.getDeclaredField(name);
+                field.setAccessible(true);
+                return field.get(target);
+            } catch (NoSuchFieldException ignored) {
+            }
+        }
+        throw new NoSuchFieldException(name);
+    }
+}
@@ -0,0 +1,131 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * 按 Gradle 增量编译 isolating 处理器的方式验证：修改一个文件后只重新编译它，
+ * 只有它的 _ViewBinding 被重新生成，并且与全量编译的结果相同。
+ */
+public final class IncrementalProcessingTest {
+    private static final String GRADLE_ISOLATING = "org.gradle.annotation.processing.isolating";
+    private static final String GRADLE_AGGREGATING = "org.gradle.annotation.processing.aggregating";
+
+    private static final JavaFileObject PARENT = JavaFileObjects.forSourceLines("com.example.Parent",
+            "package com.example;",
+            "import android.app.Activity;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class Parent extends Activity {",
+            "    @BindView(1) TextView title;",
+            "}");
+    private static final JavaFileObject CHILD = JavaFileObjects.forSourceLines("com.example.Child",
+            "package com.example;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class Child extends Parent {",
+            "    @BindView(2) TextView subtitle;",
+            "}");
+    private static final JavaFileObject EDITED_CHILD = JavaFileObjects.forSourceLines("com.example.Child",
+            "package com.example;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class Child extends Parent {",
+            "    @BindView(2) TextView subtitle;",
+            "    @BindView(3) TextView summary;",
+            "}");
+    private static final JavaFileObject OTHER = JavaFileObjects.forSourceLines("com.example.Other",
+            "package com.example;",
+            "import android.app.Activity;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class Other extends Activity {",
+            "    @BindView(1) TextView title;",
+            "}");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void isolatingWithoutAggregatingOptions() {
+        RecordingProcessor processor = new RecordingProcessor();
+        Compilation compilation = javac().withProcessors(processor)
+                .compile(AndroidSources.withStubs(PARENT));
+        assertThat(compilation).succeeded();
+        assertThat(processor.getSupportedOptions()).contains(GRADLE_ISOLATING);
+        assertThat(processor.getSupportedOptions()).doesNotContain(GRADLE_AGGREGATING);
+    }
+
+    /**
+     * 布局分析的结果取决于模块内所有的布局，依赖库的元数据不是 Gradle 追踪的输入，二者都必须是 aggregating 的。
+     */
+    @Test
+    public void aggregatingWhenLayoutsOrMetadataAreRead() {
+        for (String option : Arrays.asList("-Abutterknife.layoutDirs=" + temporaryFolder.getRoot(),
+                "-Abutterknife.metadata=true")) {
+            RecordingProcessor processor = new RecordingProcessor();
+            Compilation compilation = javac().withProcessors(processor).withOptions(option)
+                    .compile(AndroidSources.withStubs(PARENT));
+            assertThat(compilation).succeeded();
+            assertThat(processor.getSupportedOptions()).contains(GRADLE_AGGREGATING);
+            assertThat(processor.getSupportedOptions()).doesNotContain(GRADLE_ISOLATING);
+        }
+    }
+
+    /**
+     * Gradle 要求 isolating 处理器生成的每个文件有且只有一个来源元素。
+     */
+    @Test
+    public void eachBindingOriginatesFromItsTargetOnly() {
+        RecordingProcessor processor = new RecordingProcessor();
+        Compilation compilation = javac().withProcessors(processor)
+                .compile(AndroidSources.withStubs(PARENT, CHILD, OTHER));
+        assertThat(compilation).succeeded();
+        assertThat(processor.originatingElements).containsExactly(
+                "com.example.Parent_ViewBinding", Collections.singletonList("com.example.Parent"),
+                "com.example.Child_ViewBinding", Collections.singletonList("com.example.Child"),
+                "com.example.Other_ViewBinding", Collections.singletonList("com.example.Other"));
+    }
+
+    @Test
+    public void editingOneFileRegeneratesOnlyItsBinding() throws IOException {
+        Compilation fullBuild = javac().withProcessors(new RecordingProcessor())
+                .compile(AndroidSources.withStubs(PARENT, CHILD, OTHER));
+        assertThat(fullBuild).succeeded();
+        File classes = temporaryFolder.newFolder("classes");
+        CompiledClasses.write(fullBuild, classes);
+
+        // Gradle 只重新编译修改过的 Child，其余的类（包括父类和它的绑定类）来自上一次编译的输出。
+        RecordingProcessor processor = new RecordingProcessor();
+        Compilation incrementalBuild = javac().withProcessors(processor)
+                .withClasspath(CompiledClasses.classpathWith(classes))
+                .compile(EDITED_CHILD);
+        assertThat(incrementalBuild).succeeded();
+        assertThat(processor.originatingElements).containsExactly(
+                "com.example.Child_ViewBinding", Collections.singletonList("com.example.Child"));
+
+        Compilation rebuild = javac().withProcessors(new RecordingProcessor())
+                .compile(AndroidSources.withStubs(PARENT, EDITED_CHILD, OTHER));
+        assertThat(rebuild).succeeded();
+        assertThat(incrementalBuild)
+                .generatedSourceFile("com.example.Child_ViewBinding")
+                .contentsAsUtf8String()
+                .isEqualTo(rebuild.generatedSourceFile("com.example.Child_ViewBinding").get()
+                        .getCharContent(false).toString());
+    }
+}
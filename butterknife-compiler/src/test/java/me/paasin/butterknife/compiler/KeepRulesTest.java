@@ -0,0 +1,166 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * 生成的混淆规则必须与实际生成的绑定类一致：没有写入索引的绑定类各有一条保留其构造函数的规则，
+ * 写入索引的绑定类不需要规则。
+ */
+public final class KeepRulesTest {
+    private static final String RULES_FILE = KeepRules.DIRECTORY + "butterknife-com.example.pro";
+    private static final String KEEP_BINDING = "-keep class ";
+
+    private static final JavaFileObject PUBLIC_TARGET = JavaFileObjects.forSourceLines("com.example.Main",
+            "package com.example;",
+            "import android.app.Activity;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class Main extends Activity {",
+            "    @BindView(1) TextView title;",
+            "    public static class Header extends android.view.View {",
+            "        @BindView(2) TextView subtitle;",
+            "    }",
+            "}");
+    private static final JavaFileObject PACKAGE_TARGET = JavaFileObjects.forSourceLines("com.example.Detail",
+            "package com.example;",
+            "import android.app.Dialog;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "class Detail extends Dialog {",
+            "    @BindView(3) TextView body;",
+            "}");
+    private static final JavaFileObject OTHER_PACKAGE_TARGET = JavaFileObjects.forSourceLines(
+            "com.example.more.Extra",
+            "package com.example.more;",
+            "import android.app.Activity;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "class Extra extends Activity {",
+            "    @BindView(4) TextView footer;",
+            "}");
+
+    @Test
+    public void everyBindingWithoutIndexIsKept() throws IOException {
+        for (boolean staticBind : new boolean[]{false, true}) {
+            Compilation compilation = compile("-Abutterknife.staticBind=" + staticBind);
+            Map<String, String> rules = parseRules(readRules(compilation));
+            Set<String> bindings = getGeneratedBindings(compilation);
+            assertThat(bindings).hasSize(4);
+            assertThat(rules.keySet()).containsExactlyElementsIn(bindings);
+
+            for (Map.Entry<String, String> entry : rules.entrySet()) {
+                String binding = entry.getKey();
+                String target = binding.substring(0, binding.length() - "_ViewBinding".length());
+                String rule = entry.getValue();
+                String source = readSource(compilation, binding);
+                String simpleName = binding.substring(binding.lastIndexOf('.') + 1);
+                // 规则中的构造函数与静态方法都必须真实存在。
+                assertThat(rule).contains("public <init>(" + target + ", android.view.View);");
+                assertThat(source).contains("public " + simpleName + "(");
+                if (staticBind) {
+                    assertThat(rule).contains("public static void bind(" + target + ", android.view.View);");
+                    assertThat(source).contains("public static void bind(");
+                } else {
+                    assertThat(rule).doesNotContain("bind(");
+                }
+                assertThat(readRules(compilation)).contains("-keepnames class " + target + "\n");
+            }
+        }
+    }
+
+    @Test
+    public void indexedBindingsNeedNoRules() throws IOException {
+        Compilation compilation = compile("-Abutterknife.index=com.example.AppBindingIndex");
+        String index = compilation.generatedSourceFile("com.example.AppBindingIndex").get()
+                .getCharContent(false).toString();
+        Set<String> bindings = getGeneratedBindings(compilation);
+        assertThat(bindings).hasSize(4);
+        for (String binding : bindings) {
+            String simpleName = binding.substring(binding.lastIndexOf('.') + 1);
+            if (binding.startsWith("com.example.more.")) {
+                // 不同包中的非 public 的绑定类通过包内的辅助类创建。
+                assertThat(index).contains("AppBindingIndex_Package.newInstance(");
+            } else {
+                assertThat(index).contains("new " + simpleName + "(");
+            }
+        }
+        assertThat(parseRules(readRules(compilation))).isEmpty();
+    }
+
+    private static Compilation compile(String... options) {
+        String[] allOptions = new String[options.length + 1];
+        allOptions[0] = "-Abutterknife.keepRules=true";
+        System.arraycopy(options, 0, allOptions, 1, options.length);
+        Compilation compilation = javac().withProcessors(new ButterKnifeProcessor())
+                .withOptions((Object[]) allOptions)
+                .compile(AndroidSources.withStubs(PUBLIC_TARGET, PACKAGE_TARGET, OTHER_PACKAGE_TARGET));
+        assertThat(compilation).succeeded();
+        return compilation;
+    }
+
+    private static String readRules(Compilation compilation) throws IOException {
+        return compilation.generatedFile(StandardLocation.CLASS_OUTPUT, RULES_FILE).get()
+                .getCharContent(false).toString();
+    }
+
+    /**
+     * key 为被保留的绑定类，value 为它的完整规则。
+     */
+    private static Map<String, String> parseRules(String rendered) {
+        Map<String, String> rules = new LinkedHashMap<>();
+        String[] lines = rendered.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            if (!lines[i].startsWith(KEEP_BINDING)) {
+                continue;
+            }
+            String binding = lines[i].substring(KEEP_BINDING.length(), lines[i].indexOf(" {"));
+            StringBuilder rule = new StringBuilder();
+            while (!lines[i].equals("}")) {
+                rule.append(lines[i++]).append('\n');
+            }
+            assertThat(rules.put(binding, rule.toString())).isNull();
+        }
+        return rules;
+    }
+
+    /**
+     * 生成的绑定类的全类名，嵌套类的 target 以 $ 分隔，与规则中的写法相同。
+     */
+    private static Set<String> getGeneratedBindings(Compilation compilation) {
+        Set<String> bindings = new LinkedHashSet<>();
+        for (JavaFileObject file : compilation.generatedSourceFiles()) {
+            String path = file.toUri().getPath();
+            if (!path.endsWith("_ViewBinding.java")) {
+                continue;
+            }
+            path = path.substring(path.indexOf("com/example/"), path.length() - ".java".length());
+            bindings.add(path.replace('/', '.'));
+        }
+        return bindings;
+    }
+
+    private static String readSource(Compilation compilation, String binding) throws IOException {
+        for (JavaFileObject file : compilation.generatedSourceFiles()) {
+            if (file.toUri().getPath().endsWith(binding.replace('.', '/') + ".java")) {
+                return file.getCharContent(false).toString();
+            }
+        }
+        throw new AssertionError("No source for " + binding);
+    }
+}
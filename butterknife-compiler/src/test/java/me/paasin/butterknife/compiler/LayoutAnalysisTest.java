@@ -0,0 +1,85 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * 布局分析中视图类型的检查：ViewInflater 替换后的类型不报错，真正不一致的类型只警告。
+ */
+public final class LayoutAnalysisTest {
+    private static final JavaFileObject R = JavaFileObjects.forSourceLines("com.example.R",
+            "package com.example;",
+            "public final class R {",
+            "    public static final class id {",
+            "        public static final int button = 1;",
+            "        public static final int image = 2;",
+            "    }",
+            "}");
+    private static final JavaFileObject APP_COMPAT_BUTTON = JavaFileObjects.forSourceLines(
+            "androidx.appcompat.widget.AppCompatButton",
+            "package androidx.appcompat.widget;",
+            "public class AppCompatButton extends android.widget.Button {}");
+    private static final JavaFileObject BUTTON = JavaFileObjects.forSourceLines("android.widget.Button",
+            "package android.widget;",
+            "public class Button extends TextView {}");
+    private static final JavaFileObject IMAGE_VIEW = JavaFileObjects.forSourceLines("android.widget.ImageView",
+            "package android.widget;",
+            "public class ImageView extends android.view.View {}");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void inflaterSubstituteIsCompatible() throws IOException {
+        JavaFileObject source = JavaFileObjects.forSourceLines("com.example.Target",
+                "package com.example;",
+                "import androidx.appcompat.widget.AppCompatButton;",
+                "import me.passin.butterknife.annotations.BindView;",
+                "public class Target extends android.app.Activity {",
+                "    @BindView(R.id.button) AppCompatButton button;",
+                "}");
+        Compilation compilation = compile(source);
+        assertThat(compilation).succeededWithoutWarnings();
+    }
+
+    @Test
+    public void mismatchedTypeIsWarning() throws IOException {
+        JavaFileObject source = JavaFileObjects.forSourceLines("com.example.Target",
+                "package com.example;",
+                "import android.widget.TextView;",
+                "import me.passin.butterknife.annotations.BindView;",
+                "public class Target extends android.app.Activity {",
+                "    @BindView(R.id.image) TextView image;",
+                "}");
+        Compilation compilation = compile(source);
+        assertThat(compilation).succeeded();
+        assertThat(compilation).hadWarningContaining(
+                "@BindView field type android.widget.TextView is not compatible with R.id.image");
+    }
+
+    private Compilation compile(JavaFileObject source) throws IOException {
+        File layout = new File(temporaryFolder.newFolder("layout"), "activity_target.xml");
+        Files.asCharSink(layout, Charsets.UTF_8).write(""
+                + "<LinearLayout xmlns:android=\"http://schemas.android.com/apk/res/android\">\n"
+                + "    <Button android:id=\"@+id/button\" />\n"
+                + "    <ImageView android:id=\"@+id/image\" />\n"
+                + "</LinearLayout>\n");
+        return javac().withProcessors(new ButterKnifeProcessor())
+                .withOptions("-Abutterknife.layoutDirs=" + layout.getParent(), "-Abutterknife.rClass=com.example.R")
+                .compile(AndroidSources.withStubs(R, APP_COMPAT_BUTTON, BUTTON, IMAGE_VIEW, source));
+    }
+}
@@ -0,0 +1,80 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * {@code @BindView(lazy = true)} 生成的 LazyView 赋值和解绑，以及运行时的延迟查找。
+ */
+public final class LazyBindingTest {
+    private static final JavaFileObject TARGET = JavaFileObjects.forSourceLines("com.example.Target",
+            "package com.example;",
+            "import android.app.Activity;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "import me.passin.butterknife.api.LazyView;",
+            "public class Target extends Activity {",
+            "    @BindView(1) TextView title;",
+            "    @BindView(value = 2, lazy = true) LazyView<TextView> error;",
+            "}");
+
+    @Test
+    public void lazyFieldIsAssignedAndUnbound() throws IOException {
+        String binding = compile(TARGET).generatedSourceFile("com.example.Target_ViewBinding").get()
+                .getCharContent(false).toString();
+        assertThat(binding).contains("target.error = LazyView.bind(target.error, source, 2);");
+        assertThat(binding).doesNotContain("findViewById(2)");
+        assertThat(binding).contains("target.error.unbind();\n    target.error = null;");
+    }
+
+    @Test
+    public void viewIsLookedUpOnFirstGetAndReleasedOnUnbind() throws Exception {
+        GeneratedCode code = GeneratedCode.load(compile(TARGET));
+        Object target = code.newInstance("com.example.Target");
+        Object source = code.newSource(code.newView(1));
+        Object binding = code.bind(target, source);
+        Object lazy = code.get(target, "error");
+
+        // 未找到的结果不缓存，视图加入视图树之后可以找到。
+        assertThat(code.lazyGet(lazy)).isNull();
+        Object error = code.newView(2);
+        source.getClass().getMethod("addView", code.loadClass("android.view.View")).invoke(source, error);
+        assertThat(code.lazyGet(lazy)).isSameInstanceAs(error);
+
+        code.unbind(binding);
+        assertThat(code.get(target, "error")).isNull();
+        assertThat(code.lazyGet(lazy)).isNull();
+    }
+
+    @Test
+    public void lazyRequiresLazyViewField() {
+        Compilation compilation = javac().withProcessors(new ButterKnifeProcessor())
+                .compile(AndroidSources.withStubs(JavaFileObjects.forSourceLines("com.example.Wrong",
+                        "package com.example;",
+                        "import android.app.Activity;",
+                        "import android.widget.TextView;",
+                        "import me.passin.butterknife.annotations.BindView;",
+                        "public class Wrong extends Activity {",
+                        "    @BindView(value = 2, lazy = true) TextView error;",
+                        "}")));
+        assertThat(compilation).failed();
+        assertThat(compilation).hadErrorContaining("@BindView(lazy = true) fields must be of type LazyView.");
+    }
+
+    private static Compilation compile(JavaFileObject source) {
+        Compilation compilation = javac().withProcessors(new ButterKnifeProcessor())
+                .compile(AndroidSources.withStubs(source));
+        assertThat(compilation).succeeded();
+        return compilation;
+    }
+}
@@ -0,0 +1,90 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * 并行生成的绑定类与逐个生成的内容和写入顺序完全相同。
+ */
+public final class ParallelWritingTest {
+    private static final JavaFileObject PARENT = JavaFileObjects.forSourceLines("com.example.Parent",
+            "package com.example;",
+            "import android.app.Activity;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class Parent extends Activity {",
+            "    @BindView(1) TextView title;",
+            "}");
+    private static final JavaFileObject CHILD = JavaFileObjects.forSourceLines("com.example.Child",
+            "package com.example;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class Child extends Parent {",
+            "    @BindView(2) TextView subtitle;",
+            "}");
+    private static final JavaFileObject GRANDCHILD = JavaFileObjects.forSourceLines("com.example.GrandChild",
+            "package com.example;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class GrandChild extends Child {",
+            "    @BindView(3) TextView summary;",
+            "}");
+    private static final JavaFileObject OTHER = JavaFileObjects.forSourceLines("com.example.Other",
+            "package com.example;",
+            "import android.view.View;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class Other extends View {",
+            "    @BindView(1) TextView title;",
+            "    @BindView(value = 5, stub = 4) TextView error;",
+            "}");
+    private static final JavaFileObject DIALOG = JavaFileObjects.forSourceLines("com.example.Prompt",
+            "package com.example;",
+            "import android.app.Dialog;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class Prompt extends Dialog {",
+            "    @BindView(1) TextView message;",
+            "}");
+
+    @Test
+    public void parallelOutputMatchesSerialOutput() throws IOException {
+        RecordingProcessor serial = new RecordingProcessor();
+        Compilation serialCompilation = compile(serial, "-Abutterknife.parallelism=1");
+        RecordingProcessor parallel = new RecordingProcessor();
+        Compilation parallelCompilation = compile(parallel, "-Abutterknife.parallelism=4");
+
+        List<String> written = new ArrayList<>(serial.originatingElements.keySet());
+        assertThat(written).hasSize(5);
+        assertThat(new ArrayList<>(parallel.originatingElements.keySet())).containsExactlyElementsIn(written)
+                .inOrder();
+        for (String name : written) {
+            assertWithMessage(name).that(source(parallelCompilation, name))
+                    .isEqualTo(source(serialCompilation, name));
+        }
+    }
+
+    private static Compilation compile(RecordingProcessor processor, String parallelism) {
+        Compilation compilation = javac().withProcessors(processor).withOptions(parallelism)
+                .compile(AndroidSources.withStubs(PARENT, CHILD, GRANDCHILD, OTHER, DIALOG));
+        assertThat(compilation).succeeded();
+        return compilation;
+    }
+
+    private static String source(Compilation compilation, String name) throws IOException {
+        return compilation.generatedSourceFile(name).get().getCharContent(false).toString();
+    }
+}
@@ -0,0 +1,61 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * 构建报告中每个方法的估算字节码大小与 butterknife.maxMethodSize 使用相同的估算。
+ */
+public final class ProcessorReportTest {
+    private static final JavaFileObject TARGET = JavaFileObjects.forSourceLines("com.example.Target",
+            "package com.example;",
+            "import android.app.Activity;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class Target extends Activity {",
+            "    @BindView(1) TextView title;",
+            "    @BindView(2) TextView subtitle;",
+            "    @BindView(3) TextView summary;",
+            "}");
+
+    @Test
+    public void reportsEstimatedBytesAndSourceLinesPerMethod() throws IOException {
+        String report = report(compile("-Abutterknife.report=true"));
+        // 3 次 findViewById 各 14 字节。
+        assertThat(report).contains("{\"name\": \"bindViews\", \"estimatedBytes\": 42, \"sourceLines\": 3}");
+        assertThat(report).contains("{\"name\": \"rebind\", \"estimatedBytes\": 16, \"sourceLines\": 2}");
+    }
+
+    @Test
+    public void maxMethodSizeBelowEstimateSelectsCompactForm() throws IOException {
+        Compilation atEstimate = compile("-Abutterknife.report=true", "-Abutterknife.maxMethodSize=42");
+        assertThat(report(atEstimate)).doesNotContain("\"setView\"");
+
+        Compilation belowEstimate = compile("-Abutterknife.report=true", "-Abutterknife.maxMethodSize=41");
+        assertThat(report(belowEstimate)).contains("\"setView\"");
+    }
+
+    private static Compilation compile(String... options) {
+        Compilation compilation = javac().withProcessors(new ButterKnifeProcessor())
+                .withOptions((Object[]) options)
+                .compile(AndroidSources.withStubs(TARGET));
+        assertThat(compilation).succeeded();
+        return compilation;
+    }
+
+    private static String report(Compilation compilation) throws IOException {
+        return compilation.generatedFile(StandardLocation.SOURCE_OUTPUT, ProcessorReport.FILE_NAME).get()
+                .getCharContent(false).toString();
+    }
+}
@@ -0,0 +1,113 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * 运行生成的绑定类，验证 rebind 复用绑定对象时父类和子类的字段都绑定到新的 target。
+ */
+public final class RebindTest {
+    private static final JavaFileObject PARENT = JavaFileObjects.forSourceLines("com.example.Parent",
+            "package com.example;",
+            "import android.app.Activity;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "import me.passin.butterknife.api.LazyView;",
+            "public class Parent extends Activity {",
+            "    @BindView(1) TextView title;",
+            "    @BindView(value = 2, lazy = true) LazyView<TextView> subtitle;",
+            "}");
+    private static final JavaFileObject CHILD = JavaFileObjects.forSourceLines("com.example.Child",
+            "package com.example;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class Child extends Parent {",
+            "    @BindView(3) TextView body;",
+            "    @BindView(value = 5, stub = 4) TextView error;",
+            "}");
+
+    private static final String[][] OPTIONS = {{}, {"-Abutterknife.staticBind=true"}};
+
+    @Test
+    public void rebindBindsParentAndChildFieldsOfNewTarget() throws Exception {
+        for (String[] options : OPTIONS) {
+            GeneratedCode code = compile(options);
+            Object first = code.newInstance("com.example.Child");
+            Object second = code.newInstance("com.example.Child");
+            Object binding = code.bind(first, newSource(code));
+            Object source = newSource(code);
+
+            code.rebind(binding, second, source);
+            assertThat(code.get(second, "title")).isSameInstanceAs(code.find(source, 1));
+            assertThat(code.get(second, "body")).isSameInstanceAs(code.find(source, 3));
+            assertThat(code.lazyGet(code.get(second, "subtitle")))
+                    .isSameInstanceAs(code.find(source, 2));
+
+            code.unbind(binding);
+            assertThat(code.get(second, "title")).isNull();
+            assertThat(code.get(second, "body")).isNull();
+            assertThat(code.get(second, "subtitle")).isNull();
+        }
+    }
+
+    @Test
+    public void rebindToSameTargetReusesLazyView() throws Exception {
+        GeneratedCode code = compile();
+        Object target = code.newInstance("com.example.Child");
+        Object binding = code.bind(target, newSource(code));
+        Object lazy = code.get(target, "subtitle");
+        code.lazyGet(lazy);
+
+        Object source = newSource(code);
+        code.rebind(binding, target, source);
+        assertThat(code.get(target, "subtitle")).isSameInstanceAs(lazy);
+        assertThat(code.lazyGet(lazy)).isSameInstanceAs(code.find(source, 2));
+    }
+
+    /**
+     * 旧视图树中的 ViewStub 仍然持有监听，rebind 到其他 target 之后 inflate 时不能写入任何一个 target。
+     */
+    @Test
+    public void stubFromOldSourceIsIgnoredAfterRebind() throws Exception {
+        for (String[] options : OPTIONS) {
+            GeneratedCode code = compile(options);
+            Object first = code.newInstance("com.example.Child");
+            Object second = code.newInstance("com.example.Child");
+            Object oldSource = newSource(code);
+            Object binding = code.bind(first, oldSource);
+            Object source = newSource(code);
+            code.rebind(binding, second, source);
+
+            code.inflate(code.find(oldSource, 4), code.newView(5));
+            assertThat(code.get(first, "error")).isNull();
+            assertThat(code.get(second, "error")).isNull();
+
+            Object inflated = code.newView(5);
+            code.inflate(code.find(source, 4), inflated);
+            assertThat(code.get(second, "error")).isSameInstanceAs(inflated);
+        }
+    }
+
+    private static GeneratedCode compile(String... options) throws ClassNotFoundException {
+        Compilation compilation = javac().withProcessors(new ButterKnifeProcessor())
+                .withOptions((Object[]) options)
+                .compile(AndroidSources.withStubs(PARENT, CHILD));
+        assertThat(compilation).succeeded();
+        return GeneratedCode.load(compilation);
+    }
+
+    /**
+     * 包含 id 为 1、2、3 的 TextView 以及 id 为 4 的 ViewStub。
+     */
+    private static Object newSource(GeneratedCode code) throws Exception {
+        return code.newSource(code.newView(1), code.newView(2), code.newView(3), code.newStub(4));
+    }
+}
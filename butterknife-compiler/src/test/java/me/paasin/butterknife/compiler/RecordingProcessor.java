@@ -0,0 +1,99 @@
+package me.paasin.butterknife.compiler;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * 包装 {@link ButterKnifeProcessor}，记录每个生成的源文件通过 Filer 声明的来源元素，
+ * 与 Gradle 判断 isolating 处理器的输出依赖哪些源文件的方式相同。
+ */
+final class RecordingProcessor implements Processor {
+    final ButterKnifeProcessor delegate = new ButterKnifeProcessor();
+    /**
+     * key 为生成的类的全类名，value 为来源元素的全类名。
+     */
+    final Map<String, List<String>> originatingElements = new LinkedHashMap<>();
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return delegate.getSupportedOptions();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return delegate.getSupportedAnnotationTypes();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return delegate.getSupportedSourceVersion();
+    }
+
+    @Override
+    public void init(final ProcessingEnvironment processingEnv) {
+        final Filer filer = processingEnv.getFiler();
+        final Filer recordingFiler = proxy(Filer.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("createSourceFile")) {
+                    List<String> elements = new ArrayList<>();
+                    for (Element element : (Element[]) args[1]) {
+                        elements.add(((TypeElement) element).getQualifiedName().toString());
+                    }
+                    originatingElements.put(args[0].toString(), elements);
+                }
+                return invokeDelegate(method, filer, args);
+            }
+        });
+        delegate.init(proxy(ProcessingEnvironment.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getName().equals("getFiler")) {
+                    return recordingFiler;
+                }
+                return invokeDelegate(method, processingEnv, args);
+            }
+        }));
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        return delegate.process(annotations, roundEnv);
+    }
+
+    @Override
+    public Iterable<? extends Completion> getCompletions(Element element, AnnotationMirror annotation,
+                                                         ExecutableElement member, String userText) {
+        return delegate.getCompletions(element, annotation, member, userText);
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invokeDelegate(Method method, Object delegate, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
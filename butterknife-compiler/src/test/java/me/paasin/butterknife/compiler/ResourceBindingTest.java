@@ -0,0 +1,92 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * 资源绑定在每个绑定类的 ResourceCache 中按字段顺序各占一个 slot。
+ */
+public final class ResourceBindingTest {
+    private static final JavaFileObject PARENT = JavaFileObjects.forSourceLines("com.example.Parent",
+            "package com.example;",
+            "import android.app.Activity;",
+            "import android.graphics.drawable.Drawable;",
+            "import me.passin.butterknife.annotations.BindColor;",
+            "import me.passin.butterknife.annotations.BindDimen;",
+            "import me.passin.butterknife.annotations.BindDrawable;",
+            "import me.passin.butterknife.annotations.BindString;",
+            "public class Parent extends Activity {",
+            "    @BindString(100) String title;",
+            "    @BindColor(101) int color;",
+            "    @BindDimen(102) int padding;",
+            "    @BindDimen(103) float radius;",
+            "    @BindDrawable(104) Drawable icon;",
+            "}");
+    private static final JavaFileObject CHILD = JavaFileObjects.forSourceLines("com.example.Child",
+            "package com.example;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindString;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class Child extends Parent {",
+            "    @BindView(1) TextView label;",
+            "    @BindString(105) String subtitle;",
+            "}");
+
+    @Test
+    public void eachResourceHasItsOwnSlot() throws IOException {
+        String parent = source(compile(), "com.example.Parent_ViewBinding");
+        assertThat(parent).contains("private static final ResourceCache RESOURCES = new ResourceCache(5);");
+        assertThat(parent).contains("RESOURCES.refresh(context);\n"
+                + "    target.title = RESOURCES.getString(context, 0, 100);\n"
+                + "    target.color = RESOURCES.getColor(context, 1, 101);\n"
+                + "    target.padding = RESOURCES.getDimensionPixelSize(context, 2, 102);\n"
+                + "    target.radius = RESOURCES.getDimension(context, 3, 103);\n"
+                + "    target.icon = RESOURCES.getDrawable(context, 4, 104);");
+    }
+
+    /**
+     * 只绑定资源的类通过 Context 构造，反射使用的 (target, View) 构造函数委托给它。
+     */
+    @Test
+    public void resourceOnlyBindingTakesContext() throws IOException {
+        String parent = source(compile(), "com.example.Parent_ViewBinding");
+        assertThat(parent).contains("public Parent_ViewBinding(Parent target, Context context) {");
+        assertThat(parent).contains("this(target, source.getContext());");
+        assertThat(parent).contains("bindViews(this.target, source.getContext());");
+    }
+
+    /**
+     * 子类的绑定类有自己的 ResourceCache，slot 从 0 开始，父类的资源由父类的绑定类绑定。
+     */
+    @Test
+    public void childBindingHasSeparateCache() throws IOException {
+        String child = source(compile(), "com.example.Child_ViewBinding");
+        assertThat(child).contains("private static final ResourceCache RESOURCES = new ResourceCache(1);");
+        assertThat(child).contains("super(target, source.getContext());");
+        assertThat(child).contains("Context context = source.getContext();\n"
+                + "    RESOURCES.refresh(context);\n"
+                + "    target.subtitle = RESOURCES.getString(context, 0, 105);");
+        assertThat(child).doesNotContain("target.title");
+    }
+
+    private static Compilation compile() {
+        Compilation compilation = javac().withProcessors(new ButterKnifeProcessor())
+                .compile(AndroidSources.withStubs(PARENT, CHILD));
+        assertThat(compilation).succeeded();
+        return compilation;
+    }
+
+    private static String source(Compilation compilation, String name) throws IOException {
+        return compilation.generatedSourceFile(name).get().getCharContent(false).toString();
+    }
+}
@@ -0,0 +1,96 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * 开启 butterknife.singlePass 时生成的升序 id 表，以及按 id 表下标绑定的字段。
+ */
+public final class SinglePassTest {
+    private static final String SINGLE_PASS = "-Abutterknife.singlePass=true";
+
+    private static final JavaFileObject PARENT = JavaFileObjects.forSourceLines("com.example.Parent",
+            "package com.example;",
+            "import android.app.Activity;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class Parent extends Activity {",
+            "    @BindView(7) TextView header;",
+            "}");
+    private static final JavaFileObject CHILD = JavaFileObjects.forSourceLines("com.example.Child",
+            "package com.example;",
+            "import android.view.View;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "import me.passin.butterknife.api.LazyView;",
+            "public class Child extends Parent {",
+            "    @BindView(30) TextView title;",
+            "    @BindView(10) View icon;",
+            "    @BindView(20) TextView subtitle;",
+            "    @BindView(value = 40, lazy = true) LazyView<TextView> lazy;",
+            "    @BindView(value = 51, stub = 50) TextView inStub;",
+            "}");
+
+    @Test
+    public void idTableIsSortedAndFieldsReadTheirIndex() throws IOException {
+        String child = source(compile(SINGLE_PASS), "com.example.Child_ViewBinding");
+        // 延迟绑定和 ViewStub 中的视图不在 id 表中。
+        assertThat(child).contains("private static final int[] VIEW_IDS = {10, 20, 30};");
+        assertThat(child).contains("View[] views = new View[3];\n"
+                + "    ViewFinder.findViewsByIds(source, VIEW_IDS, views);\n"
+                + "    target.title = (TextView) views[2];\n"
+                + "    target.icon = views[0];\n"
+                + "    target.subtitle = (TextView) views[1];\n"
+                + "    target.lazy = LazyView.bind(target.lazy, source, 40);");
+        assertThat(child).doesNotContain("source.findViewById(10)");
+    }
+
+    @Test
+    public void singleViewKeepsFindViewById() throws IOException {
+        String parent = source(compile(SINGLE_PASS), "com.example.Parent_ViewBinding");
+        assertThat(parent).doesNotContain("VIEW_IDS");
+        assertThat(parent).contains("target.header = (TextView) source.findViewById(7);");
+    }
+
+    @Test
+    public void singlePassBindsSameViewsAsFindViewById() throws Exception {
+        for (String[] options : new String[][] {{}, {SINGLE_PASS}}) {
+            GeneratedCode code = GeneratedCode.load(compile(options));
+            Object target = code.newInstance("com.example.Child");
+            Object source = code.newSource(code.newView(30), code.newView(7),
+                    code.newSource(code.newView(20), code.newView(10)));
+
+            Object binding = code.bind(target, source);
+            assertThat(code.get(target, "header")).isSameInstanceAs(code.find(source, 7));
+            assertThat(code.get(target, "icon")).isSameInstanceAs(code.find(source, 10));
+            assertThat(code.get(target, "subtitle")).isSameInstanceAs(code.find(source, 20));
+            assertThat(code.get(target, "title")).isSameInstanceAs(code.find(source, 30));
+
+            code.unbind(binding);
+            assertThat(code.get(target, "icon")).isNull();
+            assertThat(code.get(target, "title")).isNull();
+        }
+    }
+
+    private static Compilation compile(String... options) {
+        Compilation compilation = javac().withProcessors(new ButterKnifeProcessor())
+                .withOptions((Object[]) options)
+                .compile(AndroidSources.withStubs(PARENT, CHILD));
+        assertThat(compilation).succeeded();
+        return compilation;
+    }
+
+    private static String source(Compilation compilation, String name) throws IOException {
+        return compilation.generatedSourceFile(name).get().getCharContent(false).toString();
+    }
+}
@@ -0,0 +1,90 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * 开启 butterknife.staticBind 时，有监听方法的绑定类（包括子类）不生成静态方法 bind，索引对它们不提供 ViewBinder。
+ */
+public final class StaticBindTest {
+    private static final JavaFileObject PLAIN = JavaFileObjects.forSourceLines("com.example.Plain",
+            "package com.example;",
+            "import android.app.Activity;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class Plain extends Activity {",
+            "    @BindView(1) TextView title;",
+            "}");
+    private static final JavaFileObject CLICKS = JavaFileObjects.forSourceLines("com.example.Clicks",
+            "package com.example;",
+            "import android.app.Activity;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "import me.passin.butterknife.annotations.OnClick;",
+            "public class Clicks extends Activity {",
+            "    @BindView(1) TextView title;",
+            "    @OnClick(2) void submit() {}",
+            "}");
+    private static final JavaFileObject CLICKS_CHILD = JavaFileObjects.forSourceLines("com.example.ClicksChild",
+            "package com.example;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class ClicksChild extends Clicks {",
+            "    @BindView(3) TextView subtitle;",
+            "}");
+
+    @Test
+    public void bindingsWithListenersHaveNoStaticBind() throws IOException {
+        Compilation compilation = compile();
+        assertThat(source(compilation, "com.example.Plain_ViewBinding"))
+                .contains("public static void bind(Plain target, View source)");
+        assertThat(source(compilation, "com.example.Clicks_ViewBinding")).doesNotContain("static void bind");
+        assertThat(source(compilation, "com.example.ClicksChild_ViewBinding"))
+                .doesNotContain("static void bind");
+    }
+
+    @Test
+    public void indexReturnsViewBinderOnlyForStaticBindings() throws Exception {
+        GeneratedCode code = GeneratedCode.load(compile());
+        Object index = code.newInstance("com.example.AppIndex");
+        Object plain = getViewBinder(code, index, "com.example.Plain");
+        assertThat(plain).isNotNull();
+        assertThat(getViewBinder(code, index, "com.example.Clicks")).isNull();
+        assertThat(getViewBinder(code, index, "com.example.ClicksChild")).isNull();
+
+        Object target = code.newInstance("com.example.Plain");
+        Object source = code.newSource(code.newView(1));
+        code.loadClass("me.passin.butterknife.api.ViewBinder")
+                .getMethod("bind", Object.class, code.loadClass("android.view.View"))
+                .invoke(plain, target, source);
+        assertThat(code.get(target, "title")).isSameInstanceAs(code.find(source, 1));
+    }
+
+    private static Object getViewBinder(GeneratedCode code, Object index, String targetClass)
+            throws Exception {
+        return index.getClass().getMethod("getViewBinder", Class.class)
+                .invoke(index, code.loadClass(targetClass));
+    }
+
+    private static Compilation compile() {
+        Compilation compilation = javac().withProcessors(new ButterKnifeProcessor())
+                .withOptions("-Abutterknife.staticBind=true", "-Abutterknife.index=com.example.AppIndex")
+                .compile(AndroidSources.withStubs(PLAIN, CLICKS, CLICKS_CHILD));
+        assertThat(compilation).succeeded();
+        return compilation;
+    }
+
+    private static String source(Compilation compilation, String name) throws IOException {
+        return compilation.generatedSourceFile(name).get().getCharContent(false).toString();
+    }
+}
@@ -0,0 +1,90 @@
+package me.paasin.butterknife.compiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * 运行生成的绑定类，验证 ViewStub 中的视图在 inflate 时绑定，bind 时已经 inflate 的直接绑定。
+ */
+public final class StubBindingTest {
+    private static final JavaFileObject TARGET = JavaFileObjects.forSourceLines("com.example.Target",
+            "package com.example;",
+            "import android.app.Activity;",
+            "import android.view.View;",
+            "import android.widget.TextView;",
+            "import me.passin.butterknife.annotations.BindView;",
+            "public class Target extends Activity {",
+            "    @BindView(1) TextView title;",
+            "    @BindView(value = 5, stub = 4) TextView error;",
+            "    @BindView(value = 6, stub = 4) View retry;",
+            "}");
+
+    private static final String[][] OPTIONS = {{}, {"-Abutterknife.staticBind=true"}};
+
+    @Test
+    public void viewsAreBoundWhenStubInflates() throws Exception {
+        for (String[] options : OPTIONS) {
+            GeneratedCode code = compile(options);
+            Object target = code.newInstance("com.example.Target");
+            Object stub = code.newStub(4);
+            Object source = code.newSource(code.newView(1), stub);
+
+            code.bind(target, source);
+            assertThat(code.get(target, "title")).isSameInstanceAs(code.find(source, 1));
+            assertThat(code.get(target, "error")).isNull();
+            assertThat(code.get(target, "retry")).isNull();
+
+            Object inflated = code.newSource(code.newView(5), code.newView(6));
+            code.inflate(stub, inflated);
+            assertThat(code.get(target, "error")).isSameInstanceAs(code.find(inflated, 5));
+            assertThat(code.get(target, "retry")).isSameInstanceAs(code.find(inflated, 6));
+        }
+    }
+
+    /**
+     * ViewStub inflate 之后已经从视图树中移除，它的 id 找不到 ViewStub，视图直接从 source 中查找。
+     */
+    @Test
+    public void alreadyInflatedStubIsBoundImmediately() throws Exception {
+        for (String[] options : OPTIONS) {
+            GeneratedCode code = compile(options);
+            Object target = code.newInstance("com.example.Target");
+            Object source = code.newSource(code.newView(1), code.newSource(code.newView(5), code.newView(6)));
+
+            code.bind(target, source);
+            assertThat(code.get(target, "error")).isSameInstanceAs(code.find(source, 5));
+            assertThat(code.get(target, "retry")).isSameInstanceAs(code.find(source, 6));
+        }
+    }
+
+    @Test
+    public void stubInflatedAfterUnbindIsIgnored() throws Exception {
+        for (String[] options : OPTIONS) {
+            GeneratedCode code = compile(options);
+            Object target = code.newInstance("com.example.Target");
+            Object stub = code.newStub(4);
+            Object binding = code.bind(target, code.newSource(code.newView(1), stub));
+
+            code.unbind(binding);
+            code.inflate(stub, code.newSource(code.newView(5), code.newView(6)));
+            assertThat(code.get(target, "error")).isNull();
+            assertThat(code.get(target, "retry")).isNull();
+        }
+    }
+
+    private static GeneratedCode compile(String... options) throws ClassNotFoundException {
+        Compilation compilation = javac().withProcessors(new ButterKnifeProcessor())
+                .withOptions((Object[]) options)
+                .compile(AndroidSources.withStubs(TARGET));
+        assertThat(compilation).succeeded();
+        return GeneratedCode.load(compilation);
+    }
+}
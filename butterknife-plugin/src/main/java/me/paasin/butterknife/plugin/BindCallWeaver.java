@@ -0,0 +1,250 @@
+package me.paasin.butterknife.plugin;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.TypeInsnNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 把类中的 ButterKnife.bind(this, ...) 改写为直接创建绑定类：
+ * <pre><code>
+ * // 改写前
+ * ButterKnife.bind(this);
+ * // 改写后
+ * butterknife$bind(this);
+ *
+ * private static synthetic Unbinder butterknife$bind(DemoActivity target) {
+ *   return new DemoActivity_ViewBinding(target, target.getWindow().getDecorView());
+ * }
+ * </code></pre>
+ * 调用处不再经过 ButterKnife 的缓存和反射查找，也不再加载 ButterKnife 内部的 BindingConstructor 等类。
+ * 只改写 target 为 this 且能在编译期确定绑定类的调用，其余的调用保持不变。
+ */
+final class BindCallWeaver {
+    static final String BUTTER_KNIFE = "me/passin/butterknife/api/ButterKnife";
+    static final String UNBINDER = "me/passin/butterknife/api/Unbinder";
+    static final String BIND_METHOD = "butterknife$bind";
+
+    private static final String VIEW = "android/view/View";
+    private static final String ACTIVITY = "android/app/Activity";
+    private static final String DIALOG = "android/app/Dialog";
+    private static final String WINDOW = "android/view/Window";
+    private static final byte[] BUTTER_KNIFE_UTF8 = BUTTER_KNIFE.getBytes(Charset.forName("UTF-8"));
+
+    private final BindingClassIndex index;
+    private int wovenCallCount;
+
+    BindCallWeaver(BindingClassIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * 本次改写的调用处数量。
+     */
+    int getWovenCallCount() {
+        return wovenCallCount;
+    }
+
+    /**
+     * 返回改写后的字节码，没有需要改写的调用时原样返回 classBytes。
+     */
+    byte[] weave(byte[] classBytes) {
+        // 绝大多数类不引用 ButterKnife，先在常量池中查找类名，避免解析整个类。
+        if (index.isEmpty() || !contains(classBytes, BUTTER_KNIFE_UTF8)) {
+            return classBytes;
+        }
+        ClassNode classNode = new ClassNode();
+        new ClassReader(classBytes).accept(classNode, 0);
+        if ((classNode.access & Opcodes.ACC_INTERFACE) != 0) {
+            return classBytes;
+        }
+        String bindingClass = index.findBindingClass(classNode.name);
+        if (bindingClass == null) {
+            return classBytes;
+        }
+
+        // key 为 ButterKnife.bind 的描述符，value 为对应的合成方法的描述符。
+        Map<String, String> bindMethods = new LinkedHashMap<>();
+        for (MethodNode method : classNode.methods) {
+            if ((method.access & Opcodes.ACC_STATIC) != 0) {
+                continue;
+            }
+            for (AbstractInsnNode insn = method.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+                if (!isButterKnifeBind(insn)) {
+                    continue;
+                }
+                MethodInsnNode call = (MethodInsnNode) insn;
+                Type[] arguments = Type.getArgumentTypes(call.desc);
+                if (getSourceType(arguments) == null || !isThisArgument(call, arguments.length)) {
+                    continue;
+                }
+                String bindDescriptor = bindMethods.get(call.desc);
+                if (bindDescriptor == null) {
+                    bindDescriptor = getBindMethodDescriptor(classNode.name, arguments);
+                    bindMethods.put(call.desc, bindDescriptor);
+                }
+                call.owner = classNode.name;
+                call.name = BIND_METHOD;
+                call.desc = bindDescriptor;
+                wovenCallCount++;
+            }
+        }
+        if (bindMethods.isEmpty()) {
+            return classBytes;
+        }
+        for (Map.Entry<String, String> entry : bindMethods.entrySet()) {
+            classNode.methods.add(createBindMethod(classNode.name, bindingClass,
+                    Type.getArgumentTypes(entry.getKey()), entry.getValue()));
+        }
+
+        // 只替换了调用指令并添加了没有分支的方法，原有的栈帧仍然有效，不需要重新计算。
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        classNode.accept(writer);
+        return writer.toByteArray();
+    }
+
+    private static boolean isButterKnifeBind(AbstractInsnNode insn) {
+        if (insn.getOpcode() != Opcodes.INVOKESTATIC) {
+            return false;
+        }
+        MethodInsnNode call = (MethodInsnNode) insn;
+        return call.owner.equals(BUTTER_KNIFE) && call.name.equals("bind")
+                && Type.getReturnType(call.desc).getInternalName().equals(UNBINDER);
+    }
+
+    /**
+     * 返回查找视图的 source 的类型，bind(Activity|View|Dialog) 时为 target 本身；不支持的重载返回 null。
+     */
+    private static String getSourceType(Type[] arguments) {
+        Type source = arguments[arguments.length - 1];
+        if (source.getSort() != Type.OBJECT) {
+            return null;
+        }
+        String name = source.getInternalName();
+        return name.equals(VIEW) || name.equals(ACTIVITY) || name.equals(DIALOG) ? name : null;
+    }
+
+    /**
+     * 第一个参数是否由 aload_0（实例方法中的 this）直接压栈。
+     * 从调用处向前跳过其余参数的指令，遇到分支、标签或者无法确定栈变化的指令时放弃。
+     */
+    private static boolean isThisArgument(MethodInsnNode call, int argumentCount) {
+        // 需要跳过的栈上的值的数量。
+        int remaining = argumentCount - 1;
+        AbstractInsnNode insn = call.getPrevious();
+        while (insn != null && remaining > 0) {
+            int[] effect = getStackEffect(insn);
+            if (effect == null || effect[1] > remaining) {
+                return false;
+            }
+            remaining = remaining - effect[1] + effect[0];
+            insn = insn.getPrevious();
+        }
+        return insn != null && insn.getOpcode() == Opcodes.ALOAD && ((VarInsnNode) insn).var == 0;
+    }
+
+    /**
+     * 返回 {弹出的值的数量, 压入的值的数量}，只支持计算参数时常见的指令。
+     */
+    private static int[] getStackEffect(AbstractInsnNode insn) {
+        switch (insn.getOpcode()) {
+            case Opcodes.ALOAD:
+            case Opcodes.ACONST_NULL:
+                return new int[]{0, 1};
+            case Opcodes.GETSTATIC:
+                return Type.getType(((FieldInsnNode) insn).desc).getSize() == 2 ? null : new int[]{0, 1};
+            case Opcodes.GETFIELD:
+                return Type.getType(((FieldInsnNode) insn).desc).getSize() == 2 ? null : new int[]{1, 1};
+            case Opcodes.CHECKCAST:
+                return new int[]{1, 1};
+            case Opcodes.LDC:
+                Object constant = ((LdcInsnNode) insn).cst;
+                return constant instanceof Long || constant instanceof Double ? null : new int[]{0, 1};
+            case Opcodes.INVOKEVIRTUAL:
+            case Opcodes.INVOKEINTERFACE:
+            case Opcodes.INVOKESTATIC: {
+                MethodInsnNode method = (MethodInsnNode) insn;
+                Type returnType = Type.getReturnType(method.desc);
+                if (returnType.getSize() == 2) {
+                    return null;
+                }
+                int pops = 0;
+                for (Type argument : Type.getArgumentTypes(method.desc)) {
+                    if (argument.getSize() == 2) {
+                        return null;
+                    }
+                    pops++;
+                }
+                if (insn.getOpcode() != Opcodes.INVOKESTATIC) {
+                    pops++;
+                }
+                return new int[]{pops, returnType.getSize()};
+            }
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 合成方法的第一个参数为当前类，其余参数与 ButterKnife.bind 相同。
+     */
+    private static String getBindMethodDescriptor(String className, Type[] arguments) {
+        Type[] bindArguments = arguments.clone();
+        bindArguments[0] = Type.getObjectType(className);
+        return Type.getMethodDescriptor(Type.getObjectType(UNBINDER), bindArguments);
+    }
+
+    /**
+     * return new Target_ViewBinding(target, source)，source 与 ButterKnife.bind 中的取法一致。
+     */
+    private static MethodNode createBindMethod(String className, String bindingClass, Type[] arguments,
+                                               String descriptor) {
+        MethodNode method = new MethodNode(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC,
+                BIND_METHOD, descriptor, null, null);
+        String sourceType = getSourceType(arguments);
+        int sourceSlot = arguments.length - 1;
+        method.instructions.add(new TypeInsnNode(Opcodes.NEW, bindingClass));
+        method.instructions.add(new InsnNode(Opcodes.DUP));
+        method.instructions.add(new VarInsnNode(Opcodes.ALOAD, 0));
+        method.instructions.add(new VarInsnNode(Opcodes.ALOAD, sourceSlot));
+        if (!sourceType.equals(VIEW)) {
+            method.instructions.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, sourceType, "getWindow",
+                    "()L" + WINDOW + ";", false));
+            method.instructions.add(new MethodInsnNode(Opcodes.INVOKEVIRTUAL, WINDOW, "getDecorView",
+                    "()L" + VIEW + ";", false));
+        }
+        method.instructions.add(new MethodInsnNode(Opcodes.INVOKESPECIAL, bindingClass, "<init>",
+                String.format(BindingClassIndex.VIEW_CONSTRUCTOR_DESCRIPTOR_FORMAT,
+                        BindingClassIndex.getTargetClass(bindingClass)), false));
+        method.instructions.add(new InsnNode(Opcodes.ARETURN));
+        method.maxStack = 4;
+        method.maxLocals = arguments.length;
+        return method;
+    }
+
+    private static boolean contains(byte[] bytes, byte[] pattern) {
+        outer:
+        for (int i = 0; i <= bytes.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (bytes[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,109 @@
+package me.paasin.butterknife.plugin;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 参与打包的所有类的继承关系以及生成的 _ViewBinding 类，类名均为内部名称（com/example/DemoActivity）。
+ * <p>
+ * 运行时 ButterKnife.bind() 按 target.getClass() 查找绑定类，因此只有在没有任何子类拥有自己的绑定类时，
+ * 才能在编译期确定调用处对应的绑定类。
+ */
+final class BindingClassIndex {
+    static final String BINDING_SUFFIX = "_ViewBinding";
+    static final String VIEW_CONSTRUCTOR_DESCRIPTOR_FORMAT = "(L%s;Landroid/view/View;)V";
+
+    /**
+     * key 为类名，value 为父类名。
+     */
+    private final Map<String, String> superNames = new HashMap<>();
+    /**
+     * key 为绑定类名，value 为它的 public 构造函数的描述符。
+     */
+    private final Map<String, Set<String>> bindingConstructors = new HashMap<>();
+    /**
+     * 拥有绑定类的子类的所有父类，第一次查询时计算。
+     */
+    private Set<String> boundSupertypes;
+
+    void add(byte[] classBytes) {
+        ClassReader reader = new ClassReader(classBytes);
+        String className = reader.getClassName();
+        superNames.put(className, reader.getSuperName());
+        if (className.endsWith(BINDING_SUFFIX)) {
+            bindingConstructors.put(className, readPublicConstructors(reader));
+        }
+        boundSupertypes = null;
+    }
+
+    boolean isEmpty() {
+        return bindingConstructors.isEmpty();
+    }
+
+    /**
+     * 返回 target 运行时使用的绑定类，不能在编译期确定时返回 null。
+     * target 本身没有绑定类时与 ButterKnife 一样使用最近的父类的绑定类。
+     */
+    String findBindingClass(String target) {
+        if (getBoundSupertypes().contains(target)) {
+            // 子类有自己的绑定类，调用处的 this 可能是子类的实例。
+            return null;
+        }
+        for (String type = target; type != null; type = superNames.get(type)) {
+            if (type.startsWith("android/") || type.startsWith("androidx/") || type.startsWith("java/")) {
+                return null;
+            }
+            String bindingClass = type + BINDING_SUFFIX;
+            Set<String> constructors = bindingConstructors.get(bindingClass);
+            if (constructors != null) {
+                // 所有绑定类都有 (Target, View) 构造函数。
+                return constructors.contains(String.format(VIEW_CONSTRUCTOR_DESCRIPTOR_FORMAT, type))
+                        ? bindingClass : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 返回绑定类对应的目标类，即 (Target, View) 构造函数的第一个参数。
+     */
+    static String getTargetClass(String bindingClass) {
+        return bindingClass.substring(0, bindingClass.length() - BINDING_SUFFIX.length());
+    }
+
+    private static Set<String> readPublicConstructors(ClassReader reader) {
+        final Set<String> constructors = new HashSet<>();
+        reader.accept(new ClassVisitor(Opcodes.ASM7) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                                             String[] exceptions) {
+                if (name.equals("<init>") && (access & Opcodes.ACC_PUBLIC) != 0) {
+                    constructors.add(descriptor);
+                }
+                return null;
+            }
+        }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return constructors;
+    }
+
+    private Set<String> getBoundSupertypes() {
+        if (boundSupertypes == null) {
+            Set<String> result = new HashSet<>();
+            for (String bindingClass : bindingConstructors.keySet()) {
+                String type = superNames.get(getTargetClass(bindingClass));
+                while (type != null && result.add(type)) {
+                    type = superNames.get(type);
+                }
+            }
+            boundSupertypes = result;
+        }
+        return boundSupertypes;
+    }
+}
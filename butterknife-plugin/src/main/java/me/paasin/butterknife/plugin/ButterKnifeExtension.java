@@ -0,0 +1,36 @@
+package me.paasin.butterknife.plugin;
+
+/**
+ * 应用模块 build.gradle 中的配置：
+ * <pre><code>
+ * apply plugin: 'me.passin.butterknife'
+ *
+ * butterknife {
+ *     weaveDebug = false
+ * }
+ * </code></pre>
+ */
+public class ButterKnifeExtension {
+    private boolean enabled = true;
+    private boolean weaveDebug;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * 为 true 时 debuggable 的变体也改写调用处，默认只改写 release 等不可调试的变体，
+     * 调试时仍然经过 ButterKnife.bind()，可以使用 setDebug() 和 BindingMonitor。
+     */
+    public boolean isWeaveDebug() {
+        return weaveDebug;
+    }
+
+    public void setWeaveDebug(boolean weaveDebug) {
+        this.weaveDebug = weaveDebug;
+    }
+}
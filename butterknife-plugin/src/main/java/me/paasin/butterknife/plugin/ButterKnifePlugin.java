@@ -0,0 +1,40 @@
+package me.paasin.butterknife.plugin;
+
+import com.android.build.gradle.AppExtension;
+import com.android.build.gradle.AppPlugin;
+import com.android.build.gradle.api.ApplicationVariant;
+
+import org.gradle.api.Action;
+import org.gradle.api.GradleException;
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 在应用模块中注册 {@link ButterKnifeTransform}，打包时把 ButterKnife.bind(this) 改写为直接创建绑定类。
+ * 只能用于 com.android.application 模块，因为只有它能看到所有的目标类和绑定类。
+ */
+public class ButterKnifePlugin implements Plugin<Project> {
+    @Override
+    public void apply(final Project project) {
+        if (!project.getPlugins().hasPlugin(AppPlugin.class)) {
+            throw new GradleException("me.passin.butterknife must be applied after com.android.application.");
+        }
+        ButterKnifeExtension extension = project.getExtensions().create("butterknife", ButterKnifeExtension.class);
+        AppExtension android = project.getExtensions().getByType(AppExtension.class);
+
+        // Transform 中只能拿到变体名称，预先记录可调试的变体。
+        final Set<String> debuggableVariants = new HashSet<>();
+        android.getApplicationVariants().all(new Action<ApplicationVariant>() {
+            @Override
+            public void execute(ApplicationVariant variant) {
+                if (variant.getBuildType().isDebuggable()) {
+                    debuggableVariants.add(variant.getName());
+                }
+            }
+        });
+        android.registerTransform(new ButterKnifeTransform(project.getLogger(), extension, debuggableVariants));
+    }
+}
@@ -0,0 +1,184 @@
+package me.paasin.butterknife.plugin;
+
+import com.android.build.api.transform.DirectoryInput;
+import com.android.build.api.transform.Format;
+import com.android.build.api.transform.JarInput;
+import com.android.build.api.transform.QualifiedContent;
+import com.android.build.api.transform.Transform;
+import com.android.build.api.transform.TransformException;
+import com.android.build.api.transform.TransformInput;
+import com.android.build.api.transform.TransformInvocation;
+import com.android.build.api.transform.TransformOutputProvider;
+import com.android.build.gradle.internal.pipeline.TransformManager;
+
+import org.gradle.api.logging.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Enumeration;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 分两遍处理所有的 class：第一遍建立 {@link BindingClassIndex}，第二遍用 {@link BindCallWeaver} 改写并输出。
+ * 改写依赖整个应用的继承关系，因此不支持增量，不需要改写的变体只复制输入。
+ */
+final class ButterKnifeTransform extends Transform {
+    private final Logger logger;
+    private final ButterKnifeExtension extension;
+    private final Set<String> debuggableVariants;
+
+    ButterKnifeTransform(Logger logger, ButterKnifeExtension extension, Set<String> debuggableVariants) {
+        this.logger = logger;
+        this.extension = extension;
+        this.debuggableVariants = debuggableVariants;
+    }
+
+    @Override
+    public String getName() {
+        return "butterKnife";
+    }
+
+    @Override
+    public Set<QualifiedContent.ContentType> getInputTypes() {
+        return TransformManager.CONTENT_CLASS;
+    }
+
+    @Override
+    public Set<? super QualifiedContent.Scope> getScopes() {
+        return TransformManager.SCOPE_FULL_PROJECT;
+    }
+
+    @Override
+    public boolean isIncremental() {
+        return false;
+    }
+
+    @Override
+    public void transform(TransformInvocation invocation)
+            throws TransformException, InterruptedException, IOException {
+        String variantName = invocation.getContext().getVariantName();
+        boolean weave = extension.isEnabled()
+                && (extension.isWeaveDebug() || !debuggableVariants.contains(variantName));
+
+        BindingClassIndex index = new BindingClassIndex();
+        if (weave) {
+            for (TransformInput input : invocation.getInputs()) {
+                for (DirectoryInput directoryInput : input.getDirectoryInputs()) {
+                    scanDirectory(index, directoryInput.getFile().toPath());
+                }
+                for (JarInput jarInput : input.getJarInputs()) {
+                    scanJar(index, jarInput.getFile());
+                }
+            }
+        }
+
+        BindCallWeaver weaver = new BindCallWeaver(index);
+        TransformOutputProvider outputProvider = invocation.getOutputProvider();
+        outputProvider.deleteAll();
+        for (TransformInput input : invocation.getInputs()) {
+            for (DirectoryInput directoryInput : input.getDirectoryInputs()) {
+                File output = outputProvider.getContentLocation(directoryInput.getName(),
+                        directoryInput.getContentTypes(), directoryInput.getScopes(), Format.DIRECTORY);
+                weaveDirectory(weaver, directoryInput.getFile().toPath(), output.toPath());
+            }
+            for (JarInput jarInput : input.getJarInputs()) {
+                File output = outputProvider.getContentLocation(jarInput.getName(),
+                        jarInput.getContentTypes(), jarInput.getScopes(), Format.JAR);
+                weaveJar(weaver, jarInput.getFile(), output);
+            }
+        }
+        if (weave) {
+            logger.info("ButterKnife: woven {} bind call(s) in {}.", weaver.getWovenCallCount(), variantName);
+        }
+    }
+
+    private static void scanDirectory(final BindingClassIndex index, Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (isClassFile(file.toString())) {
+                    index.add(Files.readAllBytes(file));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void scanJar(BindingClassIndex index, File jar) throws IOException {
+        try (ZipFile zip = new ZipFile(jar)) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (isClassFile(entry.getName())) {
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        index.add(readAllBytes(in));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void weaveDirectory(final BindCallWeaver weaver, final Path input, final Path output)
+            throws IOException {
+        if (!Files.isDirectory(input)) {
+            return;
+        }
+        Files.walkFileTree(input, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path target = output.resolve(input.relativize(file).toString());
+                Files.createDirectories(target.getParent());
+                byte[] bytes = Files.readAllBytes(file);
+                Files.write(target, isClassFile(file.toString()) ? weaver.weave(bytes) : bytes);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void weaveJar(BindCallWeaver weaver, File input, File output) throws IOException {
+        output.getParentFile().mkdirs();
+        try (ZipFile zip = new ZipFile(input);
+             ZipOutputStream out = new ZipOutputStream(new FileOutputStream(output))) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                out.putNextEntry(new ZipEntry(entry.getName()));
+                if (!entry.isDirectory()) {
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        byte[] bytes = readAllBytes(in);
+                        out.write(isClassFile(entry.getName()) ? weaver.weave(bytes) : bytes);
+                    }
+                }
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static boolean isClassFile(String name) {
+        return name.endsWith(".class") && !name.endsWith("module-info.class");
+    }
+
+    private static byte[] readAllBytes(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
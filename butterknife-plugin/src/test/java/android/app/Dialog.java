@@ -0,0 +1,14 @@
+package android.app;
+
+import android.view.Window;
+
+/**
+ * JVM 上的替身，只提供改写后的字节码用到的部分。
+ */
+public class Dialog {
+    private final Window window = new Window();
+
+    public Window getWindow() {
+        return window;
+    }
+}
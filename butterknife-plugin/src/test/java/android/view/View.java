@@ -0,0 +1,7 @@
+package android.view;
+
+/**
+ * JVM 上的替身，只提供改写后的字节码用到的部分。
+ */
+public class View {
+}
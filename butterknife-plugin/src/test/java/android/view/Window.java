@@ -0,0 +1,12 @@
+package android.view;
+
+/**
+ * JVM 上的替身，只提供改写后的字节码用到的部分。
+ */
+public class Window {
+    private final View decorView = new View();
+
+    public View getDecorView() {
+        return decorView;
+    }
+}
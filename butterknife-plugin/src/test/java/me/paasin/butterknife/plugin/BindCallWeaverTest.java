@@ -0,0 +1,225 @@
+package me.paasin.butterknife.plugin;
+
+import android.app.Activity;
+import android.app.Dialog;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.util.CheckClassAdapter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+
+import me.passin.butterknife.api.Unbinder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 在 JVM 上加载改写后的类并调用，检查 ButterKnife.bind 的调用处被替换为直接创建对应的绑定类。
+ * android 和 ButterKnife 的类使用 src/test 中的替身。
+ */
+public final class BindCallWeaverTest {
+    private BindingClassIndex index;
+    private BindCallWeaver weaver;
+    private ClassLoader loader;
+
+    @Before
+    public void setUp() throws IOException {
+        index = new BindingClassIndex();
+        for (Class<?> fixture : WeaverFixtures.class.getDeclaredClasses()) {
+            index.add(readClass(fixture));
+        }
+        weaver = new BindCallWeaver(index);
+        loader = new WeavingClassLoader();
+    }
+
+    @Test
+    public void bindActivityUsesDecorView() throws Exception {
+        Activity activity = (Activity) newFixture("BoundActivity");
+        Object binding = invoke(activity, "bindThis");
+        assertBinding(binding, "BoundActivity_ViewBinding", activity, activity.getWindow().getDecorView());
+    }
+
+    @Test
+    public void bindWithExplicitSource() throws Exception {
+        Object activity = newFixture("BoundActivity");
+        View source = new View();
+        Object binding = invoke(activity, "bindWithSource", View.class, source);
+        assertBinding(binding, "BoundActivity_ViewBinding", activity, source);
+    }
+
+    @Test
+    public void bindViewUsesTargetAsSource() throws Exception {
+        Object view = newFixture("BoundView");
+        Object binding = invoke(view, "bindThis");
+        assertBinding(binding, "BoundView_ViewBinding", view, view);
+    }
+
+    @Test
+    public void bindDialogUsesDecorView() throws Exception {
+        Dialog dialog = (Dialog) newFixture("BoundDialog");
+        Object binding = invoke(dialog, "bindThis");
+        assertBinding(binding, "BoundDialog_ViewBinding", dialog, dialog.getWindow().getDecorView());
+    }
+
+    @Test
+    public void otherTargetIsNotRewritten() throws Exception {
+        Object activity = newFixture("BoundActivity");
+        Class<?> type = activity.getClass();
+        Object binding = invoke(activity, "bindOther", type, type.getDeclaredConstructor().newInstance());
+        assertSame(Unbinder.EMPTY, binding);
+
+        // bindThis 与 bindWithSource 被改写，bindOther 保持不变。
+        BindCallWeaver weaver = new BindCallWeaver(index);
+        ClassNode classNode = readNode(weaver.weave(readClass(WeaverFixtures.BoundActivity.class)));
+        assertEquals(2, weaver.getWovenCallCount());
+        assertEquals(BindCallWeaver.BUTTER_KNIFE, findCall(classNode, "bindOther").owner);
+        assertEquals(BindCallWeaver.BIND_METHOD, findCall(classNode, "bindThis").name);
+    }
+
+    @Test
+    public void superclassOfBoundSubclassIsNotRewritten() throws Exception {
+        byte[] parent = readClass(WeaverFixtures.ParentActivity.class);
+        assertSame(parent, weaver.weave(parent));
+        assertSame(Unbinder.EMPTY, invoke(newFixture("ParentActivity"), "bindThis"));
+        assertSame(Unbinder.EMPTY, invoke(newFixture("ChildActivity"), "bindThis"));
+
+        Object child = newFixture("ChildActivity");
+        Object binding = invoke(child, "bindChild");
+        assertBinding(binding, "ChildActivity_ViewBinding", child, ((Activity) child).getWindow().getDecorView());
+    }
+
+    @Test
+    public void wovenClassesPassVerification() throws IOException {
+        for (Class<?> fixture : WeaverFixtures.class.getDeclaredClasses()) {
+            byte[] classBytes = readClass(fixture);
+            byte[] woven = weaver.weave(classBytes);
+            if (woven == classBytes) {
+                continue;
+            }
+            StringWriter errors = new StringWriter();
+            CheckClassAdapter.verify(new ClassReader(woven), loader, false, new PrintWriter(errors));
+            assertEquals(fixture.getName(), "", errors.toString());
+        }
+    }
+
+    private void assertBinding(Object binding, String bindingName, Object target, Object source)
+            throws ReflectiveOperationException {
+        assertNotSame(Unbinder.EMPTY, binding);
+        assertEquals(WeaverFixtures.class.getName() + "$" + bindingName, binding.getClass().getName());
+        assertSame(target, binding.getClass().getField("target").get(binding));
+        assertSame(source, binding.getClass().getField("source").get(binding));
+    }
+
+    private Object newFixture(String simpleName) throws ReflectiveOperationException {
+        return loader.loadClass(WeaverFixtures.class.getName() + "$" + simpleName).getDeclaredConstructor().newInstance();
+    }
+
+    private static Object invoke(Object instance, String name, Object... parameterTypesAndArguments)
+            throws ReflectiveOperationException {
+        int count = parameterTypesAndArguments.length / 2;
+        Class<?>[] parameterTypes = new Class<?>[count];
+        Object[] arguments = new Object[count];
+        for (int i = 0; i < count; i++) {
+            parameterTypes[i] = (Class<?>) parameterTypesAndArguments[i * 2];
+            arguments[i] = parameterTypesAndArguments[i * 2 + 1];
+        }
+        Method method = findMethod(instance.getClass(), name, parameterTypes);
+        // 改写后的类由 WeavingClassLoader 定义，与测试类不在同一个运行时包中。
+        method.setAccessible(true);
+        return method.invoke(instance, arguments);
+    }
+
+    private static Method findMethod(Class<?> type, String name, Class<?>[] parameterTypes)
+            throws NoSuchMethodException {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            try {
+                return current.getDeclaredMethod(name, parameterTypes);
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        throw new NoSuchMethodException(type.getName() + "." + name);
+    }
+
+    private static MethodInsnNode findCall(ClassNode classNode, String methodName) {
+        for (MethodNode method : classNode.methods) {
+            if (!method.name.equals(methodName)) {
+                continue;
+            }
+            for (AbstractInsnNode insn = method.instructions.getFirst(); insn != null; insn = insn.getNext()) {
+                if (insn.getOpcode() == Opcodes.INVOKESTATIC) {
+                    return (MethodInsnNode) insn;
+                }
+            }
+        }
+        throw new AssertionError("No static call in " + methodName);
+    }
+
+    private static ClassNode readNode(byte[] classBytes) {
+        ClassNode classNode = new ClassNode();
+        new ClassReader(classBytes).accept(classNode, 0);
+        return classNode;
+    }
+
+    private static byte[] readClass(Class<?> type) throws IOException {
+        return readClass(type.getName());
+    }
+
+    private static byte[] readClass(String className) throws IOException {
+        String resource = className.replace('.', '/') + ".class";
+        try (InputStream in = BindCallWeaverTest.class.getClassLoader().getResourceAsStream(resource)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * 自己定义 WeaverFixtures 中的类并在定义前改写，其余的类（替身、JDK）交给父加载器。
+     */
+    private final class WeavingClassLoader extends ClassLoader {
+        WeavingClassLoader() {
+            super(BindCallWeaverTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith(WeaverFixtures.class.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> type = findLoadedClass(name);
+                if (type == null) {
+                    byte[] classBytes;
+                    try {
+                        classBytes = weaver.weave(readClass(name));
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                    type = defineClass(name, classBytes, 0, classBytes.length);
+                }
+                if (resolve) {
+                    resolveClass(type);
+                }
+                return type;
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package me.paasin.butterknife.plugin;
+
+import android.app.Activity;
+import android.app.Dialog;
+import android.view.View;
+
+import me.passin.butterknife.api.ButterKnife;
+import me.passin.butterknife.api.Unbinder;
+
+/**
+ * {@link BindCallWeaverTest} 改写的类，_ViewBinding 类与处理器生成的一样提供 (Target, View) 构造函数，
+ * 并记录传入的参数。
+ */
+final class WeaverFixtures {
+    private WeaverFixtures() {
+    }
+
+    public abstract static class RecordingBinding implements Unbinder {
+        public final Object target;
+        public final View source;
+
+        RecordingBinding(Object target, View source) {
+            this.target = target;
+            this.source = source;
+        }
+
+        @Override
+        public void unbind() {
+        }
+    }
+
+    public static class BoundActivity extends Activity {
+        Unbinder bindThis() {
+            return ButterKnife.bind(this);
+        }
+
+        Unbinder bindWithSource(View source) {
+            return ButterKnife.bind(this, source);
+        }
+
+        Unbinder bindOther(BoundActivity other) {
+            return ButterKnife.bind(other);
+        }
+    }
+
+    public static class BoundActivity_ViewBinding extends RecordingBinding {
+        public BoundActivity_ViewBinding(BoundActivity target, View source) {
+            super(target, source);
+        }
+    }
+
+    public static class BoundView extends View {
+        Unbinder bindThis() {
+            return ButterKnife.bind(this);
+        }
+    }
+
+    public static class BoundView_ViewBinding extends RecordingBinding {
+        public BoundView_ViewBinding(BoundView target, View source) {
+            super(target, source);
+        }
+    }
+
+    public static class BoundDialog extends Dialog {
+        Unbinder bindThis() {
+            return ButterKnife.bind(this);
+        }
+    }
+
+    public static class BoundDialog_ViewBinding extends RecordingBinding {
+        public BoundDialog_ViewBinding(BoundDialog target, View source) {
+            super(target, source);
+        }
+    }
+
+    /**
+     * 子类有自己的绑定类，this 可能是子类的实例，调用处不能改写。
+     */
+    public static class ParentActivity extends Activity {
+        Unbinder bindThis() {
+            return ButterKnife.bind(this);
+        }
+    }
+
+    public static class ParentActivity_ViewBinding extends RecordingBinding {
+        public ParentActivity_ViewBinding(ParentActivity target, View source) {
+            super(target, source);
+        }
+    }
+
+    public static class ChildActivity extends ParentActivity {
+        Unbinder bindChild() {
+            return ButterKnife.bind(this);
+        }
+    }
+
+    public static class ChildActivity_ViewBinding extends RecordingBinding {
+        public ChildActivity_ViewBinding(ChildActivity target, View source) {
+            super(target, source);
+        }
+    }
+}
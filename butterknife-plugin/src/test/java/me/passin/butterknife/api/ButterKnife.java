@@ -0,0 +1,37 @@
+package me.passin.butterknife.api;
+
+import android.app.Activity;
+import android.app.Dialog;
+import android.view.View;
+
+/**
+ * JVM 上的替身，重载与运行时库相同。总是返回 {@link Unbinder#EMPTY}，用来区分调用处是否被改写。
+ */
+public final class ButterKnife {
+    private ButterKnife() {
+    }
+
+    public static Unbinder bind(Activity target) {
+        return Unbinder.EMPTY;
+    }
+
+    public static Unbinder bind(View target) {
+        return Unbinder.EMPTY;
+    }
+
+    public static Unbinder bind(Dialog target) {
+        return Unbinder.EMPTY;
+    }
+
+    public static Unbinder bind(Object target, Activity source) {
+        return Unbinder.EMPTY;
+    }
+
+    public static Unbinder bind(Object target, Dialog source) {
+        return Unbinder.EMPTY;
+    }
+
+    public static Unbinder bind(Object target, View source) {
+        return Unbinder.EMPTY;
+    }
+}
@@ -0,0 +1,14 @@
+package me.passin.butterknife.api;
+
+/**
+ * JVM 上的替身，与运行时库中的接口相同。
+ */
+public interface Unbinder {
+    void unbind();
+
+    Unbinder EMPTY = new Unbinder() {
+        @Override
+        public void unbind() {
+        }
+    };
+}